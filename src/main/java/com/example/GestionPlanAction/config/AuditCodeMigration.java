@@ -0,0 +1,86 @@
+package com.example.GestionPlanAction.config;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.example.GestionPlanAction.enums.AuditCodeKind;
+import com.example.GestionPlanAction.service.AuditCodes;
+
+/**
+ * Audit rows used to store the action and entity type as text. On the first start after they
+ * became {@link AuditCodes}, existing labels get their codes, rows are converted by chunks of ids,
+ * each chunk committed on its own, then the text columns are dropped. An interrupted migration
+ * carries on with the rows left at the next start.
+ */
+@Component
+public class AuditCodeMigration implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditCodeMigration.class);
+
+    private static final int CHUNK_SIZE = 10_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AuditCodes auditCodes;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!hasColumn("action")) {
+            return;
+        }
+        for (String action : jdbcTemplate.queryForList(
+                "SELECT DISTINCT action FROM audit WHERE action_code IS NULL AND action IS NOT NULL", String.class)) {
+            auditCodes.code(AuditCodeKind.ACTION, action);
+        }
+        for (String entityType : jdbcTemplate.queryForList(
+                "SELECT DISTINCT entity_type FROM audit WHERE action_code IS NULL AND entity_type IS NOT NULL",
+                String.class)) {
+            auditCodes.code(AuditCodeKind.ENTITY_TYPE, entityType);
+        }
+
+        Map<String, Object> range = jdbcTemplate.queryForMap(
+                "SELECT MIN(id) AS low, MAX(id) AS high FROM audit WHERE action_code IS NULL");
+        if (range.get("low") != null) {
+            long low = ((Number) range.get("low")).longValue();
+            long high = ((Number) range.get("high")).longValue();
+            long rows = 0;
+            for (long from = low; from <= high; from += CHUNK_SIZE) {
+                rows += jdbcTemplate.update("""
+                        UPDATE audit SET
+                          action_code = (SELECT c.id FROM audit_code c WHERE c.kind = ? AND c.label = audit.action),
+                          entity_type_code = (SELECT c.id FROM audit_code c WHERE c.kind = ? AND c.label = audit.entity_type)
+                        WHERE id >= ? AND id < ? AND action_code IS NULL
+                        """, AuditCodeKind.ACTION.name(), AuditCodeKind.ENTITY_TYPE.name(), from, from + CHUNK_SIZE);
+            }
+            logger.info("{} audit rows converted to action and entity type codes", rows);
+        }
+
+        for (String column : List.of("action", "entity_type")) {
+            if (hasColumn(column)) {
+                jdbcTemplate.execute("ALTER TABLE audit DROP COLUMN " + column);
+                logger.info("audit.{} dropped", column);
+            }
+        }
+    }
+
+    private boolean hasColumn(String column) {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            try (ResultSet columns = metaData.getColumns(connection.getCatalog(), null, "audit", column)) {
+                return columns.next();
+            }
+        }));
+    }
+}
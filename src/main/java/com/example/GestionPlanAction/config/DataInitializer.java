@@ -6,8 +6,10 @@ import com.example.GestionPlanAction.model.User;
 import com.example.GestionPlanAction.repository.ProfilRepository;
 import com.example.GestionPlanAction.repository.ServiceLineRepository;
 import com.example.GestionPlanAction.repository.UserRepository;
+import com.example.GestionPlanAction.service.ReferenceDataEvent;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 // import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
@@ -30,6 +32,9 @@ public class DataInitializer implements CommandLineRunner {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Override
     @Transactional
     public void run(String... args) throws Exception {
@@ -52,6 +57,7 @@ public class DataInitializer implements CommandLineRunner {
             director.setNom("DIRECTEUR_GENERAL");
             profilRepository.save(director);
 
+            eventPublisher.publishEvent(new ReferenceDataEvent());
             System.out.println("✅ Profils initialisés");
         }
     }
@@ -74,6 +80,7 @@ public class DataInitializer implements CommandLineRunner {
             operations.setNom("Opérations");
             serviceLineRepository.save(operations);
 
+            eventPublisher.publishEvent(new ReferenceDataEvent());
             System.out.println("✅ Lignes de service initialisées");
         }
     }
@@ -0,0 +1,54 @@
+package com.example.GestionPlanAction.config;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Entity ids are handed out in blocks from the id_generator table (one row per entity table,
+ * pooled-lo optimizer). Hibernate keeps the last used value in next_val, so tables filled while
+ * ids were AUTO_INCREMENT need their row raised to the current max(id), otherwise the first
+ * allocated block would collide.
+ *
+ * Runs once the schema is up to date and before any runner or request can insert. The update
+ * only ever moves next_val forward, so concurrent starts of several instances are safe.
+ */
+@Component
+public class IdGeneratorMigration implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdGeneratorMigration.class);
+
+    // Must match the pkColumnValue of each entity's @TableGenerator
+    static final List<String> SEGMENTS = List.of("announcement", "audit", "audit_code", "exercice", "notification",
+            "plan_action", "profil", "service_line", "user", "variable_action");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (String segment : SEGMENTS) {
+            Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + segment, Long.class);
+            long lastUsed = maxId != null ? maxId : 0;
+
+            int updated = jdbcTemplate.update(
+                    "UPDATE id_generator SET next_val = ? WHERE sequence_name = ? AND next_val < ?",
+                    lastUsed, segment, lastUsed);
+            if (updated > 0) {
+                logger.info("id_generator[{}] moved to {}", segment, lastUsed);
+                continue;
+            }
+            Integer rows = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM id_generator WHERE sequence_name = ?", Integer.class, segment);
+            if (rows == null || rows == 0) {
+                jdbcTemplate.update("INSERT INTO id_generator (sequence_name, next_val) VALUES (?, ?)", segment, lastUsed);
+                logger.info("id_generator[{}] initialised at {}", segment, lastUsed);
+            }
+        }
+    }
+}
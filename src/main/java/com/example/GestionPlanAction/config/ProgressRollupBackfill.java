@@ -0,0 +1,41 @@
+package com.example.GestionPlanAction.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.example.GestionPlanAction.dto.ProgressCheckReportDTO;
+import com.example.GestionPlanAction.enums.ProgressScope;
+import com.example.GestionPlanAction.repository.PlanActionRepository;
+import com.example.GestionPlanAction.repository.ProgressRollupRepository;
+import com.example.GestionPlanAction.service.ProgressConsistencyChecker;
+
+/**
+ * Fills progress_rollup when plans exist without their PLAN row, typically on the first start
+ * after the table was introduced.
+ */
+@Component
+public class ProgressRollupBackfill implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProgressRollupBackfill.class);
+
+    @Autowired
+    private ProgressRollupRepository rollupRepository;
+
+    @Autowired
+    private PlanActionRepository planActionRepository;
+
+    @Autowired
+    private ProgressConsistencyChecker progressConsistencyChecker;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (rollupRepository.countByScope(ProgressScope.PLAN) == planActionRepository.count()) {
+            return;
+        }
+        ProgressCheckReportDTO report = progressConsistencyChecker.check(true);
+        logger.info("progress_rollup rebuilt for {} plans in {} ms", report.getPlansChecked(), report.getDurationMs());
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.GestionPlanAction.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.GestionPlanAction.repository.VariableActionClosureRepository;
+import com.example.GestionPlanAction.repository.VariableActionRepository;
+
+/**
+ * Rebuilds va_closure from variable_action.va_mere_id when the two disagree, typically on the
+ * first start after the table was introduced. One INSERT ... SELECT per tree level.
+ */
+@Component
+public class VariableActionClosureBackfill implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(VariableActionClosureBackfill.class);
+
+    // Guards against runaway rebuilds on corrupted hierarchies
+    private static final int MAX_DEPTH = 1000;
+
+    @Autowired
+    private VariableActionClosureRepository closureRepository;
+
+    @Autowired
+    private VariableActionRepository variableActionRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        long vas = variableActionRepository.count();
+        if (closureRepository.countSelfRows() == vas) {
+            return;
+        }
+        logger.info("Rebuilding va_closure for {} variable actions", vas);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                closureRepository.deleteAllRows();
+                int rows = closureRepository.insertAllSelfRows();
+                int depth = 0;
+                for (int inserted = rows; inserted > 0 && depth < MAX_DEPTH; depth++) {
+                    inserted = closureRepository.insertPathsFromDepth(depth);
+                    rows += inserted;
+                }
+                if (depth == MAX_DEPTH) {
+                    throw new IllegalStateException("hierarchy deeper than " + MAX_DEPTH + " levels");
+                }
+                logger.info("va_closure rebuilt: {} rows, depth {}", rows, depth - 1);
+            });
+        } catch (RuntimeException e) {
+            // A cycle in va_mere_id ends up here too, as a duplicate key on the closure table
+            logger.error("va_closure could not be rebuilt, subtree lookups will be incomplete: {}", e.getMessage());
+        }
+    }
+}
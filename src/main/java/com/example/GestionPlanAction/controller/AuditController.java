@@ -0,0 +1,45 @@
+package com.example.GestionPlanAction.controller;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.GestionPlanAction.dto.AuditDTO;
+import com.example.GestionPlanAction.dto.AuditPageDTO;
+import com.example.GestionPlanAction.service.AuditService;
+
+@RestController
+@RequestMapping("/api/audits")
+@PreAuthorize("hasRole('ADMINISTRATEUR')")
+public class AuditController {
+
+    @Autowired
+    private AuditService auditService;
+
+    // Newest first, keyset paginated: pass the X-Next-Cursor header value as "before" to get the
+    // next page. Dates are a half-open range [from, to)
+    @GetMapping
+    public ResponseEntity<List<AuditDTO>> search(@RequestParam(required = false) Long userId,
+                                                 @RequestParam(required = false) String action,
+                                                 @RequestParam(required = false) String entityType,
+                                                 @RequestParam(required = false) Long entityId,
+                                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                 @RequestParam(required = false) String before,
+                                                 @RequestParam(defaultValue = "100") int limit) {
+        AuditPageDTO page = auditService.search(userId, action, entityType, entityId, from, to, before, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header("X-Next-Cursor", page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
+}
@@ -4,11 +4,15 @@ import com.example.GestionPlanAction.dto.JwtResponseDTO;
 import com.example.GestionPlanAction.dto.LoginRequestDTO;
 import com.example.GestionPlanAction.dto.MessageResponseDTO;
 import com.example.GestionPlanAction.dto.SignupRequestDTO;
+import com.example.GestionPlanAction.exception.ServiceUnavailableException;
 import com.example.GestionPlanAction.model.User;
 import com.example.GestionPlanAction.repository.UserRepository;
 import com.example.GestionPlanAction.security.JwtUtils;
 import com.example.GestionPlanAction.security.UserPrincipal;
+import com.example.GestionPlanAction.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -31,6 +35,9 @@ public class AuthController {
     @Autowired
     UserRepository userRepository;
 
+    @Autowired
+    UserService userService;
+
     @Autowired
     PasswordEncoder encoder;
 
@@ -92,6 +99,10 @@ public class AuthController {
             System.out.println("Authentication failed: Username not found");
             return ResponseEntity.status(401)
                     .body(MessageResponseDTO.error("Username not found."));
+        } catch (ServiceUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(MessageResponseDTO.error(e.getMessage()));
         } catch (Exception e) {
             System.out.println("Authentication failed: " + e.getMessage());
             e.printStackTrace();
@@ -120,7 +131,7 @@ public class AuthController {
         user.setMotDePasse(encoder.encode(signUpRequest.getMotDePasse()));
         user.setActif(true);
 
-        userRepository.save(user);
+        userService.create(user);
 
         return ResponseEntity.ok(MessageResponseDTO.success("User registered successfully!"));
     }
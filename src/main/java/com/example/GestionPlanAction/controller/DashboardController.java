@@ -2,12 +2,21 @@ package com.example.GestionPlanAction.controller;
 
 import com.example.GestionPlanAction.dto.*;
 import com.example.GestionPlanAction.model.PlanAction;
+import com.example.GestionPlanAction.security.UserPrincipal;
+import com.example.GestionPlanAction.service.DashboardCache;
+import com.example.GestionPlanAction.service.DashboardHomeService;
 import com.example.GestionPlanAction.service.DashboardService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/dashboard")
@@ -17,52 +26,90 @@ public class DashboardController {
     @Autowired
     private DashboardService dashboardService;
 
+    @Autowired
+    private DashboardHomeService dashboardHomeService;
+
+    @Autowired
+    private DashboardCache dashboardCache;
+
+    // Home screens: stats, lists and unread notifications in one response
+
+    @GetMapping("/admin/home")
+    @PreAuthorize("hasRole('ADMINISTRATEUR')")
+    public AdminDashboardHome getAdminHome(@AuthenticationPrincipal UserPrincipal principal) {
+        return dashboardHomeService.getAdminHome(principal.getId());
+    }
+
+    @GetMapping("/collaborator/home/{userId}")
+    @PreAuthorize("hasRole('COLLABORATEUR') or hasRole('ADMINISTRATEUR')")
+    public CollaboratorDashboardHome getCollaboratorHome(@PathVariable Long userId) {
+        return dashboardHomeService.getCollaboratorHome(userId);
+    }
+
+    @GetMapping("/director/home")
+    @PreAuthorize("hasRole('DIRECTEUR_GENERAL')")
+    public DirectorDashboardHome getDirectorHome(@AuthenticationPrincipal UserPrincipal principal) {
+        return dashboardHomeService.getDirectorHome(principal.getId());
+    }
+
     @GetMapping("/admin/stats")
-    @PreAuthorize("hasRole('ADMINISTRATOR')")
-    public AdminDashboardStats getAdminStats() {
-        return dashboardService.getAdminStats();
+    @PreAuthorize("hasRole('ADMINISTRATEUR')")
+    public ResponseEntity<byte[]> getAdminStats(WebRequest request) {
+        return cached("admin.stats", null, dashboardService::getAdminStats, request);
     }
 
     @GetMapping("/collaborator/stats/{userId}")
-    @PreAuthorize("hasRole('COLLABORATOR') or hasRole('ADMINISTRATOR')")
-    public CollaboratorDashboardStats getCollaboratorStats(@PathVariable Long userId) {
-        return dashboardService.getCollaboratorStats(userId);
+    @PreAuthorize("hasRole('COLLABORATEUR') or hasRole('ADMINISTRATEUR')")
+    public ResponseEntity<byte[]> getCollaboratorStats(@PathVariable Long userId, WebRequest request) {
+        return cached("collaborator.stats", userId, () -> dashboardService.getCollaboratorStats(userId), request);
     }
 
     @GetMapping("/director/stats")
-    @PreAuthorize("hasRole('GENERAL_DIRECTOR')")
-    public DirectorDashboardStats getDirectorStats() {
-        return dashboardService.getDirectorStats();
+    @PreAuthorize("hasRole('DIRECTEUR_GENERAL')")
+    public ResponseEntity<byte[]> getDirectorStats(WebRequest request) {
+        return cached("director.stats", null, dashboardService::getDirectorStats, request);
     }
 
     @GetMapping("/director/pending-validations")
-    @PreAuthorize("hasRole('GENERAL_DIRECTOR')")
+    @PreAuthorize("hasRole('DIRECTEUR_GENERAL')")
     public List<PlanAction> getPendingValidations() {
         return dashboardService.getPendingValidations();
     }
 
     @GetMapping("/collaborator/my-plans/{userId}")
-    @PreAuthorize("hasRole('COLLABORATOR') or hasRole('ADMINISTRATOR')")
+    @PreAuthorize("hasRole('COLLABORATEUR') or hasRole('ADMINISTRATEUR')")
     public List<PlanAction> getUserPlans(@PathVariable Long userId) {
         return dashboardService.getUserPlans(userId);
     }
 
     @GetMapping("/director/service-line-progress")
-    @PreAuthorize("hasRole('GENERAL_DIRECTOR')")
-    public List<Object[]> getServiceLineProgress() {
-        return dashboardService.getServiceLineProgressData();
+    @PreAuthorize("hasRole('DIRECTEUR_GENERAL')")
+    public ResponseEntity<byte[]> getServiceLineProgress(WebRequest request) {
+        return cached("director.service-line-progress", null, dashboardService::getServiceLineProgressData, request);
     }
 
     @GetMapping("/director/status-distribution")
-    @PreAuthorize("hasRole('GENERAL_DIRECTOR')")
-    public List<Object[]> getStatusDistribution() {
-        return dashboardService.getStatusDistributionData();
+    @PreAuthorize("hasRole('DIRECTEUR_GENERAL')")
+    public ResponseEntity<byte[]> getStatusDistribution(WebRequest request) {
+        return cached("director.status-distribution", null, dashboardService::getStatusDistributionData, request);
     }
 
     @PostMapping("/director/validate-plan/{planId}")
-    @PreAuthorize("hasRole('GENERAL_DIRECTOR')")
+    @PreAuthorize("hasRole('DIRECTEUR_GENERAL')")
     public PlanAction validatePlan(@PathVariable Long planId) {
         // Implementation for plan validation
         return null;
     }
+
+    // Cached JSON with a strong ETag, 304 when the client already has it
+    private ResponseEntity<byte[]> cached(String endpoint, Long userId, Supplier<?> loader, WebRequest request) {
+        DashboardCache.Entry entry = dashboardCache.get(endpoint, userId, loader);
+        if (request.checkNotModified(entry.etag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(entry.body());
+    }
 }
\ No newline at end of file
@@ -2,7 +2,12 @@ package com.example.GestionPlanAction.controller;
 
 import com.example.GestionPlanAction.model.Exercice;
 import com.example.GestionPlanAction.service.ExerciceService;
+import com.example.GestionPlanAction.service.ReferenceData;
+import com.example.GestionPlanAction.service.ReferenceDataSnapshot;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -13,13 +18,23 @@ public class ExerciceController {
 
     private final ExerciceService service;
 
-    public ExerciceController(ExerciceService service) {
+    private final ReferenceData referenceData;
+
+    public ExerciceController(ExerciceService service, ReferenceData referenceData) {
         this.service = service;
+        this.referenceData = referenceData;
     }
 
+    // 304 while the reference data is unchanged
     @GetMapping
-    public List<Exercice> getAll() {
-        return service.getAll();
+    public ResponseEntity<List<Exercice>> getAll(WebRequest request) {
+        ReferenceDataSnapshot snapshot = referenceData.get();
+        if (request.checkNotModified(snapshot.getEtag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(snapshot.getExercices());
     }
 
     @GetMapping("/{id}")
@@ -0,0 +1,107 @@
+package com.example.GestionPlanAction.controller;
+
+import com.example.GestionPlanAction.dto.NotificationBroadcastRequest;
+import com.example.GestionPlanAction.dto.NotificationDTO;
+import com.example.GestionPlanAction.enums.NotificationAudience;
+import com.example.GestionPlanAction.exception.BadRequestException;
+import com.example.GestionPlanAction.model.User;
+import com.example.GestionPlanAction.repository.UserRepository;
+import com.example.GestionPlanAction.security.UserPrincipal;
+import com.example.GestionPlanAction.service.NotificationService;
+import com.example.GestionPlanAction.service.NotificationStreamHub;
+import com.example.GestionPlanAction.service.UnreadCountCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+// Notifications of the connected user
+@RestController
+@RequestMapping("/api/notifications")
+@CrossOrigin(origins = "*")
+public class NotificationController {
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private NotificationStreamHub notificationStreamHub;
+
+    @Autowired
+    private UnreadCountCache unreadCountCache;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @GetMapping
+    public Page<NotificationDTO> getAll(@AuthenticationPrincipal UserPrincipal principal, Pageable pageable) {
+        return notificationService.getAllNotifications(user(principal), pageable).map(NotificationDTO::from);
+    }
+
+    @GetMapping("/unread")
+    public List<NotificationDTO> getUnread(@AuthenticationPrincipal UserPrincipal principal) {
+        return notificationService.getUnreadNotifications(user(principal));
+    }
+
+    // Badge polling: 304 from memory while the count is unchanged
+    @GetMapping("/unread-count")
+    public ResponseEntity<Long> getUnreadCount(@AuthenticationPrincipal UserPrincipal principal, WebRequest request) {
+        UnreadCountCache.Entry entry = unreadCountCache.get(principal.getId());
+        if (request.checkNotModified(entry.etag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(entry.count());
+    }
+
+    @PutMapping("/{id}/read")
+    public void markAsRead(@PathVariable Long id, @AuthenticationPrincipal UserPrincipal principal) {
+        notificationService.markAsRead(id, user(principal));
+    }
+
+    @PutMapping("/broadcasts/{id}/read")
+    public void markAnnouncementAsRead(@PathVariable Long id, @AuthenticationPrincipal UserPrincipal principal) {
+        notificationService.markAnnouncementAsRead(id, user(principal));
+    }
+
+    @PutMapping("/read-all")
+    public void markAllAsRead(@AuthenticationPrincipal UserPrincipal principal) {
+        notificationService.markAllAsRead(user(principal));
+    }
+
+    // Accepted at once, the notifications are created in the background; ALL needs no target
+    @PostMapping("/broadcast")
+    @PreAuthorize("hasRole('ADMINISTRATEUR')")
+    public ResponseEntity<Void> broadcast(@RequestBody NotificationBroadcastRequest request) {
+        if (request.getAudience() == null
+                || (request.getTargetId() == null && request.getAudience() != NotificationAudience.ALL)
+                || request.getContenu() == null || request.getContenu().isBlank()) {
+            throw new BadRequestException("Audience, cible et contenu sont obligatoires");
+        }
+        notificationService.broadcast(request.getAudience(), request.getTargetId(), request.getTitre(),
+                request.getContenu(), request.getType() != null ? request.getType() : NotificationService.TYPE_INFO);
+        return ResponseEntity.accepted().build();
+    }
+
+    // Server-sent events: "notification" with the new notification, "unread-count" with the badge value
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@AuthenticationPrincipal UserPrincipal principal,
+                             @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return notificationStreamHub.subscribe(principal.getId(), lastEventId);
+    }
+
+    // No SQL, the queries only need the id
+    private User user(UserPrincipal principal) {
+        return userRepository.getReferenceById(principal.getId());
+    }
+}
@@ -1,8 +1,12 @@
 package com.example.GestionPlanAction.controller;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -11,12 +15,24 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.example.GestionPlanAction.dto.PlanActionDTO;
+import com.example.GestionPlanAction.dto.PlanActionPageDTO;
+import com.example.GestionPlanAction.dto.PlanImportReportDTO;
 import com.example.GestionPlanAction.dto.PlanStatusUpdateRequest;
+import com.example.GestionPlanAction.dto.VariableActionTreeDTO;
+import com.example.GestionPlanAction.enums.StatutPlanAction;
 import com.example.GestionPlanAction.model.PlanAction;
 import com.example.GestionPlanAction.service.PlanActionService;
+import com.example.GestionPlanAction.service.PlanImportService;
+import com.example.GestionPlanAction.service.VariableActionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 
 @RestController
 @RequestMapping("/api/plans")
@@ -25,10 +41,52 @@ public class PlanActionController {
     @Autowired
     private PlanActionService planActionService;
 
+    @Autowired
+    private PlanImportService planImportService;
+
+    @Autowired
+    private VariableActionService variableActionService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Keyset paginated: pass the X-Next-Cursor header value as "after" to get the next page
     @GetMapping
-    public List<PlanActionDTO> getAll() {
-    	
-        return planActionService.getAll();
+    public ResponseEntity<List<PlanActionDTO>> getAll(@RequestParam(required = false) Long after,
+                                                      @RequestParam(defaultValue = "100") int limit,
+                                                      @RequestParam(required = false) StatutPlanAction statut,
+                                                      @RequestParam(required = false) Long exerciceId,
+                                                      @RequestParam(required = false) Long serviceLineId) {
+        PlanActionPageDTO page = planActionService.getAll(after, limit, statut, exerciceId, serviceLineId);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header("X-Next-Cursor", page.getNextCursor().toString());
+        }
+        return response.body(page.getItems());
+    }
+
+    // Newline-delimited JSON, one plan per line, written while the rows are read
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(required = false) StatutPlanAction statut,
+                                                        @RequestParam(required = false) Long exerciceId) {
+        ObjectWriter writer = objectMapper.writerFor(PlanActionDTO.class);
+        StreamingResponseBody body = out -> planActionService.exportAll(statut, exerciceId, plan -> {
+            try {
+                out.write(writer.writeValueAsBytes(plan));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
+    // CSV (one row per VA, grouped by planRef) or JSON lines (one plan per line), chosen by file extension
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public PlanImportReportDTO importPlans(@RequestPart("file") MultipartFile file) {
+        return planImportService.importFile(file);
     }
 
     @GetMapping("/{id}")
@@ -36,6 +94,12 @@ public class PlanActionController {
         return planActionService.getById(id);
     }
 
+    // Whole VA tree of the plan, roots first, read in one query
+    @GetMapping("/{id}/tree")
+    public List<VariableActionTreeDTO> getTree(@PathVariable Long id) {
+        return variableActionService.getPlanTree(id);
+    }
+
     @PostMapping
     public PlanAction create(@RequestBody PlanAction planAction) {
     	System.out.println("Création d'un nouveau PlanAction: " + planAction.toString());
@@ -2,8 +2,13 @@ package com.example.GestionPlanAction.controller;
 
 import com.example.GestionPlanAction.model.Profil;
 import com.example.GestionPlanAction.service.ProfilService;
+import com.example.GestionPlanAction.service.ReferenceData;
+import com.example.GestionPlanAction.service.ReferenceDataSnapshot;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -15,9 +20,19 @@ public class ProfilController {
     @Autowired
     private ProfilService profilService;
 
+    @Autowired
+    private ReferenceData referenceData;
+
+    // 304 while the reference data is unchanged
     @GetMapping
-    public List<Profil> getAll() {
-        return profilService.getAllProfils();
+    public ResponseEntity<List<Profil>> getAll(WebRequest request) {
+        ReferenceDataSnapshot snapshot = referenceData.get();
+        if (request.checkNotModified(snapshot.getEtag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(snapshot.getProfils());
     }
 
     @GetMapping("/{id}")
@@ -0,0 +1,57 @@
+package com.example.GestionPlanAction.controller;
+
+import com.example.GestionPlanAction.dto.ProgressCheckReportDTO;
+import com.example.GestionPlanAction.dto.ProgressDTO;
+import com.example.GestionPlanAction.enums.ProgressScope;
+import com.example.GestionPlanAction.service.ProgressConsistencyChecker;
+import com.example.GestionPlanAction.service.ProgressRollupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+// Weighted progress read from progress_rollup, no tree traversal
+@RestController
+@RequestMapping("/api/progress")
+@CrossOrigin(origins = "*")
+public class ProgressController {
+
+    @Autowired
+    private ProgressRollupService progressRollupService;
+
+    @Autowired
+    private ProgressConsistencyChecker progressConsistencyChecker;
+
+    @GetMapping("/variable-actions/{id}")
+    public ProgressDTO getVariableActionProgress(@PathVariable Long id) {
+        return progressRollupService.getProgress(ProgressScope.VARIABLE_ACTION, id);
+    }
+
+    @GetMapping("/plans/{id}")
+    public ProgressDTO getPlanProgress(@PathVariable Long id) {
+        return progressRollupService.getProgress(ProgressScope.PLAN, id);
+    }
+
+    @GetMapping("/service-lines/{id}")
+    public ProgressDTO getServiceLineProgress(@PathVariable Long id) {
+        return progressRollupService.getProgress(ProgressScope.SERVICE_LINE, id);
+    }
+
+    @GetMapping("/exercices/{id}")
+    public ProgressDTO getExerciceProgress(@PathVariable Long id) {
+        return progressRollupService.getProgress(ProgressScope.EXERCICE, id);
+    }
+
+    // Full recomputation compared with the stored figures, read-only
+    @GetMapping("/check")
+    @PreAuthorize("hasRole('ADMINISTRATEUR')")
+    public ProgressCheckReportDTO check() {
+        return progressConsistencyChecker.check(false);
+    }
+
+    // Same check, the stored figures that differ are replaced
+    @PostMapping("/repair")
+    @PreAuthorize("hasRole('ADMINISTRATEUR')")
+    public ProgressCheckReportDTO repair() {
+        return progressConsistencyChecker.check(true);
+    }
+}
@@ -1,9 +1,14 @@
 package com.example.GestionPlanAction.controller;
 
 import com.example.GestionPlanAction.model.ServiceLine;
+import com.example.GestionPlanAction.service.ReferenceData;
+import com.example.GestionPlanAction.service.ReferenceDataSnapshot;
 import com.example.GestionPlanAction.service.ServiceLineService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -14,9 +19,19 @@ public class ServiceLineController {
     @Autowired
     private ServiceLineService service;
 
+    @Autowired
+    private ReferenceData referenceData;
+
+    // 304 while the reference data is unchanged
     @GetMapping
-    public List<ServiceLine> getAll() {
-        return service.getAll();
+    public ResponseEntity<List<ServiceLine>> getAll(WebRequest request) {
+        ReferenceDataSnapshot snapshot = referenceData.get();
+        if (request.checkNotModified(snapshot.getEtag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(snapshot.getServiceLines());
     }
 
     @GetMapping("/{id}")
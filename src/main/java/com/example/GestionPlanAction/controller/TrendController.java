@@ -0,0 +1,40 @@
+package com.example.GestionPlanAction.controller;
+
+import com.example.GestionPlanAction.dto.TrendSeriesDTO;
+import com.example.GestionPlanAction.enums.TrendMetric;
+import com.example.GestionPlanAction.enums.TrendResolution;
+import com.example.GestionPlanAction.service.TrendService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Daily history of the dashboard figures, last 90 days by default
+@RestController
+@RequestMapping("/api/analytics/trends")
+@CrossOrigin(origins = "*")
+public class TrendController {
+
+    @Autowired
+    private TrendService trendService;
+
+    @GetMapping("/{metric}")
+    public List<TrendSeriesDTO> getSeries(@PathVariable TrendMetric metric,
+                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                          @RequestParam(required = false) TrendResolution resolution) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(89);
+        return trendService.getSeries(metric, start, end, resolution);
+    }
+
+    // Records today's points without waiting for the nightly job
+    @PostMapping("/snapshot")
+    @PreAuthorize("hasRole('ADMINISTRATEUR')")
+    public void snapshot() {
+        trendService.snapshot();
+    }
+}
@@ -8,7 +8,7 @@ import com.example.GestionPlanAction.dto.UserWithProfilesDTO;
 import com.example.GestionPlanAction.model.User;
 import com.example.GestionPlanAction.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -20,6 +20,9 @@ public class UserController {
     @Autowired
     private UserService service;
 
+    @Autowired
+    private PasswordEncoder encoder;
+
     // @GetMapping("/api/users-with-profiles")
     // public List<UserWithProfilesDTO> getAllUsersWithProfiles() {
     //     return service.getAllUsersWithProfiles();
@@ -47,7 +50,7 @@ public class UserController {
         u.setPrenom(dto.getPrenom());
         u.setEmail(dto.getEmail());
         u.setUsername(dto.getUsername());
-        u.setMotDePasse(new BCryptPasswordEncoder().encode(dto.motDePasse));
+        u.setMotDePasse(encoder.encode(dto.motDePasse));
         u.setActif(dto.actif != null ? dto.actif : true);
         return service.createWithRelations(u, dto.serviceLine, dto.roles);
     }
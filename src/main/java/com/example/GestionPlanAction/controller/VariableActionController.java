@@ -1,5 +1,8 @@
 package com.example.GestionPlanAction.controller;
 
+import com.example.GestionPlanAction.dto.AvancementUpdateRequest;
+import com.example.GestionPlanAction.dto.ReparentRequest;
+import com.example.GestionPlanAction.dto.VariableActionTreeDTO;
 import com.example.GestionPlanAction.model.VariableAction;
 import com.example.GestionPlanAction.service.VariableActionService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -27,6 +30,24 @@ public class VariableActionController {
         return variableActionService.getVariableActionById(id);
     }
 
+    // ✅ GET sous-arborescence
+    @GetMapping("/{id}/subtree")
+    public VariableActionTreeDTO getSubtree(@PathVariable Long id) {
+        return variableActionService.getSubtree(id);
+    }
+
+    // ✅ GET VA mères, de la mère directe à la racine
+    @GetMapping("/{id}/ancestors")
+    public List<Long> getAncestors(@PathVariable Long id) {
+        return variableActionService.getAncestorIds(id);
+    }
+
+    // ✅ GET VA descendantes
+    @GetMapping("/{id}/descendants")
+    public List<Long> getDescendants(@PathVariable Long id) {
+        return variableActionService.getDescendantIds(id);
+    }
+
     // ✅ CREATE
     @PostMapping
     public VariableAction create(@RequestBody VariableAction variableAction) {
@@ -39,6 +60,18 @@ public class VariableActionController {
         return variableActionService.updateVariableAction(id, updated);
     }
 
+    // ✅ Déplacer sous une autre VA mère
+    @PatchMapping("/{id}/parent")
+    public VariableActionTreeDTO reparent(@PathVariable Long id, @RequestBody ReparentRequest request) {
+        return variableActionService.reparent(id, request.getVaMereId());
+    }
+
+    // ✅ Mettre à jour l'avancement (0 à 100)
+    @PatchMapping("/{id}/avancement")
+    public VariableActionTreeDTO updateAvancement(@PathVariable Long id, @RequestBody AvancementUpdateRequest request) {
+        return variableActionService.updateAvancement(id, request.getAvancement());
+    }
+
     // ✅ DELETE
     @DeleteMapping("/{id}")
     public void delete(@PathVariable Long id) {
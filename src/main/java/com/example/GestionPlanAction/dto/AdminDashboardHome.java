@@ -0,0 +1,18 @@
+package com.example.GestionPlanAction.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AdminDashboardHome {
+    private AdminDashboardStats stats;
+    private List<PlanSummaryDTO> recentPlans;
+    private Long unreadNotifications;
+    // Parts that failed or timed out, left null above
+    private List<String> unavailable;
+}
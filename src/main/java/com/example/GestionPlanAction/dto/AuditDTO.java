@@ -0,0 +1,22 @@
+package com.example.GestionPlanAction.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AuditDTO {
+    private Long id;
+    private LocalDateTime date;
+    private String action;
+    private String entityType;
+    private Long entityId;
+    private String details;
+    // Null for system actions and for users deleted since
+    private Long utilisateurId;
+    private String username;
+}
@@ -0,0 +1,18 @@
+package com.example.GestionPlanAction.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditPageDTO {
+
+	private List<AuditDTO> items;
+
+	// Cursor to pass as "before" for the next page, null on the last page
+	private String nextCursor;
+}
@@ -0,0 +1,16 @@
+package com.example.GestionPlanAction.dto;
+
+/**
+ * Flat row read at login: one row per profile of the user (profilNom is null when the user has none).
+ */
+public interface AuthUserView {
+    Long getId();
+    String getNom();
+    String getPrenom();
+    String getUsername();
+    String getEmail();
+    String getMotDePasse();
+    Boolean getActif();
+    String getServiceLineNom();
+    String getProfilNom();
+}
@@ -0,0 +1,11 @@
+package com.example.GestionPlanAction.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class AvancementUpdateRequest {
+	// Percent, 0 to 100
+	private Float avancement;
+}
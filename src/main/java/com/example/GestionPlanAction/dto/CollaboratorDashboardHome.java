@@ -0,0 +1,18 @@
+package com.example.GestionPlanAction.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CollaboratorDashboardHome {
+    private CollaboratorDashboardStats stats;
+    private List<PlanSummaryDTO> myPlans;
+    private Long unreadNotifications;
+    // Parts that failed or timed out, left null above
+    private List<String> unavailable;
+}
@@ -0,0 +1,20 @@
+package com.example.GestionPlanAction.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DirectorDashboardHome {
+    private DirectorDashboardStats stats;
+    private List<PlanSummaryDTO> pendingValidations;
+    private List<Object[]> serviceLineProgress;
+    private List<Object[]> statusDistribution;
+    private Long unreadNotifications;
+    // Parts that failed or timed out, left null above
+    private List<String> unavailable;
+}
@@ -0,0 +1,14 @@
+package com.example.GestionPlanAction.dto;
+
+import com.example.GestionPlanAction.enums.NotificationAudience;
+
+import lombok.Data;
+
+@Data
+public class NotificationBroadcastRequest {
+    private NotificationAudience audience;
+    private Long targetId;
+    private String titre;
+    private String contenu;
+    private String type;
+}
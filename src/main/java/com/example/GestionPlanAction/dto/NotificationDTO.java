@@ -0,0 +1,34 @@
+package com.example.GestionPlanAction.dto;
+
+import java.time.LocalDateTime;
+
+import com.example.GestionPlanAction.model.Announcement;
+import com.example.GestionPlanAction.model.Notification;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class NotificationDTO {
+    private Long id;
+    private String titre;
+    private String contenu;
+    private String type;
+    private Boolean recu;
+    private LocalDateTime date;
+    // Announcement sent to every user, marked read through /broadcasts/{id}/read
+    private boolean diffusion;
+
+    public static NotificationDTO from(Notification notification) {
+        return new NotificationDTO(notification.getId(), notification.getTitre(), notification.getContenu(),
+                notification.getType(), notification.getRecu(), notification.getDate(), false);
+    }
+
+    public static NotificationDTO from(Announcement announcement, boolean recu) {
+        return new NotificationDTO(announcement.getId(), announcement.getTitre(), announcement.getContenu(),
+                announcement.getType(), recu, announcement.getDate(), true);
+    }
+}
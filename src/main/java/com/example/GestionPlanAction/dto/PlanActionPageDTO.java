@@ -0,0 +1,18 @@
+package com.example.GestionPlanAction.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlanActionPageDTO {
+
+	private List<PlanActionDTO> items;
+
+	// Id to pass as "after" for the next page, null on the last page
+	private Long nextCursor;
+}
@@ -0,0 +1,34 @@
+package com.example.GestionPlanAction.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One plan of an import file: a line of a JSON-lines file, or the rows sharing a planRef in a CSV file.
+ */
+@Data
+@NoArgsConstructor
+public class PlanImportDTO {
+
+	// Identifies the plan within the file only
+	private String ref;
+	private String titre;
+	private String description;
+	private String statut;
+	// Year of the exercice
+	private Integer exercice;
+	private List<VariableActionImportDTO> variableActions = new ArrayList<>();
+
+	// Line of the file the plan starts on, for error reporting
+	@JsonIgnore
+	private int line;
+
+	// A row of the plan could not be read, its errors are already reported
+	@JsonIgnore
+	private boolean rejected;
+}
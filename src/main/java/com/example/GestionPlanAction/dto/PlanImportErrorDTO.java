@@ -0,0 +1,14 @@
+package com.example.GestionPlanAction.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlanImportErrorDTO {
+	private int line;
+	private String planRef;
+	private String message;
+}
@@ -0,0 +1,18 @@
+package com.example.GestionPlanAction.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class PlanImportReportDTO {
+	private int plansImported;
+	private int variableActionsImported;
+	// A plan with any invalid row is rejected as a whole
+	private int plansRejected;
+	private long durationMs;
+	private List<PlanImportErrorDTO> errors = new ArrayList<>();
+}
@@ -0,0 +1,15 @@
+package com.example.GestionPlanAction.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PlanSummaryDTO {
+    private Long id;
+    private String titre;
+    private String statut;
+    private Integer exerciceAnnee;
+}
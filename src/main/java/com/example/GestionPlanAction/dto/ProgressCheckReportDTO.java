@@ -0,0 +1,19 @@
+package com.example.GestionPlanAction.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class ProgressCheckReportDTO {
+	private int plansChecked;
+	private int rowsChecked;
+	private int mismatchCount;
+	// First mismatches only, see mismatchCount for the total
+	private List<ProgressMismatchDTO> mismatches = new ArrayList<>();
+	private boolean repaired;
+	private long durationMs;
+}
@@ -0,0 +1,19 @@
+package com.example.GestionPlanAction.dto;
+
+import com.example.GestionPlanAction.enums.ProgressScope;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProgressDTO {
+	private ProgressScope scope;
+	private Long scopeId;
+	// Percent, 0 to 100
+	private double progress;
+	// Sum of the weights behind the figure, 0 when nothing is rolled up yet
+	private double weight;
+}
@@ -0,0 +1,18 @@
+package com.example.GestionPlanAction.dto;
+
+import com.example.GestionPlanAction.enums.ProgressScope;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProgressMismatchDTO {
+	private ProgressScope scope;
+	private Long scopeId;
+	// null when the row is missing on that side
+	private Double storedProgress;
+	private Double expectedProgress;
+}
@@ -0,0 +1,11 @@
+package com.example.GestionPlanAction.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class ReparentRequest {
+	// null makes the VA a root of its plan
+	private Long vaMereId;
+}
@@ -0,0 +1,19 @@
+package com.example.GestionPlanAction.dto;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrendPointDTO {
+	// First day of the bucket
+	private LocalDate date;
+	// Average of the daily values in the bucket, with their extremes
+	private double value;
+	private double min;
+	private double max;
+}
@@ -0,0 +1,23 @@
+package com.example.GestionPlanAction.dto;
+
+import java.util.List;
+
+import com.example.GestionPlanAction.enums.TrendMetric;
+import com.example.GestionPlanAction.enums.TrendResolution;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrendSeriesDTO {
+	private TrendMetric metric;
+	// Statut name, service line id or exercice id
+	private String dimension;
+	// Statut name, service line name or exercice year
+	private String label;
+	private TrendResolution resolution;
+	private List<TrendPointDTO> points;
+}
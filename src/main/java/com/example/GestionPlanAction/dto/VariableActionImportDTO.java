@@ -0,0 +1,26 @@
+package com.example.GestionPlanAction.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class VariableActionImportDTO {
+
+	// Identifies the VA within its plan, referenced by vaMere
+	private String ref;
+	private String vaMere;
+	private String description;
+	private Integer niveau;
+	private Float poids;
+	private Boolean fige;
+	// Percent, 0 to 100
+	private Float avancement;
+	// Username of the responsable
+	private String responsable;
+
+	@JsonIgnore
+	private int line;
+}
@@ -0,0 +1,21 @@
+package com.example.GestionPlanAction.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class VariableActionTreeDTO {
+	private Long id;
+	private String description;
+	private float poids;
+	private boolean fige;
+	private int niveau;
+	private float avancement;
+	private Long vaMereId;
+	private Long responsableId;
+	private List<VariableActionTreeDTO> sousVAs = new ArrayList<>();
+}
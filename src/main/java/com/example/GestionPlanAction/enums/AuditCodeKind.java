@@ -0,0 +1,7 @@
+package com.example.GestionPlanAction.enums;
+
+// Audit columns whose values are stored as dictionary codes
+public enum AuditCodeKind {
+    ACTION,
+    ENTITY_TYPE
+}
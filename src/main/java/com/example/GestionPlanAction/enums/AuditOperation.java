@@ -0,0 +1,12 @@
+package com.example.GestionPlanAction.enums;
+
+// Kind of service call recorded by @Audited, stored as the audit action
+public enum AuditOperation {
+    CREATE,
+    UPDATE,
+    DELETE,
+    // An update whose purpose is the statut or the activation
+    STATUT,
+    // Sampled at app.auditReadSampleRate
+    READ
+}
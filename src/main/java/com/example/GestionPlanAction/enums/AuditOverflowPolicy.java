@@ -0,0 +1,11 @@
+package com.example.GestionPlanAction.enums;
+
+// What logAction does when the audit buffer is full
+public enum AuditOverflowPolicy {
+    // Waits for the writer to make room
+    BLOCK,
+    // Loses the entry, counted in audit.dropped
+    DROP,
+    // Appends the entry to app.auditSpillFile, written to the database once the buffer has room
+    SPILL
+}
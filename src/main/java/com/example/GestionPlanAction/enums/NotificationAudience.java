@@ -0,0 +1,10 @@
+package com.example.GestionPlanAction.enums;
+
+// Recipients of a broadcast notification, all active users of the target; ALL has no target and is
+// stored once as an announcement
+public enum NotificationAudience {
+    ALL,
+    SERVICE_LINE,
+    PROFIL,
+    PLAN_RESPONSABLES
+}
@@ -0,0 +1,8 @@
+package com.example.GestionPlanAction.enums;
+
+public enum ProgressScope {
+    VARIABLE_ACTION,
+    PLAN,
+    SERVICE_LINE,
+    EXERCICE
+}
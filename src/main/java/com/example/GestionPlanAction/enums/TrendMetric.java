@@ -0,0 +1,23 @@
+package com.example.GestionPlanAction.enums;
+
+/**
+ * Daily series kept by the trend store. Values are stored as integers, progress in hundredths of
+ * a percent (scale 100).
+ */
+public enum TrendMetric {
+    PLANS_BY_STATUT(1),
+    PLANS_BY_SERVICE_LINE(1),
+    PROGRESS_BY_SERVICE_LINE(100),
+    PLANS_BY_EXERCICE(1),
+    PROGRESS_BY_EXERCICE(100);
+
+    private final int scale;
+
+    TrendMetric(int scale) {
+        this.scale = scale;
+    }
+
+    public int getScale() {
+        return scale;
+    }
+}
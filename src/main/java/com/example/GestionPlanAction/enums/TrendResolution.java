@@ -0,0 +1,7 @@
+package com.example.GestionPlanAction.enums;
+
+public enum TrendResolution {
+    DAY,
+    WEEK,
+    MONTH
+}
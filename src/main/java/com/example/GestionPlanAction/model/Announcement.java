@@ -0,0 +1,43 @@
+package com.example.GestionPlanAction.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Notification sent to every user, stored once. Users who read it are kept in a
+ * {@link com.example.GestionPlanAction.service.UserIdBitmap} rather than one row each.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "announcement")
+public class Announcement {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "announcement_id")
+    @TableGenerator(name = "announcement_id", table = "id_generator", pkColumnValue = "announcement", allocationSize = 50)
+    private Long id;
+
+    @Column(length = 200)
+    private String titre;
+
+    @Column(nullable = false, length = 1000)
+    private String contenu;
+
+    @Column(length = 100)
+    private String type;
+
+    @Column(nullable = false)
+    private LocalDateTime date;
+
+    // Encoded UserIdBitmap of the users who read it
+    @Lob
+    @Column(nullable = false)
+    private byte[] readers;
+
+    @Column(name = "reader_count", nullable = false)
+    private int readerCount;
+}
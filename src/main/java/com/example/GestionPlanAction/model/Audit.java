@@ -9,15 +9,23 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@Table(name = "audit")
+@Table(name = "audit", indexes = {
+    @Index(name = "idx_audit_date", columnList = "date, id"),
+    @Index(name = "idx_audit_user_date", columnList = "utilisateur_id, date, id"),
+    @Index(name = "idx_audit_entity_date", columnList = "entity_type_code, entity_id, date, id"),
+    @Index(name = "idx_audit_entity_type_date", columnList = "entity_type_code, date, id"),
+    @Index(name = "idx_audit_action_date", columnList = "action_code, date, id")
+})
 public class Audit {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "audit_id")
+    @TableGenerator(name = "audit_id", table = "id_generator", pkColumnValue = "audit", allocationSize = 50)
     private Long id;
     
-    @Column(nullable = false)
-    private String action;
+    // AuditCode of kind ACTION
+    @Column(name = "action_code")
+    private Integer actionCode;
     
     @Column(nullable = false)
     private LocalDateTime date;
@@ -29,14 +37,18 @@ public class Audit {
     @Column(length = 500)
     private String details;
     
-    @Column(name = "entity_type")
-    private String entityType;
+    // AuditCode of kind ENTITY_TYPE
+    @Column(name = "entity_type_code")
+    private Integer entityTypeCode;
     
     @Column(name = "entity_id")
     private Long entityId;
     
+    // Entries written asynchronously keep the time of the action
     @PrePersist
     protected void onCreate() {
-        date = LocalDateTime.now();
+        if (date == null) {
+            date = LocalDateTime.now();
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.example.GestionPlanAction.model;
+
+import com.example.GestionPlanAction.enums.AuditCodeKind;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Dictionary entry for an audit action or entity type: audit rows store the integer code instead
+ * of repeating the label. Entries are created on first use and never change.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "audit_code", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_audit_code_label", columnNames = {"kind", "label"})
+})
+public class AuditCode {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "audit_code_id")
+    @TableGenerator(name = "audit_code_id", table = "id_generator", pkColumnValue = "audit_code", allocationSize = 50)
+    private Integer id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private AuditCodeKind kind;
+
+    @Column(nullable = false)
+    private String label;
+}
@@ -0,0 +1,23 @@
+package com.example.GestionPlanAction.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * One dashboard figure, e.g. the number of plans in a statut or of VAs a user is responsible
+ * for. Names are built by {@link com.example.GestionPlanAction.service.DashboardCounters}.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "dashboard_counter")
+public class DashboardCounter {
+
+    @Id
+    @Column(length = 100)
+    private String name;
+
+    @Column(name = "counter_value", nullable = false)
+    private long value;
+}
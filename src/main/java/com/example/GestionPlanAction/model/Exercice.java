@@ -11,7 +11,8 @@ import lombok.*;
 public class Exercice {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "exercice_id")
+    @TableGenerator(name = "exercice_id", table = "id_generator", pkColumnValue = "exercice", allocationSize = 50)
     private Long id;
 
     private int annee;
@@ -14,7 +14,8 @@ import java.util.List;
 public class PlanAction {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "plan_action_id")
+    @TableGenerator(name = "plan_action_id", table = "id_generator", pkColumnValue = "plan_action", allocationSize = 50)
     private Long id;
 
     private String titre;
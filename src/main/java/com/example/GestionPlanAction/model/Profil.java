@@ -20,7 +20,8 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 @ToString(exclude = {"users"})          
 public class Profil {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "profil_id")
+    @TableGenerator(name = "profil_id", table = "id_generator", pkColumnValue = "profil", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
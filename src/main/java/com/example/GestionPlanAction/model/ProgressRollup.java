@@ -0,0 +1,43 @@
+package com.example.GestionPlanAction.model;
+
+import com.example.GestionPlanAction.enums.ProgressScope;
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Stored weighted progress of one VA, plan, service line or exercice.
+ *
+ * VA and plan rows: weightedSum = sum of poids x progress over the direct children (sous-VAs, or
+ * root VAs for a plan), weightSum = sum of their poids, progress = the ratio, or the VA's own
+ * avancement when it has no weighted children.
+ * Exercice rows: one unit of weight per plan. Service-line rows: one unit of weight per VA the
+ * service line is responsible for, carrying the progress of that VA's plan. Their progress is
+ * read as weightedSum / weightSum, the sums being updated atomically by concurrent plans.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "progress_rollup")
+public class ProgressRollup {
+
+    @EmbeddedId
+    private ProgressRollupId id;
+
+    @Column(name = "weighted_sum", nullable = false)
+    private double weightedSum;
+
+    @Column(name = "weight_sum", nullable = false)
+    private double weightSum;
+
+    @Column(nullable = false)
+    private double progress;
+
+    // VA and plan rows keep progress up to date, aggregate rows only maintain their sums
+    public double currentProgress() {
+        if (id.getScope() == ProgressScope.VARIABLE_ACTION || id.getScope() == ProgressScope.PLAN) {
+            return progress;
+        }
+        return weightSum > 0 ? weightedSum / weightSum : 0;
+    }
+}
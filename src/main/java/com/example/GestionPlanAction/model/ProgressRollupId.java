@@ -0,0 +1,21 @@
+package com.example.GestionPlanAction.model;
+
+import com.example.GestionPlanAction.enums.ProgressScope;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProgressRollupId implements Serializable {
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private ProgressScope scope;
+
+    @Column(name = "scope_id")
+    private Long scopeId;
+}
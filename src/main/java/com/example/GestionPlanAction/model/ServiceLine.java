@@ -15,7 +15,8 @@ import java.util.List;
 public class ServiceLine {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "service_line_id")
+    @TableGenerator(name = "service_line_id", table = "id_generator", pkColumnValue = "service_line", allocationSize = 50)
     private Long id;
 
     private String nom;
@@ -0,0 +1,27 @@
+package com.example.GestionPlanAction.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * One year of daily points of one series, delta-encoded by
+ * {@link com.example.GestionPlanAction.service.TrendCodec}: a year of a series takes a few
+ * hundred bytes and is read in a single row.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "trend_segment")
+public class TrendSegment {
+
+    @EmbeddedId
+    private TrendSegmentId id;
+
+    @Lob
+    @Column(nullable = false)
+    private byte[] points;
+
+    @Column(name = "point_count", nullable = false)
+    private int pointCount;
+}
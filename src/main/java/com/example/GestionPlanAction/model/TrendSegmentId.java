@@ -0,0 +1,25 @@
+package com.example.GestionPlanAction.model;
+
+import com.example.GestionPlanAction.enums.TrendMetric;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrendSegmentId implements Serializable {
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 30)
+    private TrendMetric metric;
+
+    // Statut name, service line id or exercice id
+    @Column(length = 40)
+    private String dimension;
+
+    @Column(name = "segment_year")
+    private int year;
+}
@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -18,12 +19,16 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 @AllArgsConstructor
 @Entity
 @NoArgsConstructor
-@Table(name = "user")
+@Table(name = "user", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_user_username", columnNames = "username"),
+        @UniqueConstraint(name = "uk_user_email", columnNames = "email")
+})
 @EqualsAndHashCode(exclude = {"profils", "serviceLine", "variableActions", "notifications"}) // ✅ CRITICAL
 @ToString(exclude = {"profils", "serviceLine", "variableActions", "notifications"})          // ✅ CRITICAL
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "user_id")
+    @TableGenerator(name = "user_id", table = "id_generator", pkColumnValue = "user", allocationSize = 50)
     private Long id;
 
     private String nom;
@@ -50,13 +55,20 @@ public class User {
     @JsonIgnore
     private List<VariableAction> variableActions = new ArrayList<>();
 
-    @OneToMany(mappedBy = "utilisateur", fetch = FetchType.LAZY, cascade = CascadeType.ALL)
+    // No cascade: deleting a user removes its notifications with a single statement
+    @OneToMany(mappedBy = "utilisateur", fetch = FetchType.LAZY)
     @JsonIgnore
     private List<Notification> notifications = new ArrayList<>();
 
     @Column(nullable = false)
     private Boolean actif = true;
 
+    // Only moved by TokenEpochRegistry with an UPDATE, never written from the entity
+    @ColumnDefault("0")
+    @Column(name = "token_epoch", nullable = false, insertable = false, updatable = false)
+    @JsonIgnore
+    private long tokenEpoch;
+
     @Column(name = "created_at")
     private java.time.LocalDateTime createdAt;
 
@@ -2,6 +2,7 @@ package com.example.GestionPlanAction.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.List;
 
@@ -13,7 +14,8 @@ import java.util.List;
 public class VariableAction {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "variable_action_id")
+    @TableGenerator(name = "variable_action_id", table = "id_generator", pkColumnValue = "variable_action", allocationSize = 50)
     private Long id;
 
     private String description;
@@ -21,6 +23,10 @@ public class VariableAction {
     private boolean fige;
     private int niveau;
 
+    // Own completion in percent, only counts for VAs without weighted sous-VAs
+    @ColumnDefault("0")
+    private float avancement;
+
     @ManyToOne
     @JoinColumn(name = "va_mere_id")
     private VariableAction vaMere;
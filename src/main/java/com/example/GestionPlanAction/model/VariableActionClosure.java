@@ -0,0 +1,25 @@
+package com.example.GestionPlanAction.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * One row per (ancestor, descendant) pair of the VariableAction tree, including each VA paired
+ * with itself at depth 0. Lets subtree and ancestor lookups run as a single indexed query
+ * instead of walking vaMere / sousVAs one level at a time.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "va_closure", indexes = {
+    @Index(name = "idx_va_closure_descendant", columnList = "descendant_id, depth")
+})
+public class VariableActionClosure {
+
+    @EmbeddedId
+    private VariableActionClosureId id;
+
+    @Column(nullable = false)
+    private int depth;
+}
@@ -0,0 +1,26 @@
+package com.example.GestionPlanAction.repository;
+
+import com.example.GestionPlanAction.model.Announcement;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface AnnouncementRepository extends JpaRepository<Announcement, Long> {
+
+    // A read is recorded by rewriting the readers bitmap, concurrent readers take turns
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Announcement a WHERE a.id = :id")
+    Optional<Announcement> lockById(@Param("id") Long id);
+
+    List<Announcement> findByDateAfter(LocalDateTime date);
+}
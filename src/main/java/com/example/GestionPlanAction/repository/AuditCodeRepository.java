@@ -0,0 +1,15 @@
+package com.example.GestionPlanAction.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.example.GestionPlanAction.enums.AuditCodeKind;
+import com.example.GestionPlanAction.model.AuditCode;
+
+@Repository
+public interface AuditCodeRepository extends JpaRepository<AuditCode, Integer> {
+
+    Optional<AuditCode> findByKindAndLabel(AuditCodeKind kind, String label);
+}
@@ -2,31 +2,66 @@ package com.example.GestionPlanAction.repository;
 
 import com.example.GestionPlanAction.model.Audit;
 import com.example.GestionPlanAction.model.User;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface AuditRepository extends JpaRepository<Audit, Long> {
     
-    List<Audit> findByUtilisateurOrderByDateDesc(User utilisateur);
-    
-    Page<Audit> findByUtilisateurOrderByDateDesc(User utilisateur, Pageable pageable);
-    
-    List<Audit> findByActionContainingIgnoreCaseOrderByDateDesc(String action);
-    
-    List<Audit> findByDateBetweenOrderByDateDesc(LocalDateTime startDate, LocalDateTime endDate);
-    
-    @Query("SELECT a FROM Audit a WHERE a.entityType = :entityType AND a.entityId = :entityId ORDER BY a.date DESC")
-    List<Audit> findByEntityTypeAndEntityIdOrderByDateDesc(@Param("entityType") String entityType, 
-                                                           @Param("entityId") Long entityId);
-    
+    // Keyset page, newest first: rows strictly before the (beforeDate, beforeId) cursor. Filters are
+    // optional; actor, entity and action each lead a composite index ending with (date, id)
+    @Query("""
+            SELECT a.id, a.date, a.actionCode, a.entityTypeCode, a.entityId, a.details, a.utilisateur.id
+            FROM Audit a
+            WHERE (:userId IS NULL OR a.utilisateur.id = :userId)
+              AND (:actionCode IS NULL OR a.actionCode = :actionCode)
+              AND (:entityTypeCode IS NULL OR a.entityTypeCode = :entityTypeCode)
+              AND (:entityId IS NULL OR a.entityId = :entityId)
+              AND (:from IS NULL OR a.date >= :from)
+              AND (:to IS NULL OR a.date < :to)
+              AND (:beforeDate IS NULL OR a.date < :beforeDate OR (a.date = :beforeDate AND a.id < :beforeId))
+            ORDER BY a.date DESC, a.id DESC
+            """)
+    List<Object[]> search(@Param("userId") Long userId,
+                          @Param("actionCode") Integer actionCode,
+                          @Param("entityTypeCode") Integer entityTypeCode,
+                          @Param("entityId") Long entityId,
+                          @Param("from") LocalDateTime from,
+                          @Param("to") LocalDateTime to,
+                          @Param("beforeDate") LocalDateTime beforeDate,
+                          @Param("beforeId") Long beforeId,
+                          Limit limit);
+
     @Query("SELECT COUNT(a) FROM Audit a WHERE a.utilisateur = :user AND a.date >= :since")
     Long countUserActionsAfter(@Param("user") User user, @Param("since") LocalDateTime since);
+
+    // Retention: rows older than a date, by chunks of ids in id order
+    @Query("SELECT a.id FROM Audit a WHERE a.date < :before AND a.id > :after ORDER BY a.id")
+    List<Long> findIdsBefore(@Param("before") LocalDateTime before, @Param("after") Long after, Limit limit);
+
+    // Archiving: rows older than a date, by chunks in id order
+    @Query("""
+            SELECT a.id, a.date, a.actionCode, a.entityTypeCode, a.entityId, a.details, a.utilisateur.id
+            FROM Audit a
+            WHERE a.date < :before AND a.id > :after
+            ORDER BY a.id
+            """)
+    List<Object[]> findRowsBefore(@Param("before") LocalDateTime before, @Param("after") Long after, Limit limit);
+
+    @Modifying
+    @Query("DELETE FROM Audit a WHERE a.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Deleted users' trail is kept, without the link
+    @Modifying
+    @Query("UPDATE Audit a SET a.utilisateur = null WHERE a.utilisateur.id IN :userIds")
+    int detachUsers(@Param("userIds") Collection<Long> userIds);
 }
\ No newline at end of file
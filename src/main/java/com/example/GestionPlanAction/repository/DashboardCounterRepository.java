@@ -0,0 +1,22 @@
+package com.example.GestionPlanAction.repository;
+
+import com.example.GestionPlanAction.model.DashboardCounter;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface DashboardCounterRepository extends JpaRepository<DashboardCounter, String> {
+
+    // Counters are shared by concurrent writers, so they are only ever moved by relative amounts.
+    // One statement creates the row or adds to it: two writers creating the same counter cannot collide.
+    @Modifying
+    @Query(value = """
+            INSERT INTO dashboard_counter (name, counter_value) VALUES (:name, :delta)
+            ON DUPLICATE KEY UPDATE counter_value = counter_value + :delta
+            """, nativeQuery = true)
+    int addToValue(@Param("name") String name, @Param("delta") long delta);
+}
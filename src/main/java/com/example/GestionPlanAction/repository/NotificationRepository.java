@@ -2,6 +2,7 @@ package com.example.GestionPlanAction.repository;
 
 import com.example.GestionPlanAction.model.Notification;
 import com.example.GestionPlanAction.model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -11,6 +12,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -21,8 +23,17 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     Page<Notification> findByUtilisateurOrderByDateDesc(User utilisateur, Pageable pageable);
     
     Long countByUtilisateurAndRecuFalse(User utilisateur);
+
+    long countByUtilisateurIdAndRecuFalse(Long utilisateurId);
     
     List<Notification> findByUtilisateurAndDateAfterOrderByDateDesc(User utilisateur, LocalDateTime since);
+
+    // Stream resume: notifications after the last one a client received, in (date, id) order since
+    // pooled ids are not in creation order across instances
+    @Query("SELECT n FROM Notification n WHERE n.utilisateur.id = :userId"
+            + " AND (n.date > :date OR (n.date = :date AND n.id > :id)) ORDER BY n.date, n.id")
+    List<Notification> findAfter(@Param("userId") Long userId, @Param("date") LocalDateTime date,
+            @Param("id") Long id, Limit limit);
     
     @Modifying
     @Query("UPDATE Notification n SET n.recu = true WHERE n.utilisateur = :user AND n.recu = false")
@@ -32,6 +43,26 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     @Query("UPDATE Notification n SET n.recu = true WHERE n.id = :notificationId AND n.utilisateur = :user")
     void markAsReadForUser(@Param("notificationId") Long notificationId, @Param("user") User user);
     
+    boolean existsByIdAndUtilisateurIdAndRecuFalse(Long id, Long utilisateurId);
+
+    // Buffered read marks of one user, written together
+    @Modifying
+    @Query("UPDATE Notification n SET n.recu = true WHERE n.utilisateur.id = :userId AND n.id IN :ids AND n.recu = false")
+    int markAsReadByIds(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+    // Retention: read notifications older than a date, by chunks of ids in id order
+    @Query("SELECT n.id FROM Notification n WHERE n.recu = true AND n.date < :before AND n.id > :after ORDER BY n.id")
+    List<Long> findReadIdsBefore(@Param("before") LocalDateTime before, @Param("after") Long after, Limit limit);
+
+    @Modifying
+    @Query("DELETE FROM Notification n WHERE n.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Set-based delete of users' notifications before the users
+    @Modifying
+    @Query("DELETE FROM Notification n WHERE n.utilisateur.id IN :userIds")
+    int deleteByUtilisateurIdIn(@Param("userIds") Collection<Long> userIds);
+
     @Query("SELECT n FROM Notification n WHERE n.type = :type AND n.date >= :since ORDER BY n.date DESC")
     List<Notification> findByTypeAndDateAfter(@Param("type") String type, @Param("since") LocalDateTime since);
 }
\ No newline at end of file
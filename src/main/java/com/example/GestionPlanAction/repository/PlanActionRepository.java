@@ -3,10 +3,19 @@ package com.example.GestionPlanAction.repository;
 import com.example.GestionPlanAction.enums.StatutPlanAction;
 import com.example.GestionPlanAction.model.PlanAction;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import jakarta.persistence.QueryHint;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -26,7 +35,86 @@ public interface PlanActionRepository extends JpaRepository<PlanAction, Long> {
     @Query("SELECT p.statut, COUNT(p) FROM PlanAction p GROUP BY p.statut")
     List<Object[]> getStatusDistribution();
 
-    
-    @Query(value = "SELECT p.* , v.* ,e.* ,u.* FROM plan_action p left join variable_action v on v.plan_action_id=p.id left join exercice e on e.id=p.id left join user u on u.id=v.responsable_id",nativeQuery = true)
-	List<Object[]> findAllplans();
+    @Query("SELECT e.id FROM PlanAction p JOIN p.exercice e WHERE p.id = :id")
+    Long findExerciceId(@Param("id") Long id);
+
+    // exercice id, number of plans
+    @Query("SELECT e.id, COUNT(p) FROM PlanAction p JOIN p.exercice e GROUP BY e.id")
+    List<Object[]> countByExercice();
+
+    // plan id, exercice id (null when the plan has none)
+    @Query("SELECT p.id, e.id FROM PlanAction p LEFT JOIN p.exercice e")
+    List<Object[]> findAllExerciceIds();
+
+    // Dashboard lists, latest plans first: id, titre, statut, exercice annee
+    @Query("""
+            SELECT p.id, p.titre, p.statut, e.annee FROM PlanAction p LEFT JOIN p.exercice e
+            ORDER BY p.id DESC
+            """)
+    List<Object[]> findRecentSummaries(Limit limit);
+
+    @Query("""
+            SELECT p.id, p.titre, p.statut, e.annee FROM PlanAction p LEFT JOIN p.exercice e
+            WHERE p.statut = :statut
+            ORDER BY p.id DESC
+            """)
+    List<Object[]> findSummariesByStatut(@Param("statut") StatutPlanAction statut, Limit limit);
+
+    @Query("""
+            SELECT p.id, p.titre, p.statut, e.annee FROM PlanAction p LEFT JOIN p.exercice e
+            WHERE EXISTS (SELECT va.id FROM VariableAction va WHERE va.planAction = p AND va.responsable.id = :userId)
+            ORDER BY p.id DESC
+            """)
+    List<Object[]> findSummariesByResponsableId(@Param("userId") Long userId, Limit limit);
+
+    // Keyset page of plan ids, filters are optional
+    @Query("""
+            SELECT p.id FROM PlanAction p
+            WHERE p.id > :after
+              AND (:statut IS NULL OR p.statut = :statut)
+              AND (:exerciceId IS NULL OR p.exercice.id = :exerciceId)
+              AND (:serviceLineId IS NULL OR EXISTS (
+                    SELECT va.id FROM VariableAction va
+                    WHERE va.planAction = p AND va.responsable.serviceLine.id = :serviceLineId))
+            ORDER BY p.id
+            """)
+    List<Long> findPlanIdsAfter(@Param("after") Long after,
+                                @Param("statut") StatutPlanAction statut,
+                                @Param("exerciceId") Long exerciceId,
+                                @Param("serviceLineId") Long serviceLineId,
+                                Limit limit);
+
+    // One row per (plan, variable action), ordered so that the rows of a plan are contiguous
+    @Query("""
+            SELECT p.id, p.titre, p.description, p.statut, e.id, e.annee, e.verrouille,
+                   va.id, va.description, va.poids, va.fige, va.niveau, m.id, r.id
+            FROM PlanAction p
+            LEFT JOIN p.exercice e
+            LEFT JOIN p.variableActions va
+            LEFT JOIN va.vaMere m
+            LEFT JOIN va.responsable r
+            WHERE p.id IN :ids
+            ORDER BY p.id, va.id
+            """)
+    List<Object[]> findPlanRows(@Param("ids") Collection<Long> ids);
+
+    // Same rows as findPlanRows for every matching plan, read forward-only for the export
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            SELECT p.id, p.titre, p.description, p.statut, e.id, e.annee, e.verrouille,
+                   va.id, va.description, va.poids, va.fige, va.niveau, m.id, r.id
+            FROM PlanAction p
+            LEFT JOIN p.exercice e
+            LEFT JOIN p.variableActions va
+            LEFT JOIN va.vaMere m
+            LEFT JOIN va.responsable r
+            WHERE (:statut IS NULL OR p.statut = :statut)
+              AND (:exerciceId IS NULL OR e.id = :exerciceId)
+            ORDER BY p.id, va.id
+            """)
+    Stream<Object[]> streamPlanRows(@Param("statut") StatutPlanAction statut,
+                                    @Param("exerciceId") Long exerciceId);
 }
\ No newline at end of file
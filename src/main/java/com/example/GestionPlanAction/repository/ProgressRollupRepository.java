@@ -0,0 +1,56 @@
+package com.example.GestionPlanAction.repository;
+
+import com.example.GestionPlanAction.enums.ProgressScope;
+import com.example.GestionPlanAction.model.ProgressRollup;
+import com.example.GestionPlanAction.model.ProgressRollupId;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface ProgressRollupRepository extends JpaRepository<ProgressRollup, ProgressRollupId> {
+
+    // Every change to a plan's tree goes through the lock on its PLAN row
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM ProgressRollup r WHERE r.id = :id")
+    Optional<ProgressRollup> lockById(@Param("id") ProgressRollupId id);
+
+    @Query("SELECT r FROM ProgressRollup r WHERE r.id.scope = :scope AND r.id.scopeId IN :ids")
+    List<ProgressRollup> findByScopeAndIds(@Param("scope") ProgressScope scope, @Param("ids") Collection<Long> ids);
+
+    @Query("SELECT r FROM ProgressRollup r WHERE r.id.scope = :scope")
+    List<ProgressRollup> findByScope(@Param("scope") ProgressScope scope);
+
+    @Query("SELECT COUNT(r) FROM ProgressRollup r WHERE r.id.scope = :scope")
+    long countByScope(@Param("scope") ProgressScope scope);
+
+    // Aggregate rows are shared by concurrent plans, so they are only ever moved by relative amounts.
+    // One statement creates the row or adds to it: two plans creating the same row cannot collide.
+    @Modifying
+    @Query(value = """
+            INSERT INTO progress_rollup (scope, scope_id, weighted_sum, weight_sum, progress)
+            VALUES (:scope, :scopeId, :weightedDelta, :weightDelta, 0)
+            ON DUPLICATE KEY UPDATE weighted_sum = weighted_sum + :weightedDelta,
+                                    weight_sum = weight_sum + :weightDelta
+            """, nativeQuery = true)
+    int addToSums(@Param("scope") String scope, @Param("scopeId") Long scopeId,
+                  @Param("weightedDelta") double weightedDelta, @Param("weightDelta") double weightDelta);
+
+    @Modifying
+    @Query("DELETE FROM ProgressRollup r WHERE r.id.scope = :scope AND r.id.scopeId IN :ids")
+    void deleteByScopeAndIds(@Param("scope") ProgressScope scope, @Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM ProgressRollup r")
+    void deleteAllRows();
+}
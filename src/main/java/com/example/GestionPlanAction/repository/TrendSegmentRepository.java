@@ -0,0 +1,29 @@
+package com.example.GestionPlanAction.repository;
+
+import com.example.GestionPlanAction.enums.TrendMetric;
+import com.example.GestionPlanAction.model.TrendSegment;
+import com.example.GestionPlanAction.model.TrendSegmentId;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface TrendSegmentRepository extends JpaRepository<TrendSegment, TrendSegmentId> {
+
+    // A point is written by rewriting its segment, concurrent writers take turns
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM TrendSegment s WHERE s.id = :id")
+    Optional<TrendSegment> lockById(@Param("id") TrendSegmentId id);
+
+    @Query("SELECT s FROM TrendSegment s WHERE s.id.metric = :metric AND s.id.year BETWEEN :fromYear AND :toYear")
+    List<TrendSegment> findByMetricAndYears(@Param("metric") TrendMetric metric, @Param("fromYear") int fromYear,
+                                            @Param("toYear") int toYear);
+}
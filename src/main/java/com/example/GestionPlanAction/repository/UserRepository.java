@@ -1,12 +1,15 @@
 package com.example.GestionPlanAction.repository;
 
+import com.example.GestionPlanAction.dto.AuthUserView;
 import com.example.GestionPlanAction.dto.UserWithProfilView;
 import com.example.GestionPlanAction.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,6 +21,61 @@ public interface UserRepository extends JpaRepository<User, Long> {
 	Optional<User> findByUsernameOrEmail(@Param("usernameOrEmail") String username,
 			@Param("usernameOrEmail") String email);
 
+	// Authentication read path: single round trip, each lookup served by its own unique index
+	@Query("""
+			SELECT u.id AS id, u.nom AS nom, u.prenom AS prenom, u.username AS username, u.email AS email,
+			       u.motDePasse AS motDePasse, u.actif AS actif, sl.nom AS serviceLineNom, p.nom AS profilNom
+			FROM User u
+			LEFT JOIN u.serviceLine sl
+			LEFT JOIN u.profils p
+			WHERE u.username = :username
+			""")
+	List<AuthUserView> findAuthRowsByUsername(@Param("username") String username);
+
+	@Query("""
+			SELECT u.id AS id, u.nom AS nom, u.prenom AS prenom, u.username AS username, u.email AS email,
+			       u.motDePasse AS motDePasse, u.actif AS actif, sl.nom AS serviceLineNom, p.nom AS profilNom
+			FROM User u
+			LEFT JOIN u.serviceLine sl
+			LEFT JOIN u.profils p
+			WHERE u.email = :email
+			""")
+	List<AuthUserView> findAuthRowsByEmail(@Param("email") String email);
+
+	@Modifying
+	@Query("UPDATE User u SET u.motDePasse = :motDePasse WHERE u.id = :id")
+	int updatePassword(@Param("id") Long id, @Param("motDePasse") String motDePasse);
+
+	// Token revocation, see TokenEpochRegistry
+	@Query("SELECT u.tokenEpoch FROM User u WHERE u.id = :id")
+	Optional<Long> findTokenEpochById(@Param("id") Long id);
+
+	@Modifying
+	@Query("UPDATE User u SET u.tokenEpoch = u.tokenEpoch + 1 WHERE u.id = :id")
+	int incrementTokenEpoch(@Param("id") Long id);
+
+	// Username to id lookup table for bulk imports
+	@Query("SELECT u.username, u.id FROM User u")
+	List<Object[]> findAllUsernameIds();
+
+	// Audit pages: (id, username) of the users on the page
+	@Query("SELECT u.id, u.username FROM User u WHERE u.id IN :ids")
+	List<Object[]> findUsernamesByIds(@Param("ids") Collection<Long> ids);
+
+	// Broadcast notification recipients
+	@Query("SELECT u.id FROM User u WHERE u.serviceLine.id = :serviceLineId AND u.actif = true")
+	List<Long> findActiveIdsByServiceLineId(@Param("serviceLineId") Long serviceLineId);
+
+	@Query("SELECT u.id FROM User u JOIN u.profils p WHERE p.id = :profilId AND u.actif = true")
+	List<Long> findActiveIdsByProfilId(@Param("profilId") Long profilId);
+
+	@Query("""
+			SELECT DISTINCT r.id
+			FROM VariableAction va JOIN va.responsable r
+			WHERE va.planAction.id = :planId AND r.actif = true
+			""")
+	List<Long> findActiveResponsableIdsByPlanId(@Param("planId") Long planId);
+
 	// Additional methods for user management
 	Optional<User> findByUsername(String username);
 
@@ -0,0 +1,89 @@
+package com.example.GestionPlanAction.repository;
+
+import com.example.GestionPlanAction.model.VariableActionClosure;
+import com.example.GestionPlanAction.model.VariableActionClosureId;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface VariableActionClosureRepository extends JpaRepository<VariableActionClosure, VariableActionClosureId> {
+
+    // Subtree of a VA, itself first, then by increasing depth
+    @Query("SELECT c.id.descendantId FROM VariableActionClosure c WHERE c.id.ancestorId = :id ORDER BY c.depth, c.id.descendantId")
+    List<Long> findDescendantIds(@Param("id") Long id);
+
+    // Ancestors of a VA, parent first, root last
+    @Query("SELECT c.id.ancestorId FROM VariableActionClosure c WHERE c.id.descendantId = :id AND c.depth > 0 ORDER BY c.depth")
+    List<Long> findAncestorIds(@Param("id") Long id);
+
+    @Query("SELECT COUNT(c) > 0 FROM VariableActionClosure c WHERE c.id.ancestorId = :ancestorId AND c.id.descendantId = :descendantId")
+    boolean isAncestorOrSelf(@Param("ancestorId") Long ancestorId, @Param("descendantId") Long descendantId);
+
+    @Modifying
+    @Query(value = "INSERT INTO va_closure (ancestor_id, descendant_id, depth) VALUES (:id, :id, 0)", nativeQuery = true)
+    void insertSelf(@Param("id") Long id);
+
+    // Links a new leaf below every ancestor of its parent, the parent included
+    @Modifying
+    @Query(value = """
+            INSERT INTO va_closure (ancestor_id, descendant_id, depth)
+            SELECT ancestor_id, :id, depth + 1 FROM va_closure WHERE descendant_id = :parentId
+            """, nativeQuery = true)
+    void insertBelow(@Param("id") Long id, @Param("parentId") Long parentId);
+
+    // Links every node of the subtree rooted at :id below every ancestor of :parentId
+    @Modifying
+    @Query(value = """
+            INSERT INTO va_closure (ancestor_id, descendant_id, depth)
+            SELECT a.ancestor_id, d.descendant_id, a.depth + d.depth + 1
+            FROM va_closure a CROSS JOIN va_closure d
+            WHERE a.descendant_id = :parentId AND d.ancestor_id = :id
+            """, nativeQuery = true)
+    void linkSubtree(@Param("id") Long id, @Param("parentId") Long parentId);
+
+    // Cuts a subtree off its former ancestors, keeping the paths inside the subtree
+    @Modifying
+    @Query("DELETE FROM VariableActionClosure c WHERE c.id.descendantId IN :ids AND c.id.ancestorId NOT IN :ids")
+    void unlinkSubtree(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM VariableActionClosure c WHERE c.id.descendantId IN :ids")
+    void deleteByDescendantIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(value = """
+            DELETE FROM va_closure
+            WHERE descendant_id IN (SELECT id FROM variable_action WHERE plan_action_id = :planId)
+            """, nativeQuery = true)
+    void deleteByPlanActionId(@Param("planId") Long planId);
+
+    // Backfill from variable_action.va_mere_id, see VariableActionClosureBackfill
+    @Query("SELECT COUNT(c) FROM VariableActionClosure c WHERE c.depth = 0")
+    long countSelfRows();
+
+    @Modifying
+    @Query(value = "DELETE FROM va_closure", nativeQuery = true)
+    void deleteAllRows();
+
+    @Modifying
+    @Query(value = "INSERT INTO va_closure (ancestor_id, descendant_id, depth) SELECT id, id, 0 FROM variable_action",
+            nativeQuery = true)
+    int insertAllSelfRows();
+
+    // Derives every path of length depth + 1 from the paths of length depth
+    @Modifying
+    @Query(value = """
+            INSERT INTO va_closure (ancestor_id, descendant_id, depth)
+            SELECT c.ancestor_id, va.id, c.depth + 1
+            FROM va_closure c JOIN variable_action va ON va.va_mere_id = c.descendant_id
+            WHERE c.depth = :depth
+            """, nativeQuery = true)
+    int insertPathsFromDepth(@Param("depth") int depth);
+}
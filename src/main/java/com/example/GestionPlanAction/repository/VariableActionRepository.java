@@ -2,12 +2,130 @@ package com.example.GestionPlanAction.repository;
 
 import com.example.GestionPlanAction.enums.StatutPlanAction;
 import com.example.GestionPlanAction.model.VariableAction;
+
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface VariableActionRepository extends JpaRepository<VariableAction, Long> {
     long countByResponsableId(Long responsableId);
     
     @Query("SELECT COUNT(va) FROM VariableAction va WHERE va.responsable.id = :userId AND va.planAction.statut = :statut")
     long countByResponsableIdAndPlanActionStatut(Long userId, StatutPlanAction statut);
+
+    // Flat rows of a plan's VAs: id, description, poids, fige, niveau, vaMere id, responsable id, avancement
+    @Query("""
+            SELECT va.id, va.description, va.poids, va.fige, va.niveau, m.id, r.id, va.avancement
+            FROM VariableAction va
+            LEFT JOIN va.vaMere m
+            LEFT JOIN va.responsable r
+            WHERE va.planAction.id = :planId
+            ORDER BY va.id
+            """)
+    List<Object[]> findTreeRowsByPlanActionId(@Param("planId") Long planId);
+
+    // Same columns for the subtree rooted at :id, read through the closure table
+    @Query("""
+            SELECT va.id, va.description, va.poids, va.fige, va.niveau, m.id, r.id, va.avancement
+            FROM VariableActionClosure c
+            JOIN VariableAction va ON va.id = c.id.descendantId
+            LEFT JOIN va.vaMere m
+            LEFT JOIN va.responsable r
+            WHERE c.id.ancestorId = :id
+            ORDER BY c.depth, va.id
+            """)
+    List<Object[]> findSubtreeRows(@Param("id") Long id);
+
+    // Progress inputs of a plan's VAs: id, poids, avancement, vaMere id
+    @Query("""
+            SELECT va.id, va.poids, va.avancement, m.id
+            FROM VariableAction va
+            LEFT JOIN va.vaMere m
+            WHERE va.planAction.id = :planId
+            """)
+    List<Object[]> findProgressRowsByPlanActionId(@Param("planId") Long planId);
+
+    @Query("SELECT va.id, va.poids FROM VariableAction va WHERE va.id IN :ids")
+    List<Object[]> findPoids(@Param("ids") Collection<Long> ids);
+
+    // Number of VAs of the plan each service line is responsible for
+    @Query("""
+            SELECT sl.id, COUNT(va)
+            FROM VariableAction va JOIN va.responsable r JOIN r.serviceLine sl
+            WHERE va.planAction.id = :planId
+            GROUP BY sl.id
+            """)
+    List<Object[]> countByServiceLineForPlan(@Param("planId") Long planId);
+
+    // Same counts for every plan at once: plan id, service line id, count
+    @Query("""
+            SELECT va.planAction.id, sl.id, COUNT(va)
+            FROM VariableAction va JOIN va.responsable r JOIN r.serviceLine sl
+            GROUP BY va.planAction.id, sl.id
+            """)
+    List<Object[]> countByPlanAndServiceLine();
+
+    // Plans each service line has VAs in: service line id, count
+    @Query("""
+            SELECT sl.id, COUNT(DISTINCT va.planAction.id)
+            FROM VariableAction va JOIN va.responsable r JOIN r.serviceLine sl
+            WHERE va.planAction IS NOT NULL
+            GROUP BY sl.id
+            """)
+    List<Object[]> countPlansByServiceLine();
+
+    // Dashboard counts: responsable id, statut of the VA's plan (null without plan), count
+    @Query("""
+            SELECT r.id, pa.statut, COUNT(va)
+            FROM VariableAction va JOIN va.responsable r LEFT JOIN va.planAction pa
+            GROUP BY r.id, pa.statut
+            """)
+    List<Object[]> countByResponsableAndStatut();
+
+    @Query("""
+            SELECT r.id, pa.statut, COUNT(va)
+            FROM VariableAction va JOIN va.responsable r LEFT JOIN va.planAction pa
+            WHERE va.id IN :ids
+            GROUP BY r.id, pa.statut
+            """)
+    List<Object[]> countByResponsableAndStatutForIds(@Param("ids") Collection<Long> ids);
+
+    @Query("""
+            SELECT r.id, pa.statut, COUNT(va)
+            FROM VariableAction va JOIN va.responsable r JOIN va.planAction pa
+            WHERE pa.id IN :planIds
+            GROUP BY r.id, pa.statut
+            """)
+    List<Object[]> countByResponsableAndStatutForPlans(@Param("planIds") Collection<Long> planIds);
+
+    @Query("SELECT DISTINCT va.planAction.id FROM VariableAction va WHERE va.responsable.id = :userId")
+    List<Long> findPlanActionIdsByResponsableId(@Param("userId") Long userId);
+
+    @Query("SELECT va.planAction.id FROM VariableAction va WHERE va.id = :id")
+    Long findPlanActionId(@Param("id") Long id);
+
+    // Parent links are cut first so that a single DELETE never hits the va_mere_id foreign key
+    @Modifying
+    @Query("UPDATE VariableAction va SET va.vaMere = null WHERE va.id IN :ids")
+    void detachParents(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM VariableAction va WHERE va.id IN :ids")
+    void deleteByIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE VariableAction va SET va.vaMere = null WHERE va.planAction.id = :planId")
+    void detachParentsByPlanActionId(@Param("planId") Long planId);
+
+    @Modifying
+    @Query("DELETE FROM VariableAction va WHERE va.planAction.id = :planId")
+    void deleteByPlanActionId(@Param("planId") Long planId);
+
+    @Modifying
+    @Query("UPDATE VariableAction va SET va.niveau = va.niveau + :delta WHERE va.id IN :ids")
+    void shiftNiveau(@Param("ids") Collection<Long> ids, @Param("delta") int delta);
 }
@@ -27,6 +27,9 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     @Autowired
     private CustomUserDetailsService userDetailsService;
 
+    @Autowired
+    private TokenEpochRegistry tokenEpochs;
+
     private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
 
     @Override
@@ -34,22 +37,38 @@ public class AuthTokenFilter extends OncePerRequestFilter {
                                   FilterChain filterChain) throws ServletException, IOException {
         try {
             String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
+            VerifiedJwt verified = jwt != null ? jwtUtils.verifyJwtToken(jwt) : null;
+            if (verified != null && verified.isSelfContained() && !tokenEpochs.isCurrent(verified)) {
+                logger.debug("Token for user {} has been revoked", verified.getUsername());
+            } else if (verified != null) {
+                String username = verified.getUsername();
                 
-                // Get roles from token
-                List<SimpleGrantedAuthority> authorities = jwtUtils.getRolesFromJwtToken(jwt);
+                // Roles come from the verified token, parsed once
+                List<SimpleGrantedAuthority> authorities = verified.getAuthorities();
                 
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                UserDetails userDetails;
+                if (verified.isSelfContained()) {
+                    // Normal path: the token carries the whole principal, no SQL but the cached epoch
+                    userDetails = UserPrincipal.create(verified);
+                } else {
+                    // Older token format without an epoch: trust the database for the account state
+                    // and roles
+                    userDetails = userDetailsService.loadUserByUsername(username);
+                    authorities = userDetails.getAuthorities().stream()
+                        .map(auth -> new SimpleGrantedAuthority(auth.getAuthority()))
+                        .collect(Collectors.toList());
+                }
                 
                 // Log authorities comparison for debugging
-                logger.debug("Token authorities: {}", authorities.stream()
-                    .map(SimpleGrantedAuthority::getAuthority)
-                    .collect(Collectors.joining(", ")));
-                
-                logger.debug("UserDetails authorities: {}", userDetails.getAuthorities().stream()
-                    .map(auth -> auth.getAuthority())
-                    .collect(Collectors.joining(", ")));
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Token authorities: {}", authorities.stream()
+                        .map(SimpleGrantedAuthority::getAuthority)
+                        .collect(Collectors.joining(", ")));
+                    
+                    logger.debug("UserDetails authorities: {}", userDetails.getAuthorities().stream()
+                        .map(auth -> auth.getAuthority())
+                        .collect(Collectors.joining(", ")));
+                }
                 
                 // If token has no authorities but userDetails does, use those instead
                 if (authorities.isEmpty() && userDetails.getAuthorities() != null && !userDetails.getAuthorities().isEmpty()) {
@@ -65,13 +84,19 @@ public class AuthTokenFilter extends OncePerRequestFilter {
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 
                 // Log request info for debugging
-                logger.debug("Request path: {}, Method: {}", request.getRequestURI(), request.getMethod());
-                logger.debug("Setting authentication for user: {} with authorities: {}", username, 
-                    authorities.stream()
-                        .map(auth -> auth.getAuthority())
-                        .collect(Collectors.joining(", ")));
-                logger.info("User {} authenticated successfully", username);
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Request path: {}, Method: {}", request.getRequestURI(), request.getMethod());
+                    logger.debug("Setting authentication for user: {} with authorities: {}", username, 
+                        authorities.stream()
+                            .map(auth -> auth.getAuthority())
+                            .collect(Collectors.joining(", ")));
+                }
+                if (userDetails.isEnabled()) {
+                    logger.debug("User {} authenticated successfully", username);
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                } else {
+                    logger.debug("User {} is disabled, ignoring token", username);
+                }
             } else {
                 logger.debug("No valid JWT token found");
             }
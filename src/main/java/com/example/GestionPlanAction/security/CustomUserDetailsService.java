@@ -1,15 +1,15 @@
 package com.example.GestionPlanAction.security;
 
-import com.example.GestionPlanAction.model.Profil;
+import com.example.GestionPlanAction.dto.AuthUserView;
 import com.example.GestionPlanAction.model.User;
 import com.example.GestionPlanAction.repository.UserRepository;
-import com.example.GestionPlanAction.repository.ProfilRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -19,97 +19,72 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private static final Logger logger = LoggerFactory.getLogger(CustomUserDetailsService.class);
 
     @Autowired
     private UserRepository userRepository;
 
-    @Autowired
-    private ProfilRepository profilRepository;
-
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String usernameOrEmail) throws UsernameNotFoundException {
         logger.debug("Loading user by username or email: {}", usernameOrEmail);
-        
-        // First check if the user has any profiles at all (for debugging)
-        boolean hasProfiles = false;
-        try {
-            if (usernameOrEmail != null && usernameOrEmail.contains("@")) {
-                // Handle email case
-                User checkUser = userRepository.findByEmail(usernameOrEmail).orElse(null);
-                if (checkUser != null) {
-                    hasProfiles = userRepository.hasAnyProfile(checkUser.getUsername());
-                    logger.debug("User {} found by email has profiles: {}", checkUser.getUsername(), hasProfiles);
-                }
-            } else {
-                // Handle username case
-                hasProfiles = userRepository.hasAnyProfile(usernameOrEmail);
-                logger.debug("User {} has profiles: {}", usernameOrEmail, hasProfiles);
-            }
-        } catch (Exception e) {
-            logger.error("Error checking if user has profiles: {}", e.getMessage());
+
+        // Route to the lookup matching the input so each query hits a single unique index
+        String login = usernameOrEmail != null ? usernameOrEmail.trim() : "";
+        List<AuthUserView> rows = login.contains("@")
+                ? userRepository.findAuthRowsByEmail(login)
+                : userRepository.findAuthRowsByUsername(login);
+
+        // Usernames are allowed to contain '@'
+        if (rows.isEmpty() && login.contains("@")) {
+            rows = userRepository.findAuthRowsByUsername(login);
         }
-        
-        // Use the query with JOIN FETCH to load profiles eagerly
-        User user = userRepository.findByUsernameOrEmail(usernameOrEmail, usernameOrEmail)
-                .orElseThrow(() -> {
-                    logger.error("User not found: {}", usernameOrEmail);
-                    return new UsernameNotFoundException("Utilisateur non trouvé: " + usernameOrEmail);
-                });
 
-        logger.debug("User found: {} with ID: {}", user.getUsername(), user.getId());
-        
-        // Force initialization of profiles in the session
-        if (user.getProfils() != null) {
-            int profileCount = user.getProfils().size();
-            logger.debug("User has {} profiles in memory", profileCount);
-            
-            if (profileCount == 0 && hasProfiles) {
-                logger.warn("PROFILE LOADING ISSUE: User {} should have profiles but none were loaded", user.getUsername());
-                // Try an alternative approach to load profiles
-                try {
-                    // Manual query to retrieve user's profiles
-                    logger.debug("Attempting manual profile loading for user: {}", user.getUsername());
-                    // Further actions to debug or resolve the profile loading issue could go here
-                }
-                catch (Exception e) {
-                    logger.error("Error during manual profile loading: {}", e.getMessage());
-                }
-            }
-        } else {
-            logger.warn("User's profile collection is null");
+        if (rows.isEmpty()) {
+            logger.error("User not found: {}", usernameOrEmail);
+            throw new UsernameNotFoundException("Utilisateur non trouvé: " + usernameOrEmail);
         }
-        
-        // Load user authorities (roles)
+
+        AuthUserView user = rows.get(0);
+        logger.debug("User found: {} with ID: {}", user.getUsername(), user.getId());
+
+        // One row per profile, profilNom is null for a user without any
         List<GrantedAuthority> authorities = new ArrayList<>();
-        if (user.getProfils() != null && !user.getProfils().isEmpty()) {
-            for (Profil profil : user.getProfils()) {
-                authorities.add(new SimpleGrantedAuthority("ROLE_" + profil.getNom()));
-                logger.debug("Added role: ROLE_{}", profil.getNom());
-            }
-        } else {
-            // If no profiles in user object, try direct database query
-            List<String> profileNames = profilRepository.findProfileNamesByUserId(user.getId());
-            if (profileNames != null && !profileNames.isEmpty()) {
-                for (String profileName : profileNames) {
-                    authorities.add(new SimpleGrantedAuthority("ROLE_" + profileName));
-                    logger.debug("Added role from direct query: ROLE_{}", profileName);
-                }
-            } else {
-                // Only fall back to default role if truly no profiles
-                authorities.add(new SimpleGrantedAuthority("ROLE_USER"));
-                logger.debug("No roles found, added default ROLE_USER");
+        for (AuthUserView row : rows) {
+            if (row.getProfilNom() != null) {
+                authorities.add(new SimpleGrantedAuthority("ROLE_" + row.getProfilNom()));
+                logger.debug("Added role: ROLE_{}", row.getProfilNom());
             }
         }
+        if (authorities.isEmpty()) {
+            // Only fall back to default role if truly no profiles
+            authorities.add(new SimpleGrantedAuthority("ROLE_USER"));
+            logger.debug("No roles found, added default ROLE_USER");
+        }
+
+        return new UserPrincipal(
+                user.getId(),
+                user.getNom(),
+                user.getPrenom(),
+                user.getUsername(),
+                user.getEmail(),
+                user.getMotDePasse(),
+                user.getActif(),
+                user.getServiceLineNom(),
+                authorities);
+    }
 
-        UserDetails userDetails = UserPrincipal.create(user, authorities);
-        logger.debug("UserDetails created with {} authorities", 
-            userDetails.getAuthorities() != null ? userDetails.getAuthorities().size() : 0);
-            
-        return userDetails;
+    // Called after a successful login when the stored hash uses an outdated encoding or cost
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        UserPrincipal principal = (UserPrincipal) user;
+        userRepository.updatePassword(principal.getId(), newPassword);
+        logger.debug("Password hash upgraded for user {}", principal.getUsername());
+        principal.setPassword(newPassword);
+        return principal;
     }
 
     // This method is used by JWTAuthenticationFilter
@@ -0,0 +1,53 @@
+package com.example.GestionPlanAction.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.GestionPlanAction.service.BoundedMaps;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded cache of recently verified tokens so that repeated requests from the
+ * same client skip signature verification. Entries are dropped once the token
+ * expires; when the cache is full, expired entries are purged first and then
+ * arbitrary entries are evicted.
+ */
+@Component
+public class JwtTokenCache {
+
+    private final Map<String, VerifiedJwt> entries = new ConcurrentHashMap<>();
+
+    @Value("${app.jwtCacheSize:10000}")
+    private int maxSize;
+
+    public VerifiedJwt get(String token) {
+        VerifiedJwt verified = entries.get(token);
+        if (verified == null) {
+            return null;
+        }
+        if (verified.isExpired(System.currentTimeMillis())) {
+            entries.remove(token, verified);
+            return null;
+        }
+        return verified;
+    }
+
+    public void put(String token, VerifiedJwt verified) {
+        if (maxSize <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        BoundedMaps.makeRoom(entries, maxSize, jwt -> jwt.isExpired(now));
+        entries.put(token, verified);
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+}
@@ -3,8 +3,11 @@ package com.example.GestionPlanAction.security;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
@@ -29,6 +32,28 @@ public class JwtUtils {
     @Value("${app.jwtExpirationMs:86400000}") // 24 hours
     private int jwtExpirationMs;
 
+    // Claim names for the self-contained principal
+    static final String CLAIM_USER_ID = "uid";
+    static final String CLAIM_SERVICE_LINE = "sl";
+    static final String CLAIM_ACTIF = "actif";
+    static final String CLAIM_EPOCH = "ep";
+
+    @Autowired
+    private JwtTokenCache tokenCache;
+
+    @Autowired
+    private TokenEpochRegistry tokenEpochs;
+
+    // Built once at startup: decoding the secret and building a parser per call is wasted work
+    private Key signingKey;
+    private JwtParser parser;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+    }
+
     public String generateJwtToken(Authentication authentication) {
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
 
@@ -39,6 +64,12 @@ public class JwtUtils {
         claims.put("roles", userPrincipal.getAuthorities().stream()
                 .map(authority -> authority.getAuthority())
                 .toList());
+
+        // Everything the filter needs to rebuild the principal without a database lookup
+        claims.put(CLAIM_USER_ID, userPrincipal.getId());
+        claims.put(CLAIM_SERVICE_LINE, userPrincipal.getServiceLine());
+        claims.put(CLAIM_ACTIF, userPrincipal.getActif());
+        claims.put(CLAIM_EPOCH, tokenEpochs.load(userPrincipal.getId()));
         
         // Log for debugging
         logger.debug("Generating token for user {} with roles: {}", 
@@ -54,22 +85,49 @@ public class JwtUtils {
     }
 
     private Key key() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        return signingKey;
+    }
+
+    /**
+     * Verifies the token once and returns its claims, or null if the token is invalid.
+     * Tokens verified recently are served from the cache without any crypto.
+     */
+    public VerifiedJwt verifyJwtToken(String authToken) {
+        VerifiedJwt cached = tokenCache.get(authToken);
+        if (cached != null) {
+            return cached;
+        }
+
+        Claims claims = parseClaims(authToken);
+        if (claims == null) {
+            return null;
+        }
+
+        Number userId = claims.get(CLAIM_USER_ID, Number.class);
+        Number epoch = claims.get(CLAIM_EPOCH, Number.class);
+        VerifiedJwt verified = new VerifiedJwt(
+                claims.getSubject(),
+                List.copyOf(extractRoles(claims)),
+                claims.getExpiration() != null ? claims.getExpiration().getTime() : Long.MAX_VALUE,
+                claims.getIssuedAt() != null ? claims.getIssuedAt().getTime() : 0L,
+                userId != null ? userId.longValue() : null,
+                claims.get(CLAIM_SERVICE_LINE, String.class),
+                claims.get(CLAIM_ACTIF, Boolean.class),
+                epoch != null ? epoch.longValue() : 0L);
+        tokenCache.put(authToken, verified);
+        return verified;
     }
 
     public String getUserNameFromJwtToken(String token) {
-        return Jwts.parserBuilder().setSigningKey(key()).build()
-                .parseClaimsJws(token).getBody().getSubject();
+        return parser.parseClaimsJws(token).getBody().getSubject();
     }
     
     // Add method to extract roles from JWT token
     public List<SimpleGrantedAuthority> getRolesFromJwtToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(key())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-                
+        return extractRoles(parser.parseClaimsJws(token).getBody());
+    }
+
+    private List<SimpleGrantedAuthority> extractRoles(Claims claims) {
         List<SimpleGrantedAuthority> authorities = new ArrayList<>();
         
         try {
@@ -131,9 +189,14 @@ public class JwtUtils {
     }
 
     public boolean validateJwtToken(String authToken) {
+        return verifyJwtToken(authToken) != null;
+    }
+
+    private Claims parseClaims(String authToken) {
         try {
-            Jwts.parserBuilder().setSigningKey(key()).build().parseClaimsJws(authToken);
-            return true;
+            return parser.parseClaimsJws(authToken).getBody();
+        } catch (SignatureException e) {
+            logger.error("Invalid JWT signature: {}", e.getMessage());
         } catch (MalformedJwtException e) {
             logger.error("Invalid JWT token: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
@@ -144,7 +207,7 @@ public class JwtUtils {
             logger.error("JWT claims string is empty: {}", e.getMessage());
         }
 
-        return false;
+        return null;
     }
     
     public String generateTokenFromUsername(String username) {
@@ -0,0 +1,103 @@
+package com.example.GestionPlanAction.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.GestionPlanAction.repository.UserRepository;
+import com.example.GestionPlanAction.service.BoundedMaps;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-user token epochs used to revoke self-contained JWTs without loading the user.
+ * Every token carries the epoch of its user at issue time; bumping the epoch (status
+ * change, profile change, deletion) invalidates all tokens issued before.
+ *
+ * Epochs are stored on the user row, so every instance sees a bump, and restarts keep them.
+ * A bump is written in the caller's transaction and commits with the change it revokes
+ * tokens for: a login before the commit still reads the old epoch with the old roles.
+ * Checks read epochs from a cache of app.tokenEpochCacheMs, so a bump made elsewhere takes
+ * effect within that delay; the local entry is dropped once the bump commits. Tokens are
+ * issued with the epoch read from the database. A deleted user has no epoch and matches
+ * no token.
+ */
+@Component
+public class TokenEpochRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenEpochRegistry.class);
+
+    // Epoch of a user that does not exist, never carried by a token
+    private static final long NO_USER = -1;
+
+    private record Cached(long epoch, long loadedAtMillis) {
+    }
+
+    private final Map<Long, Cached> epochs = new ConcurrentHashMap<>();
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${app.tokenEpochCacheMs:5000}")
+    private long cacheMs;
+
+    @Value("${app.tokenEpochCacheSize:10000}")
+    private int maxSize;
+
+    /** The user's epoch, as of at most app.tokenEpochCacheMs ago. */
+    public long current(Long userId) {
+        if (userId == null) {
+            return NO_USER;
+        }
+        Cached cached = epochs.get(userId);
+        if (cached == null || System.currentTimeMillis() - cached.loadedAtMillis() >= cacheMs) {
+            return load(userId);
+        }
+        return cached.epoch();
+    }
+
+    /** The user's epoch read from the database, for the tokens being issued. */
+    public long load(Long userId) {
+        if (userId == null) {
+            return NO_USER;
+        }
+        long now = System.currentTimeMillis();
+        long epoch = userRepository.findTokenEpochById(userId).orElse(NO_USER);
+        BoundedMaps.makeRoom(epochs, maxSize, cached -> now - cached.loadedAtMillis() >= cacheMs);
+        epochs.put(userId, new Cached(epoch, now));
+        return epoch;
+    }
+
+    public void bump(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        // Joins the caller's transaction when there is one
+        transactionTemplate.executeWithoutResult(status -> {
+            userRepository.incrementTokenEpoch(userId);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    epochs.remove(userId);
+                    logger.debug("Token epoch for user {} bumped", userId);
+                }
+            });
+        });
+    }
+
+    /**
+     * True when no revocation happened for the token's user since it was issued.
+     */
+    public boolean isCurrent(VerifiedJwt token) {
+        return token.getEpoch() == current(token.getUserId());
+    }
+}
@@ -112,6 +112,26 @@ public class UserPrincipal implements UserDetails {
         );
     }
 
+    /**
+     * Creates a UserPrincipal from the claims of a verified token, without touching the database.
+     * Only the fields carried by the token are set.
+     * @param token The verified token
+     * @return A new UserPrincipal instance
+     */
+    public static UserPrincipal create(VerifiedJwt token) {
+        return new UserPrincipal(
+            token.getUserId(),
+            null,
+            null,
+            token.getUsername(),
+            null,
+            null,
+            token.getActif(),
+            token.getServiceLine(),
+            token.getAuthorities()
+        );
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return authorities;
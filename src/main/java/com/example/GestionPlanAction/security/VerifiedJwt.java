@@ -0,0 +1,38 @@
+package com.example.GestionPlanAction.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+
+/**
+ * Result of a successful JWT verification: the claims the filter needs,
+ * extracted once from a token whose signature and expiry have been checked.
+ */
+@Getter
+@AllArgsConstructor
+public class VerifiedJwt {
+
+    private final String username;
+    private final List<SimpleGrantedAuthority> authorities;
+    private final long expiresAtMillis;
+    private final long issuedAtMillis;
+
+    // Self-contained claims, null for tokens issued by older versions
+    private final Long userId;
+    private final String serviceLine;
+    private final Boolean actif;
+    private final long epoch;
+
+    public boolean isExpired(long nowMillis) {
+        return nowMillis >= expiresAtMillis;
+    }
+
+    /**
+     * True when the token carries everything needed to build a UserPrincipal.
+     */
+    public boolean isSelfContained() {
+        return userId != null && actif != null;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.GestionPlanAction.service;
+
+import com.example.GestionPlanAction.dto.NotificationDTO;
+
+/**
+ * An announcement was created. Listeners run once it has committed.
+ */
+public class AnnouncementEvent {
+
+    private final NotificationDTO announcement;
+
+    public AnnouncementEvent(NotificationDTO announcement) {
+        this.announcement = announcement;
+    }
+
+    public NotificationDTO getAnnouncement() {
+        return announcement;
+    }
+}
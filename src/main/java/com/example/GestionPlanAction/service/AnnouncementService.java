@@ -0,0 +1,199 @@
+package com.example.GestionPlanAction.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.GestionPlanAction.dto.NotificationDTO;
+import com.example.GestionPlanAction.exception.ResourceNotFoundException;
+import com.example.GestionPlanAction.model.Announcement;
+import com.example.GestionPlanAction.repository.AnnouncementRepository;
+
+/**
+ * Announcements: notifications sent to every user and stored once, whatever the number of users.
+ *
+ * Who read an announcement is a {@link UserIdBitmap} saved with it. The announcements of the last
+ * app.announcementMaxAgeDays days are kept in memory with their bitmaps, so unread lists and counts
+ * never query. A read rewrites the bitmap under the row's lock in its own transaction, then the
+ * committed bitmap is merged into memory; merging keeps concurrent reads whatever order they
+ * commit in. Memory is reloaded from the database every app.announcementRefreshMs, which picks up
+ * what other instances wrote.
+ *
+ * Every change moves a version shared by all users, which unread-count ETags include.
+ */
+@Service
+public class AnnouncementService {
+
+	private record Item(NotificationDTO announcement, UserIdBitmap readers) {
+	}
+
+	private final Map<Long, Item> items = new ConcurrentHashMap<>();
+
+	private final AtomicLong version = new AtomicLong(System.currentTimeMillis() * 1000);
+
+	private final TransactionTemplate requiresNew;
+
+	private volatile boolean loaded;
+
+	@Autowired
+	private AnnouncementRepository announcementRepository;
+
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	@Value("${app.announcementMaxAgeDays:90}")
+	private int maxAgeDays;
+
+	public AnnouncementService(PlatformTransactionManager transactionManager) {
+		this.requiresNew = new TransactionTemplate(transactionManager);
+		this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+	}
+
+	/** Saved in the current transaction, visible to users once it commits. */
+	public NotificationDTO create(String titre, String contenu, String type) {
+		Announcement announcement = announcementRepository.save(Announcement.builder()
+				.titre(titre)
+				.contenu(contenu)
+				.type(type)
+				.date(LocalDateTime.now())
+				.readers(UserIdBitmap.EMPTY.encode())
+				.readerCount(0)
+				.build());
+		NotificationDTO dto = NotificationDTO.from(announcement, false);
+		eventPublisher.publishEvent(new AnnouncementEvent(dto));
+		return dto;
+	}
+
+	// Before the notification streams read the new counts
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onAnnouncement(AnnouncementEvent event) {
+		items.putIfAbsent(event.getAnnouncement().getId(), new Item(event.getAnnouncement(), UserIdBitmap.EMPTY));
+		version.incrementAndGet();
+	}
+
+	/** Records that a user read an announcement, false when already read. */
+	public boolean markRead(Long announcementId, Long userId) {
+		Item item = items().get(announcementId);
+		if (item == null) {
+			throw new ResourceNotFoundException("Annonce", "id", announcementId);
+		}
+		if (item.readers().contains(userId)) {
+			return false;
+		}
+		UserIdBitmap committed = requiresNew.execute(status -> {
+			Announcement announcement = announcementRepository.lockById(announcementId)
+					.orElseThrow(() -> new ResourceNotFoundException("Annonce", "id", announcementId));
+			UserIdBitmap readers = UserIdBitmap.decode(announcement.getReaders()).with(userId);
+			announcement.setReaders(readers.encode());
+			announcement.setReaderCount(readers.cardinality());
+			return readers;
+		});
+		merge(announcementId, committed);
+		return true;
+	}
+
+	/** Marks every announcement the user has not read yet, returns how many. */
+	public int markAllRead(Long userId) {
+		int marked = 0;
+		for (Item item : unreadItems(userId)) {
+			if (markRead(item.announcement().getId(), userId)) {
+				marked++;
+			}
+		}
+		return marked;
+	}
+
+	// Newest first
+	public List<NotificationDTO> getUnread(Long userId) {
+		return unreadItems(userId).stream()
+				.map(Item::announcement)
+				.sorted(Comparator.comparing(NotificationDTO::getDate).reversed())
+				.toList();
+	}
+
+	public int countUnread(Long userId) {
+		return unreadItems(userId).size();
+	}
+
+	public long getVersion() {
+		return version.get();
+	}
+
+	@Scheduled(fixedDelayString = "${app.announcementRefreshMs:60000}",
+			initialDelayString = "${app.announcementRefreshMs:60000}")
+	public void refresh() {
+		LocalDateTime cutoff = cutoff();
+		for (Announcement announcement : announcementRepository.findByDateAfter(cutoff)) {
+			merge(announcement.getId(), new Item(NotificationDTO.from(announcement, false),
+					UserIdBitmap.decode(announcement.getReaders())));
+		}
+		if (items.values().removeIf(item -> item.announcement().getDate().isBefore(cutoff))) {
+			version.incrementAndGet();
+		}
+		loaded = true;
+	}
+
+	private Map<Long, Item> items() {
+		if (!loaded) {
+			synchronized (this) {
+				if (!loaded) {
+					refresh();
+				}
+			}
+		}
+		return items;
+	}
+
+	private List<Item> unreadItems(Long userId) {
+		LocalDateTime cutoff = cutoff();
+		List<Item> unread = new ArrayList<>();
+		for (Item item : items().values()) {
+			if (!item.readers().contains(userId) && item.announcement().getDate().isAfter(cutoff)) {
+				unread.add(item);
+			}
+		}
+		return unread;
+	}
+
+	// Adds committed readers to memory, the version moves when some were new
+	private void merge(Long announcementId, UserIdBitmap readers) {
+		boolean[] changed = { false };
+		items.computeIfPresent(announcementId, (id, item) -> {
+			UserIdBitmap merged = item.readers().or(readers);
+			changed[0] = merged.cardinality() != item.readers().cardinality();
+			return changed[0] ? new Item(item.announcement(), merged) : item;
+		});
+		if (changed[0]) {
+			version.incrementAndGet();
+		}
+	}
+
+	private void merge(Long announcementId, Item loadedItem) {
+		if (items.putIfAbsent(announcementId, loadedItem) == null) {
+			version.incrementAndGet();
+		} else {
+			merge(announcementId, loadedItem.readers());
+		}
+	}
+
+	private LocalDateTime cutoff() {
+		return LocalDateTime.now().minusDays(maxAgeDays);
+	}
+}
@@ -0,0 +1,433 @@
+package com.example.GestionPlanAction.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Cold storage for audit rows moved out of the audit table by {@link RetentionService}.
+ *
+ * Rows are kept in one segment per month of their date, under app.auditArchiveDir.
+ * audit-YYYY-MM.seg is only ever appended to, one deflate-compressed block of rows at a time, and
+ * audit-YYYY-MM.idx is its sparse index: one fixed-size entry per block with the block's date
+ * range, position and row count. A block is forced to disk before its index entry, and the entry
+ * before the rows leave the table; after a crash there are at worst unindexed bytes, or rows both
+ * archived and still in the table, which are archived again later. Searches drop duplicates by id.
+ *
+ * Indexes are held in memory, a few bytes per block; segments are read through memory mappings and
+ * only the blocks whose date range meets a search are inflated, newest first, until no block left
+ * can make the page. Instances sharing the directory see each other's appends and deletions;
+ * appends take a file lock so that one instance archives at a time. Archived rows keep the id of
+ * users deleted since.
+ */
+@Service
+public class AuditArchive {
+
+	private static final Logger logger = LoggerFactory.getLogger(AuditArchive.class);
+
+	// minDate and maxDate in epoch microseconds, offset, length, inflated length, rows
+	private static final int INDEX_ENTRY_SIZE = 8 + 8 + 8 + 4 + 4 + 4;
+
+	private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyy-MM");
+
+	private static final int HAS_ACTION = 1;
+
+	private static final int HAS_ENTITY_TYPE = 2;
+
+	private static final int HAS_ENTITY_ID = 4;
+
+	private static final int HAS_DETAILS = 8;
+
+	private static final int HAS_USER = 16;
+
+	private record Block(long minDate, long maxDate, long offset, int length, int rawLength, int rows) {
+	}
+
+	private record Candidate(Segment segment, Block block) {
+	}
+
+	private static final class Segment {
+
+		private final YearMonth month;
+
+		private final Path data;
+
+		private final Path index;
+
+		private final List<Block> blocks = new CopyOnWriteArrayList<>();
+
+		private MappedByteBuffer mapped;
+
+		private Segment(Path directory, YearMonth month) {
+			this.month = month;
+			this.data = directory.resolve("audit-" + month.format(MONTH) + ".seg");
+			this.index = directory.resolve("audit-" + month.format(MONTH) + ".idx");
+		}
+
+		// Mapped again once blocks were appended past the current mapping
+		private synchronized ByteBuffer map(Block block) throws IOException {
+			if (mapped == null || mapped.capacity() < block.offset() + block.length()) {
+				try (FileChannel channel = FileChannel.open(data, StandardOpenOption.READ)) {
+					mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+				}
+			}
+			return mapped.slice((int) block.offset(), block.length());
+		}
+
+		private long start() {
+			return micros(month.atDay(1).atStartOfDay());
+		}
+
+		private long end() {
+			return micros(month.plusMonths(1).atDay(1).atStartOfDay());
+		}
+	}
+
+	private final ConcurrentSkipListMap<YearMonth, Segment> segments = new ConcurrentSkipListMap<>();
+
+	private volatile FileTime scanned;
+
+	@Value("${app.auditArchiveDir:audit-archive}")
+	private Path directory;
+
+	@PostConstruct
+	void load() {
+		segments();
+		long rows = segments.values().stream().flatMap(segment -> segment.blocks.stream()).mapToLong(Block::rows).sum();
+		logger.info("Audit archive: {} segments, {} rows", segments.size(), rows);
+	}
+
+	/** Held while appending, null when another instance holds it. */
+	public Closeable lockForWriting() throws IOException {
+		Files.createDirectories(directory);
+		FileChannel channel = FileChannel.open(directory.resolve(".lock"), StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE);
+		FileLock lock = channel.tryLock();
+		if (lock == null) {
+			channel.close();
+			return null;
+		}
+		return channel;
+	}
+
+	/** Appends rows, in any order, and forces them to disk: one block per month. */
+	public synchronized void append(List<AuditRow> rows) throws IOException {
+		Files.createDirectories(directory);
+		Map<YearMonth, List<AuditRow>> byMonth = new TreeMap<>();
+		for (AuditRow row : rows) {
+			byMonth.computeIfAbsent(YearMonth.from(row.date()), month -> new ArrayList<>()).add(row);
+		}
+		for (Map.Entry<YearMonth, List<AuditRow>> month : byMonth.entrySet()) {
+			List<AuditRow> blockRows = month.getValue();
+			blockRows.sort(AuditRow.NEWEST_FIRST.reversed());
+			Segment segment = segments.computeIfAbsent(month.getKey(), key -> new Segment(directory, key));
+			blocks(segment);
+
+			byte[] raw = encode(blockRows);
+			byte[] compressed = deflate(raw);
+			long offset;
+			try (FileChannel data = FileChannel.open(segment.data, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+				// Past the bytes of an interrupted append, if any
+				offset = data.size();
+				ByteBuffer buffer = ByteBuffer.wrap(compressed);
+				while (buffer.hasRemaining()) {
+					data.write(buffer, offset + buffer.position());
+				}
+				data.force(false);
+			}
+			Block block = new Block(micros(blockRows.get(0).date()), micros(blockRows.get(blockRows.size() - 1).date()),
+					offset, compressed.length, raw.length, blockRows.size());
+			ByteBuffer entry = ByteBuffer.allocate(INDEX_ENTRY_SIZE)
+					.putLong(block.minDate())
+					.putLong(block.maxDate())
+					.putLong(block.offset())
+					.putInt(block.length())
+					.putInt(block.rawLength())
+					.putInt(block.rows())
+					.flip();
+			try (FileChannel index = FileChannel.open(segment.index, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+				long position = (long) segment.blocks.size() * INDEX_ENTRY_SIZE;
+				while (entry.hasRemaining()) {
+					index.write(entry, position + entry.position());
+				}
+				// Drops a partial entry left by an interrupted append
+				index.truncate(position + INDEX_ENTRY_SIZE);
+				index.force(false);
+			}
+			// Loaded like another instance's entry, a search may have loaded it already
+			blocks(segment);
+		}
+	}
+
+	/** Up to limit rows matching the filter, newest first. */
+	public List<AuditRow> search(AuditFilter filter, int limit) {
+		PriorityQueue<AuditRow> best = new PriorityQueue<>(limit + 1, AuditRow.NEWEST_FIRST.reversed());
+		Set<Long> ids = new HashSet<>();
+		List<Candidate> candidates = candidates(filter);
+		candidates.sort(Comparator.comparingLong((Candidate candidate) -> candidate.block().maxDate()).reversed());
+		for (Candidate candidate : candidates) {
+			// Blocks left are all older than the oldest row kept
+			if (best.size() >= limit && micros(best.peek().date()) > candidate.block().maxDate()) {
+				break;
+			}
+			for (AuditRow row : read(candidate)) {
+				if (filter.matches(row) && ids.add(row.id())) {
+					best.add(row);
+					if (best.size() > limit) {
+						best.poll();
+					}
+				}
+			}
+		}
+		List<AuditRow> rows = new ArrayList<>(best);
+		rows.sort(AuditRow.NEWEST_FIRST);
+		return rows;
+	}
+
+	/** Rows matching the filter; a row archived twice by an interrupted run counts twice. */
+	public long count(AuditFilter filter) {
+		long count = 0;
+		for (Candidate candidate : candidates(filter)) {
+			for (AuditRow row : read(candidate)) {
+				if (filter.matches(row)) {
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+
+	/** Date of the newest archived row, null when the archive is empty. */
+	public LocalDateTime newestDate() {
+		NavigableMap<YearMonth, Segment> all = segments();
+		for (Segment segment : all.descendingMap().values()) {
+			long newest = blocks(segment).stream().mapToLong(Block::maxDate).max().orElse(Long.MIN_VALUE);
+			if (newest != Long.MIN_VALUE) {
+				return date(newest);
+			}
+		}
+		return null;
+	}
+
+	/** Deletes the segments of the months ended before the cutoff, returns their row count. */
+	public synchronized long deleteBefore(LocalDateTime cutoff) throws IOException {
+		long rows = 0;
+		for (Segment segment : segments().headMap(YearMonth.from(cutoff)).values()) {
+			rows += blocks(segment).stream().mapToLong(Block::rows).sum();
+			Files.deleteIfExists(segment.index);
+			Files.deleteIfExists(segment.data);
+			segments.remove(segment.month);
+		}
+		return rows;
+	}
+
+	private List<Candidate> candidates(AuditFilter filter) {
+		long low = filter.from() != null ? micros(filter.from()) : Long.MIN_VALUE;
+		LocalDateTime upper = filter.upperDate();
+		long high = upper != null ? micros(upper) : Long.MAX_VALUE;
+		List<Candidate> candidates = new ArrayList<>();
+		for (Segment segment : segments().values()) {
+			if (segment.end() <= low || segment.start() >= high) {
+				continue;
+			}
+			for (Block block : blocks(segment)) {
+				if (block.maxDate() >= low && block.minDate() < high) {
+					candidates.add(new Candidate(segment, block));
+				}
+			}
+		}
+		return candidates;
+	}
+
+	// Picks up segments created or deleted by another instance when the directory changed
+	private NavigableMap<YearMonth, Segment> segments() {
+		try {
+			if (!Files.isDirectory(directory)) {
+				segments.clear();
+				return segments;
+			}
+			FileTime modified = Files.getLastModifiedTime(directory);
+			if (!modified.equals(scanned)) {
+				Set<YearMonth> found = new HashSet<>();
+				try (DirectoryStream<Path> indexes = Files.newDirectoryStream(directory, "audit-*.idx")) {
+					for (Path index : indexes) {
+						String name = index.getFileName().toString();
+						YearMonth month = YearMonth.parse(name.substring("audit-".length(), name.length() - ".idx".length()),
+								MONTH);
+						found.add(month);
+						segments.computeIfAbsent(month, key -> new Segment(directory, key));
+					}
+				}
+				segments.keySet().retainAll(found);
+				scanned = modified;
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return segments;
+	}
+
+	// Reads the index entries appended by another instance; a partial last entry is ignored
+	private List<Block> blocks(Segment segment) {
+		try (FileChannel channel = FileChannel.open(segment.index, StandardOpenOption.READ)) {
+			int entries = (int) (channel.size() / INDEX_ENTRY_SIZE);
+			if (entries > segment.blocks.size()) {
+				synchronized (segment) {
+					int known = segment.blocks.size();
+					if (entries > known) {
+						MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY,
+								(long) known * INDEX_ENTRY_SIZE, (long) (entries - known) * INDEX_ENTRY_SIZE);
+						for (int i = known; i < entries; i++) {
+							segment.blocks.add(new Block(buffer.getLong(), buffer.getLong(), buffer.getLong(),
+									buffer.getInt(), buffer.getInt(), buffer.getInt()));
+						}
+					}
+				}
+			}
+		} catch (NoSuchFileException e) {
+			// New segment not written yet, or deleted meanwhile
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return segment.blocks;
+	}
+
+	private static List<AuditRow> read(Candidate candidate) {
+		byte[] raw = new byte[candidate.block().rawLength()];
+		Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(candidate.segment().map(candidate.block()));
+			int inflated = 0;
+			while (inflated < raw.length && !inflater.finished()) {
+				int read = inflater.inflate(raw, inflated, raw.length - inflated);
+				if (read == 0 && inflater.needsInput()) {
+					throw new DataFormatException("truncated block");
+				}
+				inflated += read;
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} catch (DataFormatException e) {
+			throw new IllegalStateException("Bloc d'archive d'audit illisible dans " + candidate.segment().data, e);
+		} finally {
+			inflater.end();
+		}
+		return decode(raw, candidate.block().rows());
+	}
+
+	private static byte[] encode(List<AuditRow> rows) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(rows.size() * 64);
+		DataOutputStream out = new DataOutputStream(bytes);
+		for (AuditRow row : rows) {
+			int flags = (row.actionCode() != null ? HAS_ACTION : 0)
+					| (row.entityTypeCode() != null ? HAS_ENTITY_TYPE : 0)
+					| (row.entityId() != null ? HAS_ENTITY_ID : 0)
+					| (row.details() != null ? HAS_DETAILS : 0)
+					| (row.userId() != null ? HAS_USER : 0);
+			out.writeByte(flags);
+			out.writeLong(row.id());
+			out.writeLong(micros(row.date()));
+			if (row.actionCode() != null) {
+				out.writeInt(row.actionCode());
+			}
+			if (row.entityTypeCode() != null) {
+				out.writeInt(row.entityTypeCode());
+			}
+			if (row.entityId() != null) {
+				out.writeLong(row.entityId());
+			}
+			if (row.details() != null) {
+				out.writeUTF(row.details());
+			}
+			if (row.userId() != null) {
+				out.writeLong(row.userId());
+			}
+		}
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	private static List<AuditRow> decode(byte[] raw, int count) {
+		List<AuditRow> rows = new ArrayList<>(count);
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(raw))) {
+			for (int i = 0; i < count; i++) {
+				int flags = in.readByte();
+				Long id = in.readLong();
+				LocalDateTime date = date(in.readLong());
+				Integer actionCode = (flags & HAS_ACTION) != 0 ? in.readInt() : null;
+				Integer entityTypeCode = (flags & HAS_ENTITY_TYPE) != 0 ? in.readInt() : null;
+				Long entityId = (flags & HAS_ENTITY_ID) != 0 ? in.readLong() : null;
+				String details = (flags & HAS_DETAILS) != 0 ? in.readUTF() : null;
+				Long userId = (flags & HAS_USER) != 0 ? in.readLong() : null;
+				rows.add(new AuditRow(id, date, actionCode, entityTypeCode, entityId, details, userId));
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return rows;
+	}
+
+	private static byte[] deflate(byte[] raw) {
+		Deflater deflater = new Deflater();
+		try {
+			deflater.setInput(raw);
+			deflater.finish();
+			ByteArrayOutputStream compressed = new ByteArrayOutputStream(raw.length / 4 + 64);
+			byte[] buffer = new byte[8192];
+			while (!deflater.finished()) {
+				compressed.write(buffer, 0, deflater.deflate(buffer));
+			}
+			return compressed.toByteArray();
+		} finally {
+			deflater.end();
+		}
+	}
+
+	private static long micros(LocalDateTime date) {
+		return date.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + date.getNano() / 1_000;
+	}
+
+	private static LocalDateTime date(long micros) {
+		return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000), (int) Math.floorMod(micros, 1_000_000) * 1_000,
+				ZoneOffset.UTC);
+	}
+}
@@ -0,0 +1,351 @@
+package com.example.GestionPlanAction.service;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.type.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import com.example.GestionPlanAction.enums.AuditCodeKind;
+import com.example.GestionPlanAction.enums.AuditOperation;
+import com.example.GestionPlanAction.security.UserPrincipal;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Audit entries for {@link Audited} service methods: the caller from the security context, the
+ * entity type and id, and a compact diff of what the call changed.
+ *
+ * The aspect wraps the transaction, so the call's changes are flushed, at commit included, while
+ * its scope is open. The diff comes from Hibernate's post insert, update and delete events, which
+ * already hold the loaded and flushed states: nothing is loaded for the audit. Only instances of
+ * the annotated entity count, restricted to the id argument when there is one. Each entity changed
+ * gets an entry; a call that changed none through Hibernate, bulk statements or nothing dirty,
+ * gets one for its id argument. Collections and secrets are left out.
+ *
+ * Entries are written once the call has returned normally. With app.auditDurable, the entries of
+ * the changes a transaction made are written by that transaction just before it commits, so they
+ * commit or roll back with the changes; only the entry of a call that changed nothing through
+ * Hibernate is still written after the call, in a transaction of its own. Audited calls made within
+ * another are covered by the outer one. READ calls are sampled at app.auditReadSampleRate.
+ */
+@Aspect
+@Component
+// Just outside the transaction advice, which has the lowest precedence
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class AuditAspect implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener,
+		SmartInitializingSingleton {
+
+	private static final Logger logger = LoggerFactory.getLogger(AuditAspect.class);
+
+	// Length of the audit details column
+	private static final int MAX_DETAILS = 500;
+
+	private static final int MAX_VALUE = 60;
+
+	// Never copied into the audit trail
+	private static final Set<String> SECRETS = Set.of("motDePasse");
+
+	private static final class Scope {
+
+		private final Audited audited;
+
+		private final Class<?> entity;
+
+		private final Long targetId;
+
+		// By entity id, in the order of the first change
+		private final Map<Object, StringBuilder> changes = new LinkedHashMap<>();
+
+		// Durable mode: a transaction of the call will write its changes before committing
+		private boolean synchronizing;
+
+		// Durable mode: changes were written within their transaction
+		private boolean written;
+
+		private Scope(Audited audited, Long targetId) {
+			this.audited = audited;
+			this.entity = audited.entity();
+			this.targetId = targetId;
+		}
+
+		private boolean matches(Object instance, Object id) {
+			return entity.isInstance(instance) && (targetId == null || targetId.equals(id));
+		}
+
+		private void add(Object id, String diff) {
+			StringBuilder details = changes.computeIfAbsent(id, key -> new StringBuilder());
+			if (!diff.isEmpty()) {
+				details.append(details.isEmpty() ? "" : "; ").append(diff);
+			}
+		}
+	}
+
+	private final ThreadLocal<Scope> scope = new ThreadLocal<>();
+
+	@Autowired
+	private AuditService auditService;
+
+	@Autowired
+	private AuditCodes auditCodes;
+
+	@Autowired
+	private ApplicationContext applicationContext;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Value("${app.auditReadSampleRate:0.01}")
+	private double readSampleRate;
+
+	@PostConstruct
+	void registerListeners() {
+		EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+				.getServiceRegistry().getService(EventListenerRegistry.class);
+		registry.appendListeners(EventType.POST_INSERT, this);
+		registry.appendListeners(EventType.POST_UPDATE, this);
+		registry.appendListeners(EventType.POST_DELETE, this);
+	}
+
+	// Every label the aspect writes gets its code before requests come in: created during an audited
+	// call, a code would take connections of its own while the call's transaction holds one
+	@Override
+	public void afterSingletonsInstantiated() {
+		for (AuditOperation operation : AuditOperation.values()) {
+			auditCodes.code(AuditCodeKind.ACTION, operation.name());
+		}
+		Set<Class<?>> entities = new HashSet<>();
+		for (String name : applicationContext.getBeanDefinitionNames()) {
+			Class<?> type = applicationContext.getType(name, false);
+			// @Audited goes on the services of this package
+			if (type != null && type.getPackageName().equals(AuditAspect.class.getPackageName())) {
+				ReflectionUtils.doWithMethods(ClassUtils.getUserClass(type), method -> {
+					Audited audited = AnnotationUtils.findAnnotation(method, Audited.class);
+					if (audited != null) {
+						entities.add(audited.entity());
+					}
+				});
+			}
+		}
+		entities.forEach(entity -> auditCodes.code(AuditCodeKind.ENTITY_TYPE, entity.getSimpleName()));
+	}
+
+	@Around("@annotation(audited)")
+	public Object audit(ProceedingJoinPoint call, Audited audited) throws Throwable {
+		Object[] args = call.getArgs();
+		Long targetId = args.length > 0 && args[0] instanceof Long id ? id : null;
+		if (scope.get() != null) {
+			return call.proceed();
+		}
+		if (audited.operation() == AuditOperation.READ) {
+			if (ThreadLocalRandom.current().nextDouble() >= readSampleRate) {
+				return call.proceed();
+			}
+			Object result = call.proceed();
+			write(audited, targetId, null);
+			return result;
+		}
+
+		Scope current = new Scope(audited, targetId);
+		scope.set(current);
+		Object result;
+		try {
+			result = call.proceed();
+		} finally {
+			scope.remove();
+		}
+		if (current.changes.isEmpty() && !current.written) {
+			write(audited, targetId, null);
+		}
+		current.changes.forEach((id, details) -> write(audited, id instanceof Long entityId ? entityId : targetId,
+				details.toString()));
+		return result;
+	}
+
+	// The call has succeeded, a failing audit write must not turn it into an error
+	private void write(Audited audited, Long entityId, String details) {
+		try {
+			log(audited, entityId, details);
+		} catch (RuntimeException e) {
+			logger.error("Audit entry {} {} {} not written", audited.operation(), audited.entity().getSimpleName(),
+					entityId, e);
+		}
+	}
+
+	private void log(Audited audited, Long entityId, String details) {
+		auditService.logAction(audited.operation().name(), currentUserId(),
+				details == null || details.isEmpty() ? null : truncate(details, MAX_DETAILS),
+				audited.entity().getSimpleName(), entityId);
+	}
+
+	// Durable mode: the changes seen so far in the current transaction, and those its last flush
+	// brings, are written in it; a failing write fails the commit
+	private void writeBeforeCommit(Scope current) {
+		if (!auditService.isDurable() || current.synchronizing
+				|| !TransactionSynchronizationManager.isSynchronizationActive()) {
+			return;
+		}
+		current.synchronizing = true;
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void beforeCommit(boolean readOnly) {
+				entityManager.flush();
+				Map<Object, StringBuilder> changes = new LinkedHashMap<>(current.changes);
+				current.changes.clear();
+				current.written = true;
+				changes.forEach((id, details) -> log(current.audited, id instanceof Long entityId ? entityId
+						: current.targetId, details.toString()));
+			}
+
+			@Override
+			public void afterCompletion(int status) {
+				current.synchronizing = false;
+			}
+		});
+	}
+
+	private static Long currentUserId() {
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		return authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal
+				? principal.getId()
+				: null;
+	}
+
+	@Override
+	public void onPostInsert(PostInsertEvent event) {
+		Scope current = scope.get();
+		if (current != null && current.matches(event.getEntity(), event.getId())) {
+			current.add(event.getId(), values(event.getPersister(), event.getState()));
+			writeBeforeCommit(current);
+		}
+	}
+
+	@Override
+	public void onPostUpdate(PostUpdateEvent event) {
+		Scope current = scope.get();
+		if (current != null && current.matches(event.getEntity(), event.getId())) {
+			current.add(event.getId(), changes(event.getPersister(), event.getOldState(), event.getState(),
+					event.getDirtyProperties()));
+			writeBeforeCommit(current);
+		}
+	}
+
+	@Override
+	public void onPostDelete(PostDeleteEvent event) {
+		Scope current = scope.get();
+		if (current != null && current.matches(event.getEntity(), event.getId())) {
+			current.add(event.getId(), values(event.getPersister(), event.getDeletedState()));
+			writeBeforeCommit(current);
+		}
+	}
+
+	@Override
+	public boolean requiresPostCommitHandling(EntityPersister persister) {
+		return false;
+	}
+
+	// name=value for what is set, on insert and delete
+	private String values(EntityPersister persister, Object[] state) {
+		if (state == null) {
+			return "";
+		}
+		String[] names = persister.getPropertyNames();
+		Type[] types = persister.getPropertyTypes();
+		StringJoiner values = new StringJoiner(", ");
+		for (int i = 0; i < names.length; i++) {
+			if (state[i] != null && isRecorded(names[i], types[i])) {
+				values.add(names[i] + "=" + format(state[i], types[i]));
+			}
+		}
+		return values.toString();
+	}
+
+	// name: old -> new for the dirty properties; without a loaded state, as for a merged instance,
+	// only the new values are known
+	private String changes(EntityPersister persister, Object[] oldState, Object[] state, int[] dirty) {
+		if (oldState == null) {
+			return values(persister, state);
+		}
+		String[] names = persister.getPropertyNames();
+		Type[] types = persister.getPropertyTypes();
+		StringJoiner changes = new StringJoiner(", ");
+		for (int i = 0; i < names.length; i++) {
+			if ((dirty != null ? contains(dirty, i) : !Objects.equals(oldState[i], state[i]))
+					&& isRecorded(names[i], types[i])) {
+				changes.add(names[i] + ": " + format(oldState[i], types[i]) + " -> " + format(state[i], types[i]));
+			}
+		}
+		return changes.toString();
+	}
+
+	private static boolean contains(int[] indexes, int index) {
+		for (int i : indexes) {
+			if (i == index) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean isRecorded(String name, Type type) {
+		return !type.isCollectionType() && !SECRETS.contains(name);
+	}
+
+	// Associations by id, read from the instance or its proxy without loading it
+	private String format(Object value, Type type) {
+		if (value == null) {
+			return "null";
+		}
+		if (type.isEntityType()) {
+			try {
+				return String.valueOf(entityManagerFactory.getPersistenceUnitUtil().getIdentifier(value));
+			} catch (RuntimeException e) {
+				return "?";
+			}
+		}
+		return truncate(String.valueOf(value), MAX_VALUE);
+	}
+
+	private static String truncate(String value, int max) {
+		return value.length() > max ? value.substring(0, max - 3) + "..." : value;
+	}
+}
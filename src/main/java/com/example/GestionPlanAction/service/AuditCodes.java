@@ -0,0 +1,125 @@
+package com.example.GestionPlanAction.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.GestionPlanAction.enums.AuditCodeKind;
+import com.example.GestionPlanAction.model.AuditCode;
+import com.example.GestionPlanAction.repository.AuditCodeRepository;
+
+/**
+ * The audit code dictionary, kept in memory: a few dozen labels at most.
+ *
+ * A label seen for the first time gets its code in a transaction of its own, committed before the
+ * audit rows using it. {@link AuditAspect} registers its labels at startup, so audited calls never
+ * create one while their transaction holds a connection. When two instances create the same label at once, the unique key lets one
+ * through and the other reads its code. Lookups of an unknown code reload the dictionary once, for
+ * codes created by another instance.
+ */
+@Service
+public class AuditCodes {
+
+	private record Key(AuditCodeKind kind, String label) {
+	}
+
+	private final Map<Key, Integer> codes = new ConcurrentHashMap<>();
+
+	private final Map<Integer, String> labels = new ConcurrentHashMap<>();
+
+	private final TransactionTemplate requiresNew;
+
+	private volatile boolean loaded;
+
+	@Autowired
+	private AuditCodeRepository auditCodeRepository;
+
+	public AuditCodes(PlatformTransactionManager transactionManager) {
+		this.requiresNew = new TransactionTemplate(transactionManager);
+		this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+	}
+
+	/** The label's code, created if needed; null for a null label. */
+	public Integer code(AuditCodeKind kind, String label) {
+		if (label == null) {
+			return null;
+		}
+		Integer code = find(kind, label);
+		return code != null ? code : create(kind, label);
+	}
+
+	/** The label's code, null when it has none: nothing was ever audited with it. */
+	public Integer find(AuditCodeKind kind, String label) {
+		if (label == null) {
+			return null;
+		}
+		Key key = new Key(kind, label);
+		Integer code = codes().get(key);
+		if (code == null) {
+			reload();
+			code = codes.get(key);
+		}
+		return code;
+	}
+
+	public String label(Integer code) {
+		if (code == null) {
+			return null;
+		}
+		String label = labels().get(code);
+		if (label == null) {
+			reload();
+			label = labels.get(code);
+		}
+		return label;
+	}
+
+	private synchronized Integer create(AuditCodeKind kind, String label) {
+		Integer code = codes.get(new Key(kind, label));
+		if (code != null) {
+			return code;
+		}
+		AuditCode created;
+		try {
+			created = requiresNew.execute(status -> auditCodeRepository.save(AuditCode.builder()
+					.kind(kind)
+					.label(label)
+					.build()));
+		} catch (DataIntegrityViolationException e) {
+			// Created meanwhile by another instance
+			created = auditCodeRepository.findByKindAndLabel(kind, label).orElseThrow(() -> e);
+		}
+		put(created);
+		return created.getId();
+	}
+
+	private Map<Key, Integer> codes() {
+		if (!loaded) {
+			reload();
+		}
+		return codes;
+	}
+
+	private Map<Integer, String> labels() {
+		if (!loaded) {
+			reload();
+		}
+		return labels;
+	}
+
+	private synchronized void reload() {
+		auditCodeRepository.findAll().forEach(this::put);
+		loaded = true;
+	}
+
+	private void put(AuditCode auditCode) {
+		codes.put(new Key(auditCode.getKind(), auditCode.getLabel()), auditCode.getId());
+		labels.put(auditCode.getId(), auditCode.getLabel());
+	}
+}
@@ -0,0 +1,32 @@
+package com.example.GestionPlanAction.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Audit search criteria, null ones match everything: dates in [from, to), rows strictly before the
+ * (beforeDate, beforeId) cursor in search order.
+ */
+public record AuditFilter(Long userId, Integer actionCode, Integer entityTypeCode, Long entityId,
+		LocalDateTime from, LocalDateTime to, LocalDateTime beforeDate, Long beforeId) {
+
+	/** Exclusive upper bound of the dates that can match, null when unbounded. */
+	LocalDateTime upperDate() {
+		// A row at beforeDate with a lower id still matches, hence the nanosecond
+		LocalDateTime cursor = beforeDate != null ? beforeDate.plusNanos(1) : null;
+		if (to == null || cursor == null) {
+			return to != null ? to : cursor;
+		}
+		return to.isBefore(cursor) ? to : cursor;
+	}
+
+	boolean matches(AuditRow row) {
+		return (userId == null || userId.equals(row.userId()))
+				&& (actionCode == null || actionCode.equals(row.actionCode()))
+				&& (entityTypeCode == null || entityTypeCode.equals(row.entityTypeCode()))
+				&& (entityId == null || entityId.equals(row.entityId()))
+				&& (from == null || !row.date().isBefore(from))
+				&& (to == null || row.date().isBefore(to))
+				&& (beforeDate == null || row.date().isBefore(beforeDate)
+						|| (row.date().isEqual(beforeDate) && row.id() < beforeId));
+	}
+}
@@ -0,0 +1,10 @@
+package com.example.GestionPlanAction.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * An audit entry waiting to be written, with the time of the action.
+ */
+public record AuditRecord(String action, Long userId, String details, String entityType, Long entityId,
+		LocalDateTime date) {
+}
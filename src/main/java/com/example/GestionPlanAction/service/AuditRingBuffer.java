@@ -0,0 +1,86 @@
+package com.example.GestionPlanAction.service;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer.
+ *
+ * Every slot carries a sequence number telling whose turn it is: a producer claims the next
+ * position with a CAS on the tail, fills the slot, then publishes it by moving the slot's
+ * sequence; the consumer takes slots in order and hands them back one lap ahead. A full buffer
+ * makes {@link #offer} return false at once, it never waits.
+ */
+public final class AuditRingBuffer<T> {
+
+	private final AtomicReferenceArray<T> slots;
+
+	private final AtomicLongArray sequences;
+
+	private final int mask;
+
+	private final AtomicLong tail = new AtomicLong();
+
+	// Written by the consumer only, volatile for size()
+	private volatile long head;
+
+	/** Capacity is rounded up to a power of two. */
+	public AuditRingBuffer(int capacity) {
+		int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+		this.slots = new AtomicReferenceArray<>(size);
+		this.sequences = new AtomicLongArray(size);
+		this.mask = size - 1;
+		for (int i = 0; i < size; i++) {
+			sequences.set(i, i);
+		}
+	}
+
+	public boolean offer(T element) {
+		long position = tail.get();
+		while (true) {
+			int index = (int) (position & mask);
+			long difference = sequences.get(index) - position;
+			if (difference == 0) {
+				if (tail.compareAndSet(position, position + 1)) {
+					slots.set(index, element);
+					sequences.set(index, position + 1);
+					return true;
+				}
+				position = tail.get();
+			} else if (difference < 0) {
+				// The consumer has not taken this slot's previous element yet
+				return false;
+			} else {
+				position = tail.get();
+			}
+		}
+	}
+
+	/** Moves up to max elements into target, in order, returns how many. Consumer only. */
+	public int drainTo(List<T> target, int max) {
+		int drained = 0;
+		while (drained < max) {
+			int index = (int) (head & mask);
+			if (sequences.get(index) != head + 1) {
+				break;
+			}
+			target.add(slots.get(index));
+			slots.set(index, null);
+			sequences.set(index, head + mask + 1);
+			head++;
+			drained++;
+		}
+		return drained;
+	}
+
+	/** Approximate, for gauges. */
+	public int size() {
+		return (int) Math.max(0, tail.get() - head);
+	}
+
+	public int capacity() {
+		return mask + 1;
+	}
+}
@@ -0,0 +1,20 @@
+package com.example.GestionPlanAction.service;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+
+/**
+ * An audit row as stored, codes not decoded, read from the table or from the archive.
+ */
+public record AuditRow(Long id, LocalDateTime date, Integer actionCode, Integer entityTypeCode, Long entityId,
+		String details, Long userId) {
+
+	// Search order
+	static final Comparator<AuditRow> NEWEST_FIRST = Comparator.comparing(AuditRow::date)
+			.thenComparing(AuditRow::id).reversed();
+
+	static AuditRow from(Object[] row) {
+		return new AuditRow((Long) row[0], (LocalDateTime) row[1], (Integer) row[2], (Integer) row[3], (Long) row[4],
+				(String) row[5], (Long) row[6]);
+	}
+}
@@ -1,32 +1,89 @@
 package com.example.GestionPlanAction.service;
 
+import com.example.GestionPlanAction.dto.AuditDTO;
+import com.example.GestionPlanAction.dto.AuditPageDTO;
+import com.example.GestionPlanAction.enums.AuditCodeKind;
+import com.example.GestionPlanAction.exception.BadRequestException;
 import com.example.GestionPlanAction.model.Audit;
 import com.example.GestionPlanAction.model.User;
 import com.example.GestionPlanAction.repository.AuditRepository;
+import com.example.GestionPlanAction.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
+/**
+ * Audit trail. Entries are queued to {@link AuditWriter} and written in batches shortly after,
+ * outside the caller's transaction; with app.auditDurable, or through logActionDurable, they are
+ * written in the caller's transaction instead and commit or roll back with it. {@link AuditAspect}
+ * says how that applies to {@link Audited} calls.
+ *
+ * Actions and entity types are stored as {@link AuditCodes}. Searches are keyset paginated on
+ * (date, id), newest first. Rows older than app.auditArchiveDays live in the {@link AuditArchive}:
+ * it is only read when the page reaches back past its newest date.
+ */
 @Service
 public class AuditService {
 
+    static final int MAX_PAGE_SIZE = 500;
+
     @Autowired
     private AuditRepository auditRepository;
 
+    @Autowired
+    private AuditWriter auditWriter;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AuditCodes auditCodes;
+
+    @Autowired
+    private AuditArchive auditArchive;
+
+    @Value("${app.auditDurable:false}")
+    private boolean durable;
+
+    public boolean isDurable() {
+        return durable;
+    }
+
     public void logAction(String action, User utilisateur, String details) {
         logAction(action, utilisateur, details, null, null);
     }
 
     public void logAction(String action, User utilisateur, String details, String entityType, Long entityId) {
+        logAction(action, utilisateur != null ? utilisateur.getId() : null, details, entityType, entityId);
+    }
+
+    // Queued entries only reference the user. Durable ones load it: a bare reference in the caller's
+    // persistence context would stand for that user in the entities the caller returns, uninitialized
+    public void logAction(String action, Long userId, String details, String entityType, Long entityId) {
+        if (durable) {
+            logActionDurable(action, userId != null ? userRepository.findById(userId).orElse(null) : null, details,
+                    entityType, entityId);
+            return;
+        }
+        auditWriter.submit(new AuditRecord(action, userId, details, entityType, entityId, LocalDateTime.now()));
+    }
+
+    public void logActionDurable(String action, User utilisateur, String details, String entityType, Long entityId) {
         Audit audit = Audit.builder()
-                .action(action)
+                .actionCode(auditCodes.code(AuditCodeKind.ACTION, action))
                 .utilisateur(utilisateur)
                 .details(details)
-                .entityType(entityType)
+                .entityTypeCode(auditCodes.code(AuditCodeKind.ENTITY_TYPE, entityType))
                 .entityId(entityId)
                 .date(LocalDateTime.now())
                 .build();
@@ -34,27 +91,67 @@ public class AuditService {
         auditRepository.save(audit);
     }
 
-    public List<Audit> getAllAudits() {
-        return auditRepository.findAll();
-    }
+    // Filters are optional; "before" is the nextCursor of the previous page
+    public AuditPageDTO search(Long userId, String action, String entityType, Long entityId, LocalDateTime from,
+            LocalDateTime to, String before, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Integer actionCode = auditCodes.find(AuditCodeKind.ACTION, action);
+        Integer entityTypeCode = auditCodes.find(AuditCodeKind.ENTITY_TYPE, entityType);
+        if ((action != null && actionCode == null) || (entityType != null && entityTypeCode == null)) {
+            // Never audited, no row can match
+            return new AuditPageDTO(new ArrayList<>(), null);
+        }
+        LocalDateTime beforeDate = null;
+        Long beforeId = null;
+        if (before != null) {
+            int separator = before.lastIndexOf('_');
+            try {
+                beforeDate = LocalDateTime.parse(before.substring(0, Math.max(separator, 0)));
+                beforeId = Long.valueOf(before.substring(separator + 1));
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new BadRequestException("Curseur invalide : " + before);
+            }
+        }
 
-    public Page<Audit> getAuditsByUser(User utilisateur, Pageable pageable) {
-        return auditRepository.findByUtilisateurOrderByDateDesc(utilisateur, pageable);
-    }
-
-    public List<Audit> getAuditsByAction(String action) {
-        return auditRepository.findByActionContainingIgnoreCaseOrderByDateDesc(action);
-    }
-
-    public List<Audit> getAuditsByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
-        return auditRepository.findByDateBetweenOrderByDateDesc(startDate, endDate);
-    }
+        // One extra row tells whether there is a next page
+        AuditFilter filter = new AuditFilter(userId, actionCode, entityTypeCode, entityId, from, to, beforeDate,
+                beforeId);
+        List<AuditRow> rows = auditRepository.search(userId, actionCode, entityTypeCode, entityId, from, to,
+                beforeDate, beforeId, Limit.of(pageSize + 1)).stream().map(AuditRow::from).toList();
+        LocalDateTime archived = auditArchive.newestDate();
+        if (archived != null && (from == null || !from.isAfter(archived))
+                && (rows.size() <= pageSize || !rows.get(pageSize).date().isAfter(archived))) {
+            // A row being archived can be in both for a moment
+            Map<Long, AuditRow> merged = new LinkedHashMap<>();
+            rows.forEach(row -> merged.put(row.id(), row));
+            auditArchive.search(filter, pageSize + 1).forEach(row -> merged.putIfAbsent(row.id(), row));
+            rows = merged.values().stream().sorted(AuditRow.NEWEST_FIRST).limit(pageSize + 1).toList();
+        }
 
-    public List<Audit> getAuditsForEntity(String entityType, Long entityId) {
-        return auditRepository.findByEntityTypeAndEntityIdOrderByDateDesc(entityType, entityId);
+        List<AuditRow> page = rows.subList(0, Math.min(rows.size(), pageSize));
+        Map<Long, String> usernames = new HashMap<>();
+        List<Long> userIds = page.stream().map(AuditRow::userId).filter(Objects::nonNull).distinct().toList();
+        if (!userIds.isEmpty()) {
+            for (Object[] user : userRepository.findUsernamesByIds(userIds)) {
+                usernames.put((Long) user[0], (String) user[1]);
+            }
+        }
+        List<AuditDTO> items = new ArrayList<>(page.size());
+        for (AuditRow row : page) {
+            items.add(new AuditDTO(row.id(), row.date(), auditCodes.label(row.actionCode()),
+                    auditCodes.label(row.entityTypeCode()), row.entityId(), row.details(), row.userId(),
+                    usernames.get(row.userId())));
+        }
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            AuditDTO last = items.get(pageSize - 1);
+            nextCursor = last.getDate() + "_" + last.getId();
+        }
+        return new AuditPageDTO(items, nextCursor);
     }
 
     public Long getUserActionCount(User user, LocalDateTime since) {
-        return auditRepository.countUserActionsAfter(user, since);
+        return auditRepository.countUserActionsAfter(user, since)
+                + auditArchive.count(new AuditFilter(user.getId(), null, null, null, since, null, null, null));
     }
 }
\ No newline at end of file
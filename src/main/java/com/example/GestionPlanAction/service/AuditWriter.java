@@ -0,0 +1,274 @@
+package com.example.GestionPlanAction.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.GestionPlanAction.enums.AuditCodeKind;
+import com.example.GestionPlanAction.enums.AuditOverflowPolicy;
+import com.example.GestionPlanAction.model.Audit;
+import com.example.GestionPlanAction.model.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Writes audit entries off the callers' threads.
+ *
+ * Entries go into an {@link AuditRingBuffer} of app.auditBufferSize slots. A single writer thread
+ * drains it by batches of up to app.auditBatchSize, each persisted in one transaction that
+ * Hibernate flushes as JDBC insert batches; when there is nothing to write it sleeps
+ * app.auditFlushMs. When the buffer is full, app.auditOverflowPolicy decides: BLOCK waits for room,
+ * DROP loses the entry, SPILL appends it as a JSON line to app.auditSpillFile. The writer loads
+ * spilled entries back whenever the buffer is empty, including after a restart.
+ *
+ * A batch the database could not take, down or out of connections, is spilled whatever the policy
+ * and replayed app.auditSpillRetryMs later at the earliest; a batch it rejected is lost and counted
+ * in audit.dropped.
+ *
+ * On shutdown the writer writes what is left in the buffer, then stops.
+ */
+@Service
+public class AuditWriter implements DisposableBean {
+
+	private static final Logger logger = LoggerFactory.getLogger(AuditWriter.class);
+
+	private final AuditRingBuffer<AuditRecord> buffer;
+
+	private final Counter written;
+
+	private final Counter dropped;
+
+	private final Counter spilled;
+
+	private final Object spillLock = new Object();
+
+	private volatile boolean running = true;
+
+	private Thread writer;
+
+	// Writer thread only
+	private long nextReplay;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private AuditCodes auditCodes;
+
+	@Value("${app.auditBatchSize:200}")
+	private int batchSize;
+
+	@Value("${app.auditFlushMs:50}")
+	private long flushMs;
+
+	@Value("${app.auditOverflowPolicy:BLOCK}")
+	private AuditOverflowPolicy overflowPolicy;
+
+	@Value("${app.auditSpillFile:audit-spill.jsonl}")
+	private Path spillFile;
+
+	@Value("${app.auditSpillRetryMs:5000}")
+	private long spillRetryMs;
+
+	public AuditWriter(@Value("${app.auditBufferSize:8192}") int bufferSize, MeterRegistry meterRegistry) {
+		this.buffer = new AuditRingBuffer<>(bufferSize);
+		this.written = Counter.builder("audit.written").register(meterRegistry);
+		this.dropped = Counter.builder("audit.dropped").register(meterRegistry);
+		this.spilled = Counter.builder("audit.spilled").register(meterRegistry);
+		Gauge.builder("audit.buffer.size", buffer, AuditRingBuffer::size).register(meterRegistry);
+	}
+
+	@PostConstruct
+	void start() {
+		writer = new Thread(this::run, "audit-writer");
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	/** Queues an entry, applying the overflow policy when the buffer is full. */
+	public void submit(AuditRecord entry) {
+		if (buffer.offer(entry)) {
+			return;
+		}
+		switch (overflowPolicy) {
+			case BLOCK -> {
+				while (!buffer.offer(entry)) {
+					if (!running) {
+						write(List.of(entry));
+						return;
+					}
+					LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+				}
+			}
+			case DROP -> dropped.increment();
+			case SPILL -> spill(entry);
+		}
+	}
+
+	private void run() {
+		List<AuditRecord> batch = new ArrayList<>(batchSize);
+		while (running) {
+			if (buffer.drainTo(batch, batchSize) > 0) {
+				writeOrSpill(batch);
+				batch.clear();
+			} else {
+				if (System.currentTimeMillis() >= nextReplay) {
+					replaySpill();
+				}
+				LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushMs));
+			}
+		}
+		// Still the only consumer of the buffer
+		while (buffer.drainTo(batch, batchSize) > 0) {
+			writeOrSpill(batch);
+			batch.clear();
+		}
+	}
+
+	private void writeOrSpill(List<AuditRecord> batch) {
+		try {
+			write(batch);
+		} catch (RuntimeException e) {
+			if (isTransient(e)) {
+				logger.warn("Audit batch of {} entries not written, spilled for later: {}", batch.size(), e.getMessage());
+				batch.forEach(this::spill);
+				nextReplay = System.currentTimeMillis() + spillRetryMs;
+			} else {
+				// Rejected by the database, it would be rejected again
+				logger.error("Audit batch of {} entries not written, lost", batch.size(), e);
+				dropped.increment(batch.size());
+			}
+		}
+	}
+
+	// The database or the pool was unavailable, the entries themselves are not at fault
+	private static boolean isTransient(RuntimeException e) {
+		return e instanceof TransientDataAccessException || e instanceof RecoverableDataAccessException
+				|| e instanceof DataAccessResourceFailureException || e instanceof CannotCreateTransactionException;
+	}
+
+	// Ids come from the pooled allocator, so the rows go out as JDBC batches on flush
+	private void write(List<AuditRecord> entries) {
+		// Codes first: a new one is committed on a connection of its own, which the batch must not be holding
+		for (AuditRecord entry : entries) {
+			auditCodes.code(AuditCodeKind.ACTION, entry.action());
+			auditCodes.code(AuditCodeKind.ENTITY_TYPE, entry.entityType());
+		}
+		transactionTemplate.executeWithoutResult(status -> {
+			for (AuditRecord entry : entries) {
+				entityManager.persist(toEntity(entry));
+			}
+			entityManager.flush();
+			entityManager.clear();
+		});
+		written.increment(entries.size());
+	}
+
+	private Audit toEntity(AuditRecord entry) {
+		return Audit.builder()
+				.actionCode(auditCodes.code(AuditCodeKind.ACTION, entry.action()))
+				.utilisateur(entry.userId() != null ? entityManager.getReference(User.class, entry.userId()) : null)
+				.details(entry.details())
+				.entityTypeCode(auditCodes.code(AuditCodeKind.ENTITY_TYPE, entry.entityType()))
+				.entityId(entry.entityId())
+				.date(entry.date())
+				.build();
+	}
+
+	private void spill(AuditRecord entry) {
+		synchronized (spillLock) {
+			try (BufferedWriter out = Files.newBufferedWriter(spillFile, StandardCharsets.UTF_8,
+					StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+				out.write(objectMapper.writeValueAsString(entry));
+				out.newLine();
+				spilled.increment();
+			} catch (IOException e) {
+				logger.error("Audit entry not spilled to {}, lost: {}", spillFile, entry, e);
+				dropped.increment();
+			}
+		}
+	}
+
+	// Moves the file aside under the lock, so that new spills start a fresh one meanwhile; a file
+	// left aside by a failed or interrupted replay is replayed first
+	private void replaySpill() {
+		Path replaying = spillFile.resolveSibling(spillFile.getFileName() + ".replaying");
+		if (!Files.exists(spillFile) && !Files.exists(replaying)) {
+			return;
+		}
+		try {
+			if (!Files.exists(replaying)) {
+				synchronized (spillLock) {
+					Files.move(spillFile, replaying, StandardCopyOption.ATOMIC_MOVE);
+				}
+			}
+			List<AuditRecord> entries = new ArrayList<>();
+			for (String line : Files.readAllLines(replaying, StandardCharsets.UTF_8)) {
+				if (!line.isBlank()) {
+					entries.add(objectMapper.readValue(line, AuditRecord.class));
+				}
+			}
+			for (int from = 0; from < entries.size(); from += batchSize) {
+				write(entries.subList(from, Math.min(from + batchSize, entries.size())));
+			}
+			Files.delete(replaying);
+			logger.info("{} spilled audit entries written", entries.size());
+		} catch (IOException | RuntimeException e) {
+			// Retried later, entries already written may then be written twice
+			logger.error("Spilled audit entries in {} not replayed", replaying, e);
+			nextReplay = System.currentTimeMillis() + spillRetryMs;
+		}
+	}
+
+	@Override
+	public void destroy() throws InterruptedException {
+		running = false;
+		if (writer != null) {
+			LockSupport.unpark(writer);
+			writer.join(TimeUnit.SECONDS.toMillis(10));
+			if (writer.isAlive()) {
+				// The buffer takes a single consumer, the writer finishes it alone
+				logger.warn("Audit writer still busy after 10 s, {} entries left to it", buffer.size());
+				return;
+			}
+		}
+		List<AuditRecord> rest = new ArrayList<>();
+		while (buffer.drainTo(rest, batchSize) > 0) {
+			write(rest);
+			rest.clear();
+		}
+	}
+}
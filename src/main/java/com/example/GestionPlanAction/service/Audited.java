@@ -0,0 +1,24 @@
+package com.example.GestionPlanAction.service;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import com.example.GestionPlanAction.enums.AuditOperation;
+
+/**
+ * Records calls to a service method in the audit trail, see {@link AuditAspect}. When the first
+ * argument is a Long it is taken as the id of the entity concerned.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Audited {
+
+	/** Entity the method works on, only its changes make the diff. */
+	Class<?> entity();
+
+	AuditOperation operation();
+}
@@ -0,0 +1,38 @@
+package com.example.GestionPlanAction.service;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Eviction shared by the in-memory caches bounded by a size setting.
+ *
+ * A full map first loses its stale entries, then, if it is still full, roughly a tenth of its
+ * entries, arbitrary ones: no bookkeeping on reads, and a burst of new keys evicts once per tenth
+ * rather than once per key.
+ */
+public final class BoundedMaps {
+
+	private BoundedMaps() {
+	}
+
+	/** Makes room for one more entry when the map holds maxSize entries or more. */
+	public static <K, V> void makeRoom(Map<K, V> map, int maxSize, Predicate<? super V> stale) {
+		if (map.size() < maxSize) {
+			return;
+		}
+		map.values().removeIf(stale);
+
+		int toRemove = map.size() - maxSize + Math.max(1, maxSize / 10);
+		Iterator<K> it = map.keySet().iterator();
+		while (toRemove-- > 0 && it.hasNext()) {
+			it.next();
+			it.remove();
+		}
+	}
+
+	/** Same, for maps whose entries never go stale. */
+	public static <K, V> void makeRoom(Map<K, V> map, int maxSize) {
+		makeRoom(map, maxSize, value -> false);
+	}
+}
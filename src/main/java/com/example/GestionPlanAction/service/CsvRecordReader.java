@@ -0,0 +1,93 @@
+package com.example.GestionPlanAction.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads a CSV file record by record. Double-quoted cells may hold the separator, "" for a quote
+ * and line breaks, so a record can span several lines of the file; line numbers are tracked for
+ * error reporting.
+ */
+class CsvRecordReader {
+
+	private final BufferedReader reader;
+	private int lineNumber;
+	private int recordLine;
+	private boolean unterminated;
+
+	CsvRecordReader(BufferedReader reader) {
+		this.reader = reader;
+	}
+
+	/** Next line as is, to look at a header before choosing the separator; null at the end. */
+	String readLine() throws IOException {
+		String line = reader.readLine();
+		if (line != null) {
+			lineNumber++;
+			recordLine = lineNumber;
+		}
+		return line;
+	}
+
+	/** Cells of the next record, null at the end of the file. */
+	List<String> next(char separator) throws IOException {
+		String line = readLine();
+		return line != null ? parse(line, separator) : null;
+	}
+
+	/** Cells of the record starting with line, reading on while a quoted cell is open. */
+	List<String> parse(String line, char separator) throws IOException {
+		List<String> cells = new ArrayList<>();
+		StringBuilder current = new StringBuilder();
+		boolean quoted = false;
+		unterminated = false;
+		while (true) {
+			for (int i = 0; i < line.length(); i++) {
+				char c = line.charAt(i);
+				if (quoted) {
+					if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+						current.append('"');
+						i++;
+					} else if (c == '"') {
+						quoted = false;
+					} else {
+						current.append(c);
+					}
+				} else if (c == '"') {
+					quoted = true;
+				} else if (c == separator) {
+					cells.add(current.toString());
+					current.setLength(0);
+				} else {
+					current.append(c);
+				}
+			}
+			if (!quoted) {
+				break;
+			}
+			String more = reader.readLine();
+			if (more == null) {
+				unterminated = true;
+				break;
+			}
+			// The line break belongs to the quoted cell
+			lineNumber++;
+			current.append('\n');
+			line = more;
+		}
+		cells.add(current.toString());
+		return cells;
+	}
+
+	/** Line the last record started on, counting from 1. */
+	int getRecordLine() {
+		return recordLine;
+	}
+
+	/** True when the file ended inside a quoted cell of the last record. */
+	boolean isUnterminated() {
+		return unterminated;
+	}
+}
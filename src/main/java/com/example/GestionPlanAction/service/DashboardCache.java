@@ -0,0 +1,121 @@
+package com.example.GestionPlanAction.service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Serialized dashboard responses, keyed by endpoint and, where the figures are per user, by user.
+ *
+ * Every committed change to dashboard data moves to a new generation and drops all entries (see
+ * {@link DashboardCounterService#onCounterEvent}). An entry loaded under an older generation is
+ * never served, so a query racing with a write is reloaded on the next request. Concurrent misses
+ * on the same key share one load.
+ *
+ * Entries keep the JSON bytes and a strong ETag computed from them, so a 304 can be answered
+ * without serializing anything. They also keep the loaded value, for the home screens that embed
+ * the same figures in a larger response; it is shared, callers never modify it.
+ */
+@Service
+public class DashboardCache {
+
+	public record Entry(Object value, byte[] body, String etag) {
+	}
+
+	private record Slot(long generation, CompletableFuture<Entry> future) {
+	}
+
+	private final Map<String, Slot> slots = new ConcurrentHashMap<>();
+
+	private final AtomicLong generation = new AtomicLong();
+
+	private final MeterRegistry meterRegistry;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	public DashboardCache(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+		Gauge.builder("dashboard.cache.size", slots, Map::size).register(meterRegistry);
+	}
+
+	/** Cached response of an endpoint; userId is null for figures shared by every user. */
+	public Entry get(String endpoint, Long userId, Supplier<?> loader) {
+		String key = userId != null ? endpoint + ":" + userId : endpoint;
+		long current = generation.get();
+
+		Slot slot = slots.get(key);
+		if (slot != null && slot.generation() == current && isLoaded(slot)) {
+			count(endpoint, "hit");
+			return slot.future().join();
+		}
+
+		Slot mine = new Slot(current, new CompletableFuture<>());
+		Slot winner = slots.compute(key, (k, existing) ->
+				existing != null && existing.generation() == current && !existing.future().isCompletedExceptionally()
+						? existing
+						: mine);
+		if (winner != mine) {
+			// Either loaded meanwhile or another request is loading it
+			count(endpoint, winner.future().isDone() ? "hit" : "coalesced");
+			return winner.future().join();
+		}
+
+		count(endpoint, "miss");
+		try {
+			Entry entry = serialize(loader.get());
+			mine.future().complete(entry);
+			return entry;
+		} catch (RuntimeException e) {
+			// Waiting requests fail too, the next one retries
+			mine.future().completeExceptionally(e);
+			slots.remove(key, mine);
+			throw e;
+		}
+	}
+
+	/** Cached value of an endpoint, for a response that embeds it. */
+	@SuppressWarnings("unchecked")
+	public <T> T getValue(String endpoint, Long userId, Supplier<T> loader) {
+		return (T) get(endpoint, userId, loader).value();
+	}
+
+	public void invalidateAll() {
+		generation.incrementAndGet();
+		slots.clear();
+	}
+
+	private Entry serialize(Object value) {
+		try {
+			byte[] body = objectMapper.writeValueAsBytes(value);
+			return new Entry(value, body, "\"" + DigestUtils.md5DigestAsHex(body) + "\"");
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Dashboard response not serializable", e);
+		}
+	}
+
+	private static boolean isLoaded(Slot slot) {
+		return slot.future().isDone() && !slot.future().isCompletedExceptionally();
+	}
+
+	private void count(String endpoint, String result) {
+		Counter.builder("dashboard.cache.requests")
+				.tag("endpoint", endpoint)
+				.tag("result", result)
+				.register(meterRegistry)
+				.increment();
+	}
+}
@@ -0,0 +1,53 @@
+package com.example.GestionPlanAction.service;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.example.GestionPlanAction.enums.StatutPlanAction;
+
+/**
+ * Changes to the dashboard counters made by one service call, published once its data is
+ * written and applied by {@link DashboardCounterService} after the transaction commits.
+ *
+ * Also tells {@link DashboardCache} that dashboard data changed: a write that affects dashboards
+ * without moving any counter (a plan renamed, a user moved to another service line) publishes an
+ * event without deltas.
+ */
+public class DashboardCounterEvent {
+
+    private final Map<String, Long> deltas = new HashMap<>();
+
+    public DashboardCounterEvent add(String counter, long delta) {
+        deltas.merge(counter, delta, Long::sum);
+        return this;
+    }
+
+    /**
+     * Adds (sign 1) or removes (sign -1) VAs counted per responsable and plan statut, rows being
+     * (responsable id, statut, count) as returned by the countByResponsableAndStatut queries.
+     */
+    public DashboardCounterEvent addVariableActions(List<Object[]> rows, int sign) {
+        for (Object[] row : rows) {
+            Long userId = (Long) row[0];
+            StatutPlanAction statut = (StatutPlanAction) row[1];
+            long count = sign * (Long) row[2];
+            add(DashboardCounters.variableActions(userId), count);
+            if (statut != null) {
+                add(DashboardCounters.variableActions(userId, statut), count);
+            }
+        }
+        return this;
+    }
+
+    // True when plans changed statut, were added or were removed
+    public boolean changesPlanStatuts() {
+        return deltas.entrySet().stream()
+                .anyMatch(delta -> delta.getKey().startsWith(DashboardCounters.PLANS + ".") && delta.getValue() != 0);
+    }
+
+    public Map<String, Long> getDeltas() {
+        return Collections.unmodifiableMap(deltas);
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.GestionPlanAction.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.GestionPlanAction.enums.StatutPlanAction;
+import com.example.GestionPlanAction.model.DashboardCounter;
+import com.example.GestionPlanAction.repository.DashboardCounterRepository;
+import com.example.GestionPlanAction.repository.ExerciceRepository;
+import com.example.GestionPlanAction.repository.PlanActionRepository;
+import com.example.GestionPlanAction.repository.ProfilRepository;
+import com.example.GestionPlanAction.repository.ServiceLineRepository;
+import com.example.GestionPlanAction.repository.UserRepository;
+import com.example.GestionPlanAction.repository.VariableActionRepository;
+
+/**
+ * Dashboard counters, stored in dashboard_counter and mirrored in memory so that a dashboard
+ * read never queries the database.
+ *
+ * Services publish a {@link DashboardCounterEvent} with the deltas of each write; they are stored
+ * in the table in the same transaction as the write and applied to the mirror once it has committed. Writes that bypass the services
+ * (data initialisation, manual SQL, another instance) or a delta lost to a failure are corrected
+ * by {@link #reconcile}, which recomputes every counter from the source tables at startup and on
+ * a schedule. A write committing while the recount runs can be counted twice or not at all until
+ * the next run.
+ */
+@Service
+public class DashboardCounterService {
+
+	private static final Logger logger = LoggerFactory.getLogger(DashboardCounterService.class);
+
+	private final Map<String, Long> mirror = new ConcurrentHashMap<>();
+
+	private final TransactionTemplate required;
+
+	private final TransactionTemplate requiresNew;
+
+	@Autowired
+	private DashboardCounterRepository counterRepository;
+
+	@Autowired
+	private DashboardCache dashboardCache;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private PlanActionRepository planActionRepository;
+
+	@Autowired
+	private ServiceLineRepository serviceLineRepository;
+
+	@Autowired
+	private ExerciceRepository exerciceRepository;
+
+	@Autowired
+	private ProfilRepository profilRepository;
+
+	@Autowired
+	private VariableActionRepository variableActionRepository;
+
+	public DashboardCounterService(PlatformTransactionManager transactionManager) {
+		this.required = new TransactionTemplate(transactionManager);
+		this.requiresNew = new TransactionTemplate(transactionManager);
+		this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+	}
+
+	public long get(String counter) {
+		return mirror.getOrDefault(counter, 0L);
+	}
+
+	// Stored with the change itself, on the publisher's connection: a new transaction here would
+	// hold a second connection per request until the commit. Sorted so that concurrent writers
+	// lock the counter rows in the same order.
+	@TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+	public void storeCounterEvent(DashboardCounterEvent event) {
+		Map<String, Long> deltas = new TreeMap<>(event.getDeltas());
+		deltas.values().removeIf(delta -> delta == 0);
+		if (deltas.isEmpty()) {
+			return;
+		}
+		// Joins the publisher's transaction, or runs on its own when the publisher has none
+		required.executeWithoutResult(status -> deltas.forEach(counterRepository::addToValue));
+	}
+
+	// Runs straight away when the publisher has no transaction
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onCounterEvent(DashboardCounterEvent event) {
+		event.getDeltas().forEach((counter, delta) -> {
+			if (delta != 0) {
+				mirror.merge(counter, delta, Long::sum);
+			}
+		});
+		// Only once the mirror has moved, so that no stale stats are cached again
+		dashboardCache.invalidateAll();
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void reconcileOnStartup() {
+		reconcile();
+	}
+
+	@Scheduled(fixedDelayString = "${app.dashboardCounterReconcileMs:600000}",
+			initialDelayString = "${app.dashboardCounterReconcileMs:600000}")
+	public void reconcile() {
+		long start = System.currentTimeMillis();
+		Map<String, Long> expected = recount();
+
+		int corrected = requiresNew.execute(status -> {
+			int drift = 0;
+			Map<String, DashboardCounter> stored = new HashMap<>();
+			for (DashboardCounter row : counterRepository.findAll()) {
+				stored.put(row.getName(), row);
+			}
+			for (Map.Entry<String, Long> entry : expected.entrySet()) {
+				DashboardCounter row = stored.remove(entry.getKey());
+				if (row == null) {
+					counterRepository.save(new DashboardCounter(entry.getKey(), entry.getValue()));
+					drift += entry.getValue() != 0 ? 1 : 0;
+				} else if (row.getValue() != entry.getValue()) {
+					row.setValue(entry.getValue());
+					drift++;
+				}
+			}
+			// Counters of users without VAs any more, or of removed statuts
+			for (DashboardCounter row : stored.values()) {
+				drift += row.getValue() != 0 ? 1 : 0;
+				counterRepository.delete(row);
+			}
+			return drift;
+		});
+
+		mirror.putAll(expected);
+		mirror.keySet().retainAll(expected.keySet());
+
+		if (corrected > 0) {
+			dashboardCache.invalidateAll();
+			logger.warn("Dashboard counters: {} corrected out of {} in {} ms", corrected, expected.size(),
+					System.currentTimeMillis() - start);
+		}
+	}
+
+	private Map<String, Long> recount() {
+		Map<String, Long> counters = new HashMap<>();
+		counters.put(DashboardCounters.USERS, userRepository.count());
+		counters.put(DashboardCounters.PLANS, planActionRepository.count());
+		counters.put(DashboardCounters.SERVICE_LINES, serviceLineRepository.count());
+		counters.put(DashboardCounters.EXERCICES, exerciceRepository.count());
+		counters.put(DashboardCounters.OPEN_EXERCICES, exerciceRepository.countByVerrouilleIsFalse());
+		counters.put(DashboardCounters.PROFILS, profilRepository.count());
+		for (StatutPlanAction statut : StatutPlanAction.values()) {
+			counters.put(DashboardCounters.plans(statut), 0L);
+		}
+		for (Object[] row : planActionRepository.getStatusDistribution()) {
+			if (row[0] != null) {
+				counters.put(DashboardCounters.plans((StatutPlanAction) row[0]), (Long) row[1]);
+			}
+		}
+		new DashboardCounterEvent()
+				.addVariableActions(variableActionRepository.countByResponsableAndStatut(), 1)
+				.getDeltas()
+				.forEach(counters::put);
+		return counters;
+	}
+}
@@ -0,0 +1,32 @@
+package com.example.GestionPlanAction.service;
+
+import com.example.GestionPlanAction.enums.StatutPlanAction;
+
+/**
+ * Names of the dashboard counters.
+ */
+public final class DashboardCounters {
+
+    public static final String USERS = "users";
+    public static final String PLANS = "plans";
+    public static final String SERVICE_LINES = "service_lines";
+    public static final String EXERCICES = "exercices";
+    public static final String OPEN_EXERCICES = "exercices.open";
+    public static final String PROFILS = "profils";
+
+    private DashboardCounters() {
+    }
+
+    public static String plans(StatutPlanAction statut) {
+        return PLANS + "." + statut.name();
+    }
+
+    // VAs the user is responsable of, whatever their plan
+    public static String variableActions(Long userId) {
+        return "va." + userId;
+    }
+
+    public static String variableActions(Long userId, StatutPlanAction statut) {
+        return "va." + userId + "." + statut.name();
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.GestionPlanAction.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import com.example.GestionPlanAction.dto.AdminDashboardHome;
+import com.example.GestionPlanAction.dto.CollaboratorDashboardHome;
+import com.example.GestionPlanAction.dto.DirectorDashboardHome;
+import com.example.GestionPlanAction.dto.PlanSummaryDTO;
+import com.example.GestionPlanAction.enums.StatutPlanAction;
+import com.example.GestionPlanAction.repository.PlanActionRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Home screen of each dashboard in one response. The independent parts run concurrently on a
+ * small dedicated pool, so the response takes as long as the slowest part instead of their sum.
+ *
+ * Each part has its own timeout: a part that fails or is too slow is left null and named in
+ * "unavailable" rather than failing the whole screen. A timed out query keeps its pool thread
+ * until it returns. When the pool and its queue are full, parts run on the request thread.
+ */
+@Service
+public class DashboardHomeService implements DisposableBean {
+
+	private static final Logger logger = LoggerFactory.getLogger(DashboardHomeService.class);
+
+	private final ThreadPoolExecutor executor;
+
+	@Autowired
+	private DashboardService dashboardService;
+
+	@Autowired
+	private DashboardCache dashboardCache;
+
+	@Autowired
+	private PlanActionRepository planActionRepository;
+
+	@Autowired
+	private NotificationService notificationService;
+
+	@Value("${app.dashboardPartTimeoutMs:2000}")
+	private long partTimeoutMs;
+
+	@Value("${app.dashboardListSize:10}")
+	private int listSize;
+
+	public DashboardHomeService(@Value("${app.dashboardThreads:8}") int threads,
+			@Value("${app.dashboardQueueDepth:100}") int queueDepth, MeterRegistry meterRegistry) {
+		AtomicInteger threadCount = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueDepth),
+				runnable -> {
+					Thread thread = new Thread(runnable, "dashboard-" + threadCount.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				},
+				new ThreadPoolExecutor.CallerRunsPolicy());
+		Gauge.builder("dashboard.executor.queue.size", executor, pool -> pool.getQueue().size()).register(meterRegistry);
+		Gauge.builder("dashboard.executor.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+	}
+
+	public AdminDashboardHome getAdminHome(Long userId) {
+		Queue<String> unavailable = new ConcurrentLinkedQueue<>();
+		var stats = part("stats", dashboardService::getAdminStats, unavailable);
+		var recentPlans = part("recentPlans",
+				() -> summaries(planActionRepository.findRecentSummaries(Limit.of(listSize))), unavailable);
+		var unread = part("unreadNotifications", () -> notificationService.getUnreadCount(userId), unavailable);
+		CompletableFuture.allOf(stats, recentPlans, unread).join();
+		return new AdminDashboardHome(stats.join(), recentPlans.join(), unread.join(), new ArrayList<>(unavailable));
+	}
+
+	public CollaboratorDashboardHome getCollaboratorHome(Long userId) {
+		Queue<String> unavailable = new ConcurrentLinkedQueue<>();
+		var stats = part("stats", () -> dashboardService.getCollaboratorStats(userId), unavailable);
+		var myPlans = part("myPlans",
+				() -> summaries(planActionRepository.findSummariesByResponsableId(userId, Limit.of(listSize))), unavailable);
+		var unread = part("unreadNotifications", () -> notificationService.getUnreadCount(userId), unavailable);
+		CompletableFuture.allOf(stats, myPlans, unread).join();
+		return new CollaboratorDashboardHome(stats.join(), myPlans.join(), unread.join(), new ArrayList<>(unavailable));
+	}
+
+	public DirectorDashboardHome getDirectorHome(Long userId) {
+		Queue<String> unavailable = new ConcurrentLinkedQueue<>();
+		var stats = part("stats", dashboardService::getDirectorStats, unavailable);
+		var pending = part("pendingValidations", () -> summaries(planActionRepository
+				.findSummariesByStatut(StatutPlanAction.EN_COURS_PLANIFICATION, Limit.of(listSize))), unavailable);
+		// Shared with the director endpoints' cache entries
+		var serviceLines = part("serviceLineProgress", () -> dashboardCache.getValue("director.service-line-progress",
+				null, dashboardService::getServiceLineProgressData), unavailable);
+		var statuses = part("statusDistribution", () -> dashboardCache.getValue("director.status-distribution", null,
+				dashboardService::getStatusDistributionData), unavailable);
+		var unread = part("unreadNotifications", () -> notificationService.getUnreadCount(userId), unavailable);
+		CompletableFuture.allOf(stats, pending, serviceLines, statuses, unread).join();
+		return new DirectorDashboardHome(stats.join(), pending.join(), serviceLines.join(), statuses.join(),
+				unread.join(), new ArrayList<>(unavailable));
+	}
+
+	// Never completes exceptionally: a failed or late part yields null and is reported as unavailable
+	private <T> CompletableFuture<T> part(String name, Supplier<T> query, Queue<String> unavailable) {
+		return CompletableFuture.supplyAsync(query, executor)
+				.orTimeout(partTimeoutMs, TimeUnit.MILLISECONDS)
+				.exceptionally(e -> {
+					logger.warn("Dashboard part {} unavailable: {}", name, e.toString());
+					unavailable.add(name);
+					return null;
+				});
+	}
+
+	// Rows are (id, titre, statut, exercice annee)
+	private static List<PlanSummaryDTO> summaries(List<Object[]> rows) {
+		List<PlanSummaryDTO> plans = new ArrayList<>(rows.size());
+		for (Object[] row : rows) {
+			StatutPlanAction statut = (StatutPlanAction) row[2];
+			plans.add(new PlanSummaryDTO((Long) row[0], (String) row[1], statut != null ? statut.name() : null,
+					(Integer) row[3]));
+		}
+		return plans;
+	}
+
+	@Override
+	public void destroy() {
+		executor.shutdownNow();
+	}
+}
@@ -12,60 +12,47 @@ import java.util.List;
 @Service
 public class DashboardServiceImpl implements DashboardService {
 
-    @Autowired
-    private UserRepository userRepository;
-    
     @Autowired
     private PlanActionRepository planActionRepository;
-    
-    @Autowired
-    private ServiceLineRepository serviceLineRepository;
-    
-    @Autowired
-    private ExerciceRepository exerciceRepository;
-    
-    @Autowired
-    private ProfilRepository profilRepository;
-    
+
+    // Stats are read from the counters' in-memory mirror, no query per refresh
     @Autowired
-    private VariableActionRepository variableActionRepository;
+    private DashboardCounterService counters;
 
     @Override
     public AdminDashboardStats getAdminStats() {
         return new AdminDashboardStats(
-            userRepository.count(),
-            planActionRepository.count(),
-            serviceLineRepository.count(),
-            exerciceRepository.countByVerrouilleIsFalse(),
-            profilRepository.count()
+            counters.get(DashboardCounters.USERS),
+            counters.get(DashboardCounters.PLANS),
+            counters.get(DashboardCounters.SERVICE_LINES),
+            counters.get(DashboardCounters.OPEN_EXERCICES),
+            counters.get(DashboardCounters.PROFILS)
         );
     }
 
     @Override
     public CollaboratorDashboardStats getCollaboratorStats(Long userId) {
         return new CollaboratorDashboardStats(
-            variableActionRepository.countByResponsableIdAndPlanActionStatut(
-                userId, StatutPlanAction.EN_COURS_PLANIFICATION),
-            variableActionRepository.countByResponsableIdAndPlanActionStatut(
-                userId, StatutPlanAction.VERROUILLE),
-            variableActionRepository.countByResponsableIdAndPlanActionStatut(
-                userId, StatutPlanAction.SUIVI_REALISATION),
-            variableActionRepository.countByResponsableId(userId)
+            counters.get(DashboardCounters.variableActions(userId, StatutPlanAction.EN_COURS_PLANIFICATION)),
+            counters.get(DashboardCounters.variableActions(userId, StatutPlanAction.VERROUILLE)),
+            counters.get(DashboardCounters.variableActions(userId, StatutPlanAction.SUIVI_REALISATION)),
+            counters.get(DashboardCounters.variableActions(userId))
         );
     }
 
     @Override
     public DirectorDashboardStats getDirectorStats() {
-        long totalPlans = planActionRepository.count();
-        long completedPlans = planActionRepository.countByStatut(StatutPlanAction.VERROUILLE);
+        long totalPlans = counters.get(DashboardCounters.PLANS);
+        long completedPlans = counters.get(DashboardCounters.plans(StatutPlanAction.VERROUILLE));
+        long plansInProgress = counters.get(DashboardCounters.plans(StatutPlanAction.EN_COURS_PLANIFICATION));
         double completionRate = totalPlans > 0 ? (completedPlans * 100.0) / totalPlans : 0;
         
         return new DirectorDashboardStats(
-            planActionRepository.countByStatut(StatutPlanAction.EN_COURS_PLANIFICATION),
+            plansInProgress,
             completionRate,
-            planActionRepository.countByStatut(StatutPlanAction.EN_COURS_PLANIFICATION),
-            exerciceRepository.count(),
-            userRepository.count()
+            plansInProgress,
+            counters.get(DashboardCounters.EXERCICES),
+            counters.get(DashboardCounters.USERS)
         );
     }
 
@@ -1,7 +1,9 @@
 package com.example.GestionPlanAction.service;
 
+import com.example.GestionPlanAction.enums.AuditOperation;
 import com.example.GestionPlanAction.model.Exercice;
 import com.example.GestionPlanAction.repository.ExerciceRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -11,38 +13,72 @@ public class ExerciceServiceImpl implements ExerciceService {
 
     private final ExerciceRepository repository;
 
-    public ExerciceServiceImpl(ExerciceRepository repository) {
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ReferenceData referenceData;
+
+    public ExerciceServiceImpl(ExerciceRepository repository, ApplicationEventPublisher eventPublisher,
+            ReferenceData referenceData) {
         this.repository = repository;
+        this.eventPublisher = eventPublisher;
+        this.referenceData = referenceData;
     }
 
     @Override
     public List<Exercice> getAll() {
-    	List<Exercice> exercices = repository.findAll();
-    	System.out.println("Nombre d'exercices trouvés: " + exercices.size());
-        return repository.findAll();
+        return referenceData.get().getExercices();
     }
 
+    @Audited(entity = Exercice.class, operation = AuditOperation.READ)
     @Override
     public Exercice getById(Long id) {
-        return repository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Exercice introuvable"));
+        Exercice exercice = referenceData.getExercice(id);
+        if (exercice == null) {
+            throw new RuntimeException("Exercice introuvable");
+        }
+        return exercice;
     }
 
+    @Audited(entity = Exercice.class, operation = AuditOperation.CREATE)
     @Override
     public Exercice create(Exercice exercice) {
-        return repository.save(exercice);
+        Exercice saved = repository.save(exercice);
+        eventPublisher.publishEvent(counters(saved, 1));
+        eventPublisher.publishEvent(new ReferenceDataEvent());
+        return saved;
     }
 
+    @Audited(entity = Exercice.class, operation = AuditOperation.UPDATE)
     @Override
     public Exercice update(Long id, Exercice updated) {
-        Exercice existing = getById(id);
+        Exercice existing = repository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Exercice introuvable"));
+        boolean wasVerrouille = existing.isVerrouille();
         existing.setAnnee(updated.getAnnee());
         existing.setVerrouille(updated.isVerrouille());
-        return repository.save(existing);
+        Exercice saved = repository.save(existing);
+        if (wasVerrouille != saved.isVerrouille()) {
+            eventPublisher.publishEvent(new DashboardCounterEvent()
+                    .add(DashboardCounters.OPEN_EXERCICES, saved.isVerrouille() ? -1 : 1));
+        }
+        eventPublisher.publishEvent(new ReferenceDataEvent());
+        return saved;
     }
 
+    @Audited(entity = Exercice.class, operation = AuditOperation.DELETE)
     @Override
     public void delete(Long id) {
+        Exercice existing = repository.findById(id).orElse(null);
         repository.deleteById(id);
+        if (existing != null) {
+            eventPublisher.publishEvent(counters(existing, -1));
+            eventPublisher.publishEvent(new ReferenceDataEvent());
+        }
+    }
+
+    private static DashboardCounterEvent counters(Exercice exercice, int sign) {
+        return new DashboardCounterEvent()
+                .add(DashboardCounters.EXERCICES, sign)
+                .add(DashboardCounters.OPEN_EXERCICES, exercice.isVerrouille() ? 0 : sign);
     }
 }
\ No newline at end of file
@@ -0,0 +1,50 @@
+package com.example.GestionPlanAction.service;
+
+import com.example.GestionPlanAction.enums.NotificationAudience;
+
+/**
+ * One notification to send to every active user of an audience: a service line, a profil, or the
+ * responsables of a plan's VAs, targetId being its id. Delivered once the publishing transaction
+ * has committed.
+ */
+public class NotificationBroadcastEvent {
+
+    private final NotificationAudience audience;
+
+    private final Long targetId;
+
+    private final String titre;
+
+    private final String contenu;
+
+    private final String type;
+
+    public NotificationBroadcastEvent(NotificationAudience audience, Long targetId, String titre, String contenu,
+            String type) {
+        this.audience = audience;
+        this.targetId = targetId;
+        this.titre = titre;
+        this.contenu = contenu;
+        this.type = type;
+    }
+
+    public NotificationAudience getAudience() {
+        return audience;
+    }
+
+    public Long getTargetId() {
+        return targetId;
+    }
+
+    public String getTitre() {
+        return titre;
+    }
+
+    public String getContenu() {
+        return contenu;
+    }
+
+    public String getType() {
+        return type;
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.GestionPlanAction.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.GestionPlanAction.dto.NotificationDTO;
+import com.example.GestionPlanAction.model.Notification;
+import com.example.GestionPlanAction.model.User;
+import com.example.GestionPlanAction.repository.UserRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Delivers broadcast notifications, one row per recipient.
+ *
+ * Once the publishing transaction has committed, the broadcast is queued on a small dedicated pool,
+ * so the request that triggered it returns whatever the audience size. Recipients are resolved with
+ * a single id query, then rows are persisted in chunks of app.notificationBroadcastChunkSize, one
+ * transaction per chunk, which Hibernate flushes as JDBC insert batches. Users are only referenced
+ * by id, never loaded.
+ *
+ * Each recipient gets the usual {@link NotificationChangeEvent} once its chunk has committed. A
+ * failed chunk is logged and skipped, the chunks already committed stay delivered.
+ */
+@Service
+public class NotificationBroadcaster implements DisposableBean {
+
+	private static final Logger logger = LoggerFactory.getLogger(NotificationBroadcaster.class);
+
+	private final ThreadPoolExecutor executor;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	@Value("${app.notificationBroadcastChunkSize:500}")
+	private int chunkSize;
+
+	public NotificationBroadcaster(@Value("${app.notificationBroadcastThreads:1}") int threads,
+			MeterRegistry meterRegistry) {
+		AtomicInteger threadCount = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+				runnable -> {
+					Thread thread = new Thread(runnable, "notification-broadcast-" + threadCount.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+		Gauge.builder("notifications.broadcast.queue.size", executor, pool -> pool.getQueue().size())
+				.register(meterRegistry);
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onBroadcast(NotificationBroadcastEvent event) {
+		executor.execute(() -> deliver(event));
+	}
+
+	private void deliver(NotificationBroadcastEvent event) {
+		long start = System.currentTimeMillis();
+		List<Long> recipients = recipients(event);
+		int delivered = 0;
+		for (int from = 0; from < recipients.size(); from += chunkSize) {
+			List<Long> chunk = recipients.subList(from, Math.min(from + chunkSize, recipients.size()));
+			try {
+				transactionTemplate.executeWithoutResult(status -> writeChunk(event, chunk));
+				delivered += chunk.size();
+			} catch (RuntimeException e) {
+				logger.error("Broadcast {} {}: {} notifications not created", event.getAudience(), event.getTargetId(),
+						chunk.size(), e);
+			}
+		}
+		logger.info("Broadcast {} {}: {}/{} notifications in {} ms", event.getAudience(), event.getTargetId(),
+				delivered, recipients.size(), System.currentTimeMillis() - start);
+	}
+
+	private List<Long> recipients(NotificationBroadcastEvent event) {
+		return switch (event.getAudience()) {
+			case SERVICE_LINE -> userRepository.findActiveIdsByServiceLineId(event.getTargetId());
+			case PROFIL -> userRepository.findActiveIdsByProfilId(event.getTargetId());
+			case PLAN_RESPONSABLES -> userRepository.findActiveResponsableIdsByPlanId(event.getTargetId());
+			case ALL -> throw new IllegalArgumentException("Les annonces ne sont pas diffusées par utilisateur");
+		};
+	}
+
+	// Ids come from the pooled allocator, so the rows go out as JDBC batches on flush
+	private void writeChunk(NotificationBroadcastEvent event, List<Long> userIds) {
+		LocalDateTime now = LocalDateTime.now();
+		List<Notification> created = new ArrayList<>(userIds.size());
+		for (Long userId : userIds) {
+			Notification notification = Notification.builder()
+					.titre(event.getTitre())
+					.contenu(event.getContenu())
+					.type(event.getType())
+					.utilisateur(entityManager.getReference(User.class, userId))
+					.recu(false)
+					.date(now)
+					.build();
+			entityManager.persist(notification);
+			created.add(notification);
+		}
+		entityManager.flush();
+		entityManager.clear();
+		for (int i = 0; i < created.size(); i++) {
+			eventPublisher.publishEvent(new NotificationChangeEvent(userIds.get(i), NotificationDTO.from(created.get(i))));
+		}
+	}
+
+	@Override
+	public void destroy() {
+		executor.shutdownNow();
+	}
+}
@@ -0,0 +1,27 @@
+package com.example.GestionPlanAction.service;
+
+import com.example.GestionPlanAction.dto.NotificationDTO;
+
+/**
+ * A user's notifications changed: a new one was created, or some were marked as read when
+ * notification is null. Listeners run once the change has committed.
+ */
+public class NotificationChangeEvent {
+
+    private final Long userId;
+
+    private final NotificationDTO notification;
+
+    public NotificationChangeEvent(Long userId, NotificationDTO notification) {
+        this.userId = userId;
+        this.notification = notification;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public NotificationDTO getNotification() {
+        return notification;
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.GestionPlanAction.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.GestionPlanAction.repository.NotificationRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Notifications marked read but not written yet, by user.
+ *
+ * Marking a notification read only checks that it is the user's and unread, then buffers its id.
+ * Every app.notificationReadFlushMs, or as soon as app.notificationReadFlushSize ids are waiting,
+ * the buffer is written in one transaction, one UPDATE ... IN per user. Ids leave the buffer once
+ * written, so unread lists and counts subtract them meanwhile and users see their own marks at
+ * once; then each user gets a {@link NotificationChangeEvent}. What is left is written on shutdown.
+ *
+ * An id marked twice, or also covered by a read-all, is written once at most.
+ */
+@Service
+public class NotificationReadBuffer implements DisposableBean {
+
+	private static final Logger logger = LoggerFactory.getLogger(NotificationReadBuffer.class);
+
+	private final Map<Long, Set<Long>> pending = new ConcurrentHashMap<>();
+
+	private final AtomicInteger size = new AtomicInteger();
+
+	private final AtomicBoolean flushQueued = new AtomicBoolean();
+
+	private final ScheduledThreadPoolExecutor executor;
+
+	@Autowired
+	private NotificationRepository notificationRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	@Value("${app.notificationReadFlushSize:500}")
+	private int flushSize;
+
+	public NotificationReadBuffer(@Value("${app.notificationReadFlushMs:250}") long flushMs,
+			MeterRegistry meterRegistry) {
+		this.executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+			Thread thread = new Thread(runnable, "notification-read-flush");
+			thread.setDaemon(true);
+			return thread;
+		});
+		executor.scheduleWithFixedDelay(this::flush, flushMs, flushMs, TimeUnit.MILLISECONDS);
+		Gauge.builder("notifications.read.buffer.size", size, AtomicInteger::get).register(meterRegistry);
+	}
+
+	/** Buffers a read mark; ids that are not the user's, or already read, are ignored. */
+	public void markRead(Long userId, Long notificationId) {
+		if (isPending(userId, notificationId)
+				|| !notificationRepository.existsByIdAndUtilisateurIdAndRecuFalse(notificationId, userId)) {
+			return;
+		}
+		boolean[] added = { false };
+		pending.compute(userId, (id, ids) -> {
+			Set<Long> set = ids != null ? ids : ConcurrentHashMap.newKeySet();
+			added[0] = set.add(notificationId);
+			return set;
+		});
+		if (added[0] && size.incrementAndGet() >= flushSize && flushQueued.compareAndSet(false, true)) {
+			executor.execute(this::flush);
+		}
+	}
+
+	/** Drops a user's buffered marks, for a read-all that covers them. */
+	public void discard(Long userId) {
+		Set<Long> ids = pending.remove(userId);
+		if (ids != null) {
+			size.addAndGet(-ids.size());
+		}
+	}
+
+	public boolean isPending(Long userId, Long notificationId) {
+		Set<Long> ids = pending.get(userId);
+		return ids != null && ids.contains(notificationId);
+	}
+
+	public int countPending(Long userId) {
+		Set<Long> ids = pending.get(userId);
+		return ids != null ? ids.size() : 0;
+	}
+
+	// Single flush thread; ids stay visible as pending until their UPDATE has committed. Events go
+	// once the ids have left the buffer: published in the transaction, the counts reloaded at commit
+	// would still subtract them and stay too low until the next change
+	private void flush() {
+		flushQueued.set(false);
+		if (pending.isEmpty()) {
+			return;
+		}
+		Map<Long, List<Long>> batch = new HashMap<>();
+		pending.forEach((userId, ids) -> {
+			if (!ids.isEmpty()) {
+				batch.put(userId, List.copyOf(ids));
+			}
+		});
+		try {
+			transactionTemplate.executeWithoutResult(status -> batch.forEach(notificationRepository::markAsReadByIds));
+		} catch (RuntimeException e) {
+			// Kept in the buffer, the next flush retries
+			logger.error("Read marks of {} users not written", batch.size(), e);
+			return;
+		}
+		batch.forEach((userId, ids) -> pending.computeIfPresent(userId, (id, set) -> {
+			int before = set.size();
+			set.removeAll(ids);
+			size.addAndGet(set.size() - before);
+			return set.isEmpty() ? null : set;
+		}));
+		batch.keySet().forEach(userId -> eventPublisher.publishEvent(new NotificationChangeEvent(userId, null)));
+	}
+
+	@Override
+	public void destroy() {
+		executor.shutdown();
+		try {
+			executor.awaitTermination(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		flush();
+		logger.info("Notification read buffer flushed on shutdown");
+	}
+}
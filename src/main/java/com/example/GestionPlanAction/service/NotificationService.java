@@ -1,15 +1,24 @@
 package com.example.GestionPlanAction.service;
 
+import com.example.GestionPlanAction.enums.NotificationAudience;
+import com.example.GestionPlanAction.enums.StatutPlanAction;
 import com.example.GestionPlanAction.model.Notification;
 import com.example.GestionPlanAction.model.User;
 import com.example.GestionPlanAction.repository.NotificationRepository;
+import com.example.GestionPlanAction.dto.NotificationDTO;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 @Service
@@ -19,21 +28,60 @@ public class NotificationService {
     @Autowired
     private NotificationRepository notificationRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private UnreadCountCache unreadCountCache;
+
+    @Autowired
+    private AnnouncementService announcementService;
+
+    @Autowired
+    private NotificationReadBuffer readBuffer;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     public Notification createNotification(String titre, String contenu, String type, User utilisateur) {
         Notification notification = Notification.builder()
                 .titre(titre)
                 .contenu(contenu)
                 .type(type)
-                // .utilisateur(utilisateur)
+                .utilisateur(utilisateur)
                 .recu(false)
                 .date(LocalDateTime.now())
                 .build();
         
-        return notificationRepository.save(notification);
+        Notification saved = notificationRepository.save(notification);
+        eventPublisher.publishEvent(new NotificationChangeEvent(utilisateur.getId(), NotificationDTO.from(saved)));
+        return saved;
     }
 
-    public List<Notification> getUnreadNotifications(User utilisateur) {
-        return notificationRepository.findByUtilisateurAndRecuFalseOrderByDateDesc(utilisateur);
+    /**
+     * Sends a notification to every active user of an audience. ALL is stored once as an
+     * announcement; otherwise rows are created asynchronously once the current transaction commits,
+     * see {@link NotificationBroadcaster}.
+     */
+    public void broadcast(NotificationAudience audience, Long targetId, String titre, String contenu, String type) {
+        if (audience == NotificationAudience.ALL) {
+            announcementService.create(titre, contenu, type);
+            return;
+        }
+        eventPublisher.publishEvent(new NotificationBroadcastEvent(audience, targetId, titre, contenu, type));
+    }
+
+    // Personal notifications and announcements, newest first, without read marks still buffered
+    public List<NotificationDTO> getUnreadNotifications(User utilisateur) {
+        List<NotificationDTO> unread = new ArrayList<>();
+        for (Notification notification : notificationRepository.findByUtilisateurAndRecuFalseOrderByDateDesc(utilisateur)) {
+            if (!readBuffer.isPending(utilisateur.getId(), notification.getId())) {
+                unread.add(NotificationDTO.from(notification));
+            }
+        }
+        unread.addAll(announcementService.getUnread(utilisateur.getId()));
+        unread.sort(Comparator.comparing(NotificationDTO::getDate).reversed());
+        return unread;
     }
 
     public Page<Notification> getAllNotifications(User utilisateur, Pageable pageable) {
@@ -41,15 +89,36 @@ public class NotificationService {
     }
 
     public Long getUnreadCount(User utilisateur) {
-        return notificationRepository.countByUtilisateurAndRecuFalse(utilisateur);
+        return getUnreadCount(utilisateur.getId());
+    }
+
+    public long getUnreadCount(Long utilisateurId) {
+        return unreadCountCache.get(utilisateurId).count();
+    }
+
+    public List<Notification> getNotificationsAfter(Long utilisateurId, LocalDateTime lastDate, Long lastId, int limit) {
+        return notificationRepository.findAfter(utilisateurId, lastDate, lastId, Limit.of(limit));
     }
 
+    // Buffered, written with other marks shortly after
     public void markAsRead(Long notificationId, User utilisateur) {
-        notificationRepository.markAsReadForUser(notificationId, utilisateur);
+        readBuffer.markRead(utilisateur.getId(), notificationId);
     }
 
+    // Announcement marks commit on their own, outside any transaction holding a connection
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void markAnnouncementAsRead(Long announcementId, User utilisateur) {
+        if (announcementService.markRead(announcementId, utilisateur.getId())) {
+            eventPublisher.publishEvent(new NotificationChangeEvent(utilisateur.getId(), null));
+        }
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void markAllAsRead(User utilisateur) {
-        notificationRepository.markAllAsReadForUser(utilisateur);
+        transactionTemplate.executeWithoutResult(status -> notificationRepository.markAllAsReadForUser(utilisateur));
+        readBuffer.discard(utilisateur.getId());
+        announcementService.markAllRead(utilisateur.getId());
+        eventPublisher.publishEvent(new NotificationChangeEvent(utilisateur.getId(), null));
     }
 
     public List<Notification> getRecentNotifications(User utilisateur, LocalDateTime since) {
@@ -90,6 +159,16 @@ public class NotificationService {
         );
     }
 
+    public void notifyPlanStatutChanged(Long planId, String planTitle, StatutPlanAction statut) {
+        broadcast(
+            NotificationAudience.PLAN_RESPONSABLES,
+            planId,
+            "Statut du plan d'action modifié",
+            "Le plan d'action '" + planTitle + "' est passé au statut " + statut + ".",
+            TYPE_INFO
+        );
+    }
+
     public void notifyUserCreated(User newUser) {
         createNotification(
             "Bienvenue!",
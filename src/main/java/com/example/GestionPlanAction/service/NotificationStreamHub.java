@@ -0,0 +1,305 @@
+package com.example.GestionPlanAction.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.GestionPlanAction.dto.NotificationDTO;
+import com.example.GestionPlanAction.model.Notification;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Open notification streams, by user.
+ *
+ * A stream is an async servlet response: while idle it holds a socket and an emitter but no
+ * thread, so thousands of clients can stay connected. Once a notification change commits, the
+ * user's streams get the new notification, if any, and the new unread count. Sends run on a small
+ * dedicated pool so that a slow client never delays the committing request.
+ *
+ * The pool queues at most app.notificationStreamQueueDepth tasks, one per user to deliver to. A
+ * client that stops reading must not hold a pool thread: a write slower than
+ * app.notificationSlowWriteMs closes the stream, and a stream still blocked in a write is dropped
+ * rather than written again. When the queue is full the user's streams are closed instead, the
+ * clients reconnect and replay what they missed; heartbeats are skipped while it is half full.
+ *
+ * Notification events carry the notification date and id as SSE id, "date_id" like the audit
+ * cursor: pooled ids are not in creation order across instances. A client reconnecting with
+ * Last-Event-ID first receives what it missed, up to app.notificationReplayLimit notifications; a
+ * notification created while it connects may come twice, clients ignore ids they already have. An
+ * id in another format replays nothing.
+ * Announcements go to every stream as notification events without id, flagged diffusion.
+ * Every stream gets a comment line each app.notificationHeartbeatMs so that proxies keep it open
+ * and dead connections are noticed.
+ *
+ * Events are formatted here rather than with SseEmitter.event(), which writes and flushes every
+ * field separately: a change reaches each stream in a single write.
+ */
+@Service
+public class NotificationStreamHub implements DisposableBean {
+
+	private static final Logger logger = LoggerFactory.getLogger(NotificationStreamHub.class);
+
+	private static final MediaType TEXT_UTF8 = new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8);
+
+	private static final String HEARTBEAT = ":ping\n\n";
+
+	private final Map<Long, Deque<SseEmitter>> streams = new ConcurrentHashMap<>();
+
+	// Streams with a write in progress
+	private final Set<SseEmitter> sending = ConcurrentHashMap.newKeySet();
+
+	private final AtomicInteger connections = new AtomicInteger();
+
+	private final ThreadPoolExecutor executor;
+
+	private final int queueDepth;
+
+	@Autowired
+	private NotificationService notificationService;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Value("${app.notificationStreamTimeoutMs:1800000}")
+	private long timeoutMs;
+
+	@Value("${app.notificationStreamsPerUser:5}")
+	private int streamsPerUser;
+
+	@Value("${app.notificationReplayLimit:100}")
+	private int replayLimit;
+
+	@Value("${app.notificationSlowWriteMs:5000}")
+	private long slowWriteMs;
+
+	public NotificationStreamHub(@Value("${app.notificationStreamThreads:2}") int threads,
+			@Value("${app.notificationStreamQueueDepth:20000}") int queueDepth, MeterRegistry meterRegistry) {
+		AtomicInteger threadCount = new AtomicInteger();
+		this.queueDepth = queueDepth;
+		this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(queueDepth),
+				runnable -> {
+					Thread thread = new Thread(runnable, "notification-stream-" + threadCount.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+		Gauge.builder("notifications.stream.connections", connections, AtomicInteger::get).register(meterRegistry);
+		Gauge.builder("notifications.stream.queue.size", executor, pool -> pool.getQueue().size()).register(meterRegistry);
+	}
+
+	/** Opens a stream for a user, replaying the notifications after lastEventId when given. */
+	public SseEmitter subscribe(Long userId, String lastEventId) {
+		SseEmitter emitter = new SseEmitter(timeoutMs);
+		// Added under the map's lock, a concurrent removal cannot drop the user's entry meanwhile
+		Deque<SseEmitter> userStreams = streams.compute(userId, (id, existing) -> {
+			Deque<SseEmitter> deque = existing != null ? existing : new ConcurrentLinkedDeque<>();
+			deque.add(emitter);
+			return deque;
+		});
+		connections.incrementAndGet();
+		emitter.onCompletion(() -> remove(userId, emitter));
+		emitter.onTimeout(emitter::complete);
+		emitter.onError(e -> remove(userId, emitter));
+
+		// Oldest streams first, a user rarely needs more than a few tabs
+		while (userStreams.size() > streamsPerUser) {
+			SseEmitter oldest = userStreams.pollFirst();
+			if (oldest != null) {
+				connections.decrementAndGet();
+				complete(oldest);
+			}
+		}
+
+		// Queries stay off the request thread, whose response lasts as long as the stream
+		execute(userId, () -> {
+			StringBuilder events = new StringBuilder();
+			if (lastEventId != null) {
+				int separator = lastEventId.lastIndexOf('_');
+				try {
+					LocalDateTime lastDate = LocalDateTime.parse(lastEventId.substring(0, Math.max(separator, 0)));
+					Long lastId = Long.valueOf(lastEventId.substring(separator + 1));
+					for (Notification missed : notificationService.getNotificationsAfter(userId, lastDate, lastId, replayLimit)) {
+						events.append(notificationEvent(NotificationDTO.from(missed)));
+					}
+				} catch (DateTimeParseException | NumberFormatException e) {
+					logger.debug("Last-Event-ID {} of user {} not replayed", lastEventId, userId);
+				}
+			}
+			events.append(unreadCountEvent(notificationService.getUnreadCount(userId)));
+			send(userId, emitter, events.toString());
+		});
+		return emitter;
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onNotificationChange(NotificationChangeEvent event) {
+		if (!streams.containsKey(event.getUserId())) {
+			return;
+		}
+		Long userId = event.getUserId();
+		execute(userId, () -> {
+			if (streams.containsKey(userId)) {
+				String events = (event.getNotification() != null ? notificationEvent(event.getNotification()) : "")
+						+ unreadCountEvent(notificationService.getUnreadCount(userId));
+				sendAll(userId, events);
+			}
+		});
+	}
+
+	// Same event to every stream, without id: Last-Event-ID only replays personal notifications
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onAnnouncement(AnnouncementEvent event) {
+		String announcement = notificationData(event.getAnnouncement());
+		for (Long userId : streams.keySet()) {
+			execute(userId, () -> sendAll(userId, announcement + unreadCountEvent(notificationService.getUnreadCount(userId))));
+		}
+	}
+
+	@Scheduled(fixedRateString = "${app.notificationHeartbeatMs:25000}",
+			initialDelayString = "${app.notificationHeartbeatMs:25000}")
+	public void heartbeat() {
+		if (executor.getQueue().size() > queueDepth / 2) {
+			logger.debug("Notification heartbeat skipped, {} deliveries queued", executor.getQueue().size());
+			return;
+		}
+		for (Long userId : streams.keySet()) {
+			try {
+				executor.execute(() -> sendAll(userId, HEARTBEAT));
+			} catch (RejectedExecutionException e) {
+				// Real deliveries are queued, the next heartbeat will do
+				return;
+			}
+		}
+	}
+
+	// A full queue closes the user's streams rather than holding the caller
+	private void execute(Long userId, Runnable task) {
+		try {
+			executor.execute(task);
+		} catch (RejectedExecutionException e) {
+			if (!executor.isShutdown()) {
+				logger.warn("Notification deliveries backed up, streams of user {} closed", userId);
+				close(userId);
+			}
+		}
+	}
+
+	private void sendAll(Long userId, String events) {
+		Deque<SseEmitter> userStreams = streams.get(userId);
+		if (userStreams != null) {
+			for (SseEmitter emitter : userStreams) {
+				send(userId, emitter, events);
+			}
+		}
+	}
+
+	// A stream whose client is gone is dropped, the container completes it. One whose client is too
+	// slow is dropped and completed, and so is one still blocked in an earlier write: waiting for it
+	// would hold this thread too, the blocked write completes it once it returns.
+	private void send(Long userId, SseEmitter emitter, String events) {
+		if (!sending.add(emitter)) {
+			logger.debug("Notification stream of user {} still blocked in a write, closed", userId);
+			remove(userId, emitter);
+			return;
+		}
+		long start = System.nanoTime();
+		try {
+			emitter.send(Set.of(new ResponseBodyEmitter.DataWithMediaType(events, TEXT_UTF8)));
+		} catch (IOException | IllegalStateException e) {
+			logger.debug("Notification stream of user {} closed: {}", userId, e.getMessage());
+			remove(userId, emitter);
+			return;
+		} finally {
+			sending.remove(emitter);
+		}
+		long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		if (elapsedMs > slowWriteMs) {
+			logger.debug("Notification stream of user {} took {} ms to write, closed", userId, elapsedMs);
+			remove(userId, emitter);
+		}
+		// Dropped by now, here or while the write was blocked
+		Deque<SseEmitter> userStreams = streams.get(userId);
+		if (userStreams == null || !userStreams.contains(emitter)) {
+			emitter.complete();
+		}
+	}
+
+	private void close(Long userId) {
+		Deque<SseEmitter> userStreams = streams.remove(userId);
+		if (userStreams != null) {
+			for (SseEmitter emitter : userStreams) {
+				connections.decrementAndGet();
+				complete(emitter);
+			}
+		}
+	}
+
+	// Completing waits for a write in progress, the writing thread completes it instead
+	private void complete(SseEmitter emitter) {
+		if (!sending.contains(emitter)) {
+			emitter.complete();
+		}
+	}
+
+	private void remove(Long userId, SseEmitter emitter) {
+		streams.computeIfPresent(userId, (id, userStreams) -> {
+			if (userStreams.remove(emitter)) {
+				connections.decrementAndGet();
+			}
+			return userStreams.isEmpty() ? null : userStreams;
+		});
+	}
+
+	// Microseconds, as stored: a date rounded up in the database is replayed again rather than missed
+	private String notificationEvent(NotificationDTO notification) {
+		return "id:" + notification.getDate().truncatedTo(ChronoUnit.MICROS) + "_" + notification.getId() + "\n"
+				+ notificationData(notification);
+	}
+
+	// Single-line JSON, so a single data field
+	private String notificationData(NotificationDTO notification) {
+		try {
+			return "event:notification\ndata:" + objectMapper.writeValueAsString(notification) + "\n\n";
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Notification not serializable", e);
+		}
+	}
+
+	private static String unreadCountEvent(long count) {
+		return "event:unread-count\ndata:" + count + "\n\n";
+	}
+
+	@Override
+	public void destroy() {
+		executor.shutdownNow();
+		streams.values().forEach(userStreams -> userStreams.forEach(SseEmitter::complete));
+		streams.clear();
+	}
+}
@@ -0,0 +1,86 @@
+package com.example.GestionPlanAction.service;
+
+import java.util.ArrayList;
+import java.util.function.Consumer;
+
+import com.example.GestionPlanAction.dto.ExerciseDTO;
+import com.example.GestionPlanAction.dto.PlanActionDTO;
+import com.example.GestionPlanAction.dto.ResponsableDTO;
+import com.example.GestionPlanAction.dto.VariableActionDTO;
+
+/**
+ * Folds the flat rows of {@code PlanActionRepository.findPlanRows} into one PlanActionDTO per plan
+ * in a single pass. Rows must be ordered by plan id; each plan is handed to the sink as soon as
+ * its last row has been seen, so only one plan is held in memory at a time.
+ */
+class PlanActionRowGrouper {
+
+	private static final int PLAN_ID = 0;
+	private static final int PLAN_TITRE = 1;
+	private static final int PLAN_DESCRIPTION = 2;
+	private static final int PLAN_STATUT = 3;
+	private static final int EXERCICE_ID = 4;
+	private static final int EXERCICE_ANNEE = 5;
+	private static final int EXERCICE_VERROUILLE = 6;
+	private static final int VA_ID = 7;
+	private static final int VA_DESCRIPTION = 8;
+	private static final int VA_POIDS = 9;
+	private static final int VA_FIGE = 10;
+	private static final int VA_NIVEAU = 11;
+	private static final int VA_MERE_ID = 12;
+	private static final int VA_RESPONSABLE_ID = 13;
+
+	private final Consumer<PlanActionDTO> sink;
+	private PlanActionDTO current;
+
+	PlanActionRowGrouper(Consumer<PlanActionDTO> sink) {
+		this.sink = sink;
+	}
+
+	void accept(Object[] row) {
+		Long planId = (Long) row[PLAN_ID];
+		if (current == null || !current.getId().equals(planId)) {
+			finish();
+			current = toPlan(row);
+		}
+		if (row[VA_ID] != null) {
+			current.getVariableActions().add(toVariableAction(row));
+		}
+	}
+
+	/** Emits the plan still being built, call once after the last row. */
+	void finish() {
+		if (current != null) {
+			sink.accept(current);
+			current = null;
+		}
+	}
+
+	private PlanActionDTO toPlan(Object[] row) {
+		PlanActionDTO plan = new PlanActionDTO();
+		plan.setId((Long) row[PLAN_ID]);
+		plan.setTitre((String) row[PLAN_TITRE]);
+		plan.setDescription((String) row[PLAN_DESCRIPTION]);
+		plan.setStatut(row[PLAN_STATUT] != null ? row[PLAN_STATUT].toString() : null);
+		if (row[EXERCICE_ID] != null) {
+			plan.setExercice(new ExerciseDTO((Long) row[EXERCICE_ID], (Integer) row[EXERCICE_ANNEE],
+					(Boolean) row[EXERCICE_VERROUILLE]));
+		}
+		plan.setVariableActions(new ArrayList<>());
+		return plan;
+	}
+
+	private VariableActionDTO toVariableAction(Object[] row) {
+		VariableActionDTO va = new VariableActionDTO();
+		va.setId((Long) row[VA_ID]);
+		va.setDescription((String) row[VA_DESCRIPTION]);
+		va.setPoids((Float) row[VA_POIDS]);
+		va.setFige((Boolean) row[VA_FIGE]);
+		va.setNiveau((Integer) row[VA_NIVEAU]);
+		va.setVaMere(row[VA_MERE_ID] != null ? row[VA_MERE_ID].toString() : null);
+		if (row[VA_RESPONSABLE_ID] != null) {
+			va.setResonableid(new ResponsableDTO((Long) row[VA_RESPONSABLE_ID]));
+		}
+		return va;
+	}
+}
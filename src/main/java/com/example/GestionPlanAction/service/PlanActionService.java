@@ -1,12 +1,15 @@
 package com.example.GestionPlanAction.service;
 
 import com.example.GestionPlanAction.dto.PlanActionDTO;
+import com.example.GestionPlanAction.dto.PlanActionPageDTO;
+import com.example.GestionPlanAction.enums.StatutPlanAction;
 import com.example.GestionPlanAction.model.PlanAction;
 
-import java.util.List;
+import java.util.function.Consumer;
 
 public interface PlanActionService {
-    List<PlanActionDTO> getAll();
+    PlanActionPageDTO getAll(Long after, int limit, StatutPlanAction statut, Long exerciceId, Long serviceLineId);
+    void exportAll(StatutPlanAction statut, Long exerciceId, Consumer<PlanActionDTO> sink);
     PlanAction getById(Long id);
     PlanAction create(PlanAction planAction);
     PlanAction update(Long id, PlanAction updated);
@@ -2,97 +2,99 @@ package com.example.GestionPlanAction.service;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import com.example.GestionPlanAction.dto.ExerciseDTO;
 import com.example.GestionPlanAction.dto.PlanActionDTO;
-import com.example.GestionPlanAction.dto.ResponsableDTO;
-import com.example.GestionPlanAction.dto.VariableActionDTO;
+import com.example.GestionPlanAction.dto.PlanActionPageDTO;
+import com.example.GestionPlanAction.enums.AuditOperation;
 import com.example.GestionPlanAction.enums.StatutPlanAction;
 import com.example.GestionPlanAction.model.PlanAction;
 import com.example.GestionPlanAction.model.VariableAction;
 import com.example.GestionPlanAction.repository.PlanActionRepository;
+import com.example.GestionPlanAction.repository.VariableActionRepository;
 
 @Service
 public class PlanActionServiceImpl implements PlanActionService {
 
+	static final int MAX_PAGE_SIZE = 500;
+
 	@Autowired
 	private PlanActionRepository repository;
 
 	@Autowired
 	private VariableActionService variableActionServicerepo;
 
-	@Override
-	public List<PlanActionDTO> getAll() {
+	@Autowired
+	private ProgressRollupService progressRollupService;
 
-		List<Object[]> plans = repository.findAllplans();
+	@Autowired
+	private VariableActionRepository variableActionRepository;
 
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
 
-		List<PlanActionDTO> pdto = new ArrayList<>();
-		
-	
-	
-		for (Object[] plan : plans) {
-			List<VariableActionDTO> variableActions = new ArrayList<>();
-			
-			PlanActionDTO planActionDTO = new PlanActionDTO();
-			ResponsableDTO responsableDTO = new ResponsableDTO();
-			VariableActionDTO variableAction = new VariableActionDTO();
-			ExerciseDTO exerciceDTO = new ExerciseDTO();
-			if(plan[7] == null) {
-			// Skip if the first element is null
-			}else {
-			variableAction.setDescription((String) plan[12]);
-			variableAction.setVaMere((String) plan[11]);
-			variableAction.setId((Long) plan[8]);
-			variableAction.setPoids((float) plan[7]);
-			variableAction.setFige((Boolean) plan[5]);
-			
-			variableAction.setResonableid(responsableDTO);
-			//variableAction.setNiveau((int) plan[6]);
-			responsableDTO.setId((Long) plan[9]);
+	@Autowired
+	private NotificationService notificationService;
 
-			}
+	@Override
+	public PlanActionPageDTO getAll(Long after, int limit, StatutPlanAction statut, Long exerciceId,
+			Long serviceLineId) {
+		int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+		// One extra id tells whether there is a next page
+		List<Long> ids = repository.findPlanIdsAfter(after != null ? after : 0L, statut, exerciceId, serviceLineId,
+				Limit.of(pageSize + 1));
+		Long nextCursor = null;
+		if (ids.size() > pageSize) {
+			ids = ids.subList(0, pageSize);
+			nextCursor = ids.get(pageSize - 1);
+		}
+		if (ids.isEmpty()) {
+			return new PlanActionPageDTO(new ArrayList<>(), null);
+		}
 
-			planActionDTO.setId((Long) plan[1]);
-			planActionDTO.setDescription((String) plan[2]);
-			planActionDTO.setTitre((String) plan[3]);
-			planActionDTO.setStatut((String) plan[4]);
-			exerciceDTO.setAnnee((Integer) plan[13]);
-			exerciceDTO.setVerrouille((Boolean) plan[14]);
-			exerciceDTO.setId((Long) plan[15]);
-			planActionDTO.setExercice(exerciceDTO);
-		//	exerciceDTO.setAnnee((Integer) plan[5]);
-		//	exerciceDTO.setVerrouille((Integer) plan[6]);
-			//exerciceDTO.setId((Long) plan[7]);
-			
-			variableActions.add(variableAction);
-			planActionDTO.setVariableActions(variableActions);
-		
-		
-			
-			pdto.add(planActionDTO);
-			
-			System.out.println("PlanAction récupéré: " + planActionDTO.toString());
+		List<PlanActionDTO> plans = new ArrayList<>(ids.size());
+		PlanActionRowGrouper grouper = new PlanActionRowGrouper(plans::add);
+		for (Object[] row : repository.findPlanRows(ids)) {
+			grouper.accept(row);
 		}
+		grouper.finish();
 
-		
-	
-		return pdto;
+		return new PlanActionPageDTO(plans, nextCursor);
 	}
 
+	@Override
+	@Transactional(readOnly = true)
+	public void exportAll(StatutPlanAction statut, Long exerciceId, Consumer<PlanActionDTO> sink) {
+		// Rows are streamed from the cursor and each plan leaves as soon as its rows are complete
+		PlanActionRowGrouper grouper = new PlanActionRowGrouper(sink);
+		try (Stream<Object[]> rows = repository.streamPlanRows(statut, exerciceId)) {
+			rows.forEach(grouper::accept);
+		}
+		grouper.finish();
+	}
+
+	@Audited(entity = PlanAction.class, operation = AuditOperation.READ)
 	@Override
 	public PlanAction getById(Long id) {
 		return repository.findById(id).orElseThrow(() -> new RuntimeException("PlanAction non trouvé"));
 	}
 
+	@Audited(entity = PlanAction.class, operation = AuditOperation.CREATE)
 	@Override
 	public PlanAction create(PlanAction planAction) {
 		if (planAction.getStatut() == null) {
 			planAction.setStatut(StatutPlanAction.EN_COURS_PLANIFICATION);
 		}
+		// Before the plan is saved, not to leave it without its VAs
+		VariableActionService.requireNew(planAction.getVariableActions());
 		System.out.println("Création d'un nouveau PlanAction: " + planAction.toString());
 		PlanAction getplan = new PlanAction();
 		// getplanaction(planAction.getTitre(), planAction.getDescription(),
@@ -103,12 +105,16 @@ public class PlanActionServiceImpl implements PlanActionService {
 		getplan.setStatut(planAction.getStatut());
 		getplan.setExercice(planAction.getExercice());
 		PlanAction pp = repository.save(getplan);
+		eventPublisher.publishEvent(addPlan(new DashboardCounterEvent(), pp.getStatut(), 1)
+				.add(DashboardCounters.PLANS, 1));
 		System.out.println("PlanAction créé avec succès: " + pp.toString());
 		List<VariableAction> variableActions = new ArrayList<>();
 		variableActions.addAll(planAction.getVariableActions());
 
 		if (variableActions.isEmpty()) {
 			variableActions.add(new VariableAction());
+			// Counts the empty plan in its exercice
+			progressRollupService.refresh(pp.getId());
 		}
 		else {
 			System.out.println("Nombre de VariableAction associées: " + variableActions.toString());
@@ -133,24 +139,70 @@ public class PlanActionServiceImpl implements PlanActionService {
 		
 	}
 
+	@Audited(entity = PlanAction.class, operation = AuditOperation.UPDATE)
 	@Override
+	@Transactional
 	public PlanAction update(Long id, PlanAction updated) {
 		PlanAction existing = getById(id);
-		existing.setTitre(updated.getTitre());
-		existing.setDescription(updated.getDescription());
-		existing.setStatut(updated.getStatut());
-		existing.setExercice(updated.getExercice());
-		return repository.save(existing);
+		// The exercice may change, which moves the plan's progress to another exercice
+		return progressRollupService.restructure(List.of(id), () -> {
+			existing.setTitre(updated.getTitre());
+			existing.setDescription(updated.getDescription());
+			existing.setExercice(updated.getExercice());
+			return saveStatut(existing, updated.getStatut());
+		});
 	}
 
+	@Audited(entity = PlanAction.class, operation = AuditOperation.STATUT)
+	@Transactional
 	public PlanAction updateStatus(Long id, String status) {
 		PlanAction plan = getById(id);
-		plan.setStatut(StatutPlanAction.valueOf(status));
-		return repository.save(plan);
+		return saveStatut(plan, StatutPlanAction.valueOf(status));
 	}
 
+	// A statut change moves the plan, and its VAs' responsables, between dashboard counters, and is
+	// notified to those responsables
+	private PlanAction saveStatut(PlanAction plan, StatutPlanAction statut) {
+		StatutPlanAction previous = plan.getStatut();
+		if (previous == statut) {
+			PlanAction saved = repository.save(plan);
+			eventPublisher.publishEvent(new DashboardCounterEvent());
+			return saved;
+		}
+		DashboardCounterEvent event = addPlan(new DashboardCounterEvent(), previous, -1)
+				.addVariableActions(variableActionRepository.countByResponsableAndStatutForPlans(List.of(plan.getId())), -1);
+		plan.setStatut(statut);
+		PlanAction saved = repository.save(plan);
+		event = addPlan(event, statut, 1)
+				.addVariableActions(variableActionRepository.countByResponsableAndStatutForPlans(List.of(plan.getId())), 1);
+		eventPublisher.publishEvent(event);
+		if (statut != null) {
+			notificationService.notifyPlanStatutChanged(saved.getId(), saved.getTitre(), statut);
+		}
+		return saved;
+	}
+
+	private static DashboardCounterEvent addPlan(DashboardCounterEvent event, StatutPlanAction statut, int sign) {
+		if (statut != null) {
+			event.add(DashboardCounters.plans(statut), sign);
+		}
+		return event;
+	}
+
+	@Audited(entity = PlanAction.class, operation = AuditOperation.DELETE)
 	@Override
+	@Transactional
 	public void delete(Long id) {
-		repository.deleteById(id);
+		// Set-based delete of the VA tree instead of cascading one VA at a time
+		progressRollupService.restructure(List.of(id), () -> {
+			PlanAction plan = repository.findById(id).orElse(null);
+			variableActionServicerepo.deleteByPlanActionId(id);
+			repository.deleteById(id);
+			if (plan != null) {
+				eventPublisher.publishEvent(addPlan(new DashboardCounterEvent(), plan.getStatut(), -1)
+						.add(DashboardCounters.PLANS, -1));
+			}
+			return null;
+		});
 	}
 }
@@ -0,0 +1,454 @@
+package com.example.GestionPlanAction.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.example.GestionPlanAction.dto.PlanImportDTO;
+import com.example.GestionPlanAction.dto.PlanImportErrorDTO;
+import com.example.GestionPlanAction.dto.PlanImportReportDTO;
+import com.example.GestionPlanAction.dto.VariableActionImportDTO;
+import com.example.GestionPlanAction.enums.StatutPlanAction;
+import com.example.GestionPlanAction.exception.BadRequestException;
+import com.example.GestionPlanAction.model.Exercice;
+import com.example.GestionPlanAction.model.PlanAction;
+import com.example.GestionPlanAction.model.User;
+import com.example.GestionPlanAction.model.VariableAction;
+import com.example.GestionPlanAction.model.VariableActionClosure;
+import com.example.GestionPlanAction.model.VariableActionClosureId;
+import com.example.GestionPlanAction.repository.UserRepository;
+import com.example.GestionPlanAction.repository.VariableActionRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Bulk import of plans and their variable-action trees from a CSV or JSON-lines file.
+ *
+ * Rows are validated in parallel against in-memory lookup tables (usernames, exercice years),
+ * then valid plans are persisted in chunks, one transaction per chunk, which Hibernate flushes
+ * as JDBC insert batches.
+ */
+@Service
+public class PlanImportService {
+
+	private static final Logger logger = LoggerFactory.getLogger(PlanImportService.class);
+
+	static final String[] CSV_COLUMNS = { "planRef", "titre", "description", "statut", "exercice", "vaRef", "vaMere",
+			"vaDescription", "niveau", "poids", "fige", "avancement", "responsable" };
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private ReferenceData referenceData;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private ProgressRollupService progressRollupService;
+
+	@Autowired
+	private VariableActionRepository variableActionRepository;
+
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	@Value("${app.planImportChunkSize:500}")
+	private int chunkSize;
+
+	public PlanImportReportDTO importFile(MultipartFile file) {
+		long start = System.currentTimeMillis();
+		PlanImportReportDTO report = new PlanImportReportDTO();
+		List<PlanImportErrorDTO> errors = Collections.synchronizedList(new ArrayList<>());
+
+		List<PlanImportDTO> plans;
+		try {
+			plans = isCsv(file) ? parseCsv(file, errors) : parseJsonLines(file, errors);
+		} catch (IOException e) {
+			throw new BadRequestException("Fichier d'import illisible: " + e.getMessage(), e);
+		}
+
+		Map<String, Long> userIds = new HashMap<>();
+		for (Object[] row : userRepository.findAllUsernameIds()) {
+			userIds.put((String) row[0], (Long) row[1]);
+		}
+		Map<Integer, Long> exerciceIds = new HashMap<>();
+		for (Exercice exercice : referenceData.get().getExercices()) {
+			exerciceIds.putIfAbsent(exercice.getAnnee(), exercice.getId());
+		}
+
+		List<ValidPlan> valid = plans.parallelStream()
+				.map(plan -> validate(plan, userIds, exerciceIds, errors))
+				.filter(plan -> plan != null)
+				.toList();
+		report.setPlansRejected(plans.size() - valid.size());
+
+		for (int from = 0; from < valid.size(); from += chunkSize) {
+			List<ValidPlan> chunk = valid.subList(from, Math.min(from + chunkSize, valid.size()));
+			try {
+				int vas = transactionTemplate.execute(status -> writeChunk(chunk));
+				report.setPlansImported(report.getPlansImported() + chunk.size());
+				report.setVariableActionsImported(report.getVariableActionsImported() + vas);
+			} catch (RuntimeException e) {
+				logger.error("Import chunk of {} plans failed: {}", chunk.size(), e.getMessage());
+				report.setPlansRejected(report.getPlansRejected() + chunk.size());
+				for (ValidPlan plan : chunk) {
+					errors.add(new PlanImportErrorDTO(plan.source.getLine(), plan.source.getRef(),
+							"Échec de l'écriture du lot: " + e.getMessage()));
+				}
+			}
+		}
+
+		List<PlanImportErrorDTO> sorted = new ArrayList<>(errors);
+		sorted.sort((a, b) -> Integer.compare(a.getLine(), b.getLine()));
+		report.setErrors(sorted);
+		report.setDurationMs(System.currentTimeMillis() - start);
+		logger.info("Imported {} plans and {} variable actions in {} ms ({} plans rejected)",
+				report.getPlansImported(), report.getVariableActionsImported(), report.getDurationMs(),
+				report.getPlansRejected());
+		return report;
+	}
+
+	// ---------------------------------------------------------------- parsing
+
+	private boolean isCsv(MultipartFile file) {
+		String name = file.getOriginalFilename() != null ? file.getOriginalFilename().toLowerCase() : "";
+		return name.endsWith(".csv") || "text/csv".equals(file.getContentType());
+	}
+
+	private List<PlanImportDTO> parseJsonLines(MultipartFile file, List<PlanImportErrorDTO> errors)
+			throws IOException {
+		List<PlanImportDTO> plans = new ArrayList<>();
+		try (BufferedReader reader = reader(file)) {
+			String line;
+			int lineNumber = 0;
+			while ((line = reader.readLine()) != null) {
+				lineNumber++;
+				if (line.isBlank()) {
+					continue;
+				}
+				try {
+					PlanImportDTO plan = objectMapper.readValue(line, PlanImportDTO.class);
+					plan.setLine(lineNumber);
+					if (plan.getVariableActions() == null) {
+						plan.setVariableActions(new ArrayList<>());
+					}
+					for (VariableActionImportDTO va : plan.getVariableActions()) {
+						va.setLine(lineNumber);
+					}
+					plans.add(plan);
+				} catch (JsonProcessingException e) {
+					errors.add(new PlanImportErrorDTO(lineNumber, null, "JSON invalide: " + e.getOriginalMessage()));
+				}
+			}
+		}
+		return plans;
+	}
+
+	List<PlanImportDTO> parseCsv(MultipartFile file, List<PlanImportErrorDTO> errors) throws IOException {
+		// Rows of a plan do not have to be contiguous, plans keep the order of their first row
+		Map<String, PlanImportDTO> plans = new LinkedHashMap<>();
+		try (BufferedReader reader = reader(file)) {
+			CsvRecordReader csv = new CsvRecordReader(reader);
+			String header = csv.readLine();
+			if (header == null) {
+				return new ArrayList<>();
+			}
+			char separator = header.indexOf(';') >= 0 ? ';' : ',';
+			Map<String, Integer> columns = new HashMap<>();
+			List<String> names = csv.parse(header, separator);
+			for (int i = 0; i < names.size(); i++) {
+				columns.put(names.get(i).trim(), i);
+			}
+			if (!columns.containsKey("planRef")) {
+				throw new BadRequestException("Colonne planRef manquante, colonnes attendues: "
+						+ String.join(String.valueOf(separator), CSV_COLUMNS));
+			}
+
+			List<String> cells;
+			while ((cells = csv.next(separator)) != null) {
+				int lineNumber = csv.getRecordLine();
+				if (csv.isUnterminated()) {
+					// The open cell swallowed the rest of the file, nothing after it can be read
+					errors.add(new PlanImportErrorDTO(lineNumber, cell(cells, columns, "planRef"),
+							"Guillemet fermant manquant: la cellule ouverte à cette ligne va jusqu'à la fin du fichier"));
+					break;
+				}
+				if (cells.size() == 1 && cells.get(0).isBlank()) {
+					continue;
+				}
+				String planRef = cell(cells, columns, "planRef");
+				if (planRef == null) {
+					errors.add(new PlanImportErrorDTO(lineNumber, null, "planRef manquant"));
+					continue;
+				}
+
+				PlanImportDTO plan = plans.get(planRef);
+				if (plan == null) {
+					plan = new PlanImportDTO();
+					plan.setRef(planRef);
+					plan.setLine(lineNumber);
+					plan.setTitre(cell(cells, columns, "titre"));
+					plan.setDescription(cell(cells, columns, "description"));
+					plan.setStatut(cell(cells, columns, "statut"));
+					plans.put(planRef, plan);
+				}
+				try {
+					if (plan.getExercice() == null && cell(cells, columns, "exercice") != null) {
+						plan.setExercice(Integer.valueOf(cell(cells, columns, "exercice")));
+					}
+
+					// A row without vaRef only describes the plan
+					String vaRef = cell(cells, columns, "vaRef");
+					if (vaRef != null) {
+						VariableActionImportDTO va = new VariableActionImportDTO();
+						va.setLine(lineNumber);
+						va.setRef(vaRef);
+						va.setVaMere(cell(cells, columns, "vaMere"));
+						va.setDescription(cell(cells, columns, "vaDescription"));
+						va.setResponsable(cell(cells, columns, "responsable"));
+						String niveau = cell(cells, columns, "niveau");
+						va.setNiveau(niveau != null ? Integer.valueOf(niveau) : null);
+						String poids = cell(cells, columns, "poids");
+						va.setPoids(poids != null ? Float.valueOf(poids.replace(',', '.')) : null);
+						va.setFige(Boolean.parseBoolean(cell(cells, columns, "fige")));
+						String avancement = cell(cells, columns, "avancement");
+						va.setAvancement(avancement != null ? Float.valueOf(avancement.replace(',', '.')) : null);
+						plan.getVariableActions().add(va);
+					}
+				} catch (NumberFormatException e) {
+					errors.add(new PlanImportErrorDTO(lineNumber, planRef, "Valeur numérique invalide: " + e.getMessage()));
+					// Keep the plan out of the import: its tree would be incomplete
+					plan.setRejected(true);
+				}
+			}
+		}
+		return new ArrayList<>(plans.values());
+	}
+
+	private BufferedReader reader(MultipartFile file) throws IOException {
+		return new BufferedReader(new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8));
+	}
+
+	private static String cell(List<String> cells, Map<String, Integer> columns, String name) {
+		Integer index = columns.get(name);
+		if (index == null || index >= cells.size()) {
+			return null;
+		}
+		String value = cells.get(index).trim();
+		return value.isEmpty() ? null : value;
+	}
+
+	// ------------------------------------------------------------- validation
+
+	/** A plan that passed validation, with every reference resolved and its VAs grouped by tree depth. */
+	private static class ValidPlan {
+		final PlanImportDTO source;
+		final StatutPlanAction statut;
+		final Long exerciceId;
+		final List<List<VariableActionImportDTO>> levels;
+		final Map<VariableActionImportDTO, Long> responsableIds;
+
+		ValidPlan(PlanImportDTO source, StatutPlanAction statut, Long exerciceId,
+				List<List<VariableActionImportDTO>> levels, Map<VariableActionImportDTO, Long> responsableIds) {
+			this.source = source;
+			this.statut = statut;
+			this.exerciceId = exerciceId;
+			this.levels = levels;
+			this.responsableIds = responsableIds;
+		}
+	}
+
+	private ValidPlan validate(PlanImportDTO plan, Map<String, Long> userIds, Map<Integer, Long> exerciceIds,
+			List<PlanImportErrorDTO> errors) {
+		if (plan.isRejected()) {
+			return null;
+		}
+		List<PlanImportErrorDTO> planErrors = new ArrayList<>();
+
+		if (plan.getTitre() == null || plan.getTitre().isBlank()) {
+			planErrors.add(error(plan.getLine(), plan, "Titre manquant"));
+		}
+
+		StatutPlanAction statut = StatutPlanAction.EN_COURS_PLANIFICATION;
+		if (plan.getStatut() != null) {
+			try {
+				statut = StatutPlanAction.valueOf(plan.getStatut());
+			} catch (IllegalArgumentException e) {
+				planErrors.add(error(plan.getLine(), plan, "Statut inconnu: " + plan.getStatut()));
+			}
+		}
+
+		Long exerciceId = null;
+		if (plan.getExercice() != null) {
+			exerciceId = exerciceIds.get(plan.getExercice());
+			if (exerciceId == null) {
+				planErrors.add(error(plan.getLine(), plan, "Exercice introuvable: " + plan.getExercice()));
+			}
+		}
+
+		Map<String, VariableActionImportDTO> byRef = new HashMap<>();
+		Map<VariableActionImportDTO, Long> responsableIds = new IdentityHashMap<>();
+		for (VariableActionImportDTO va : plan.getVariableActions()) {
+			if (va.getRef() == null || byRef.putIfAbsent(va.getRef(), va) != null) {
+				planErrors.add(error(va.getLine(), plan, "Référence de VA manquante ou dupliquée: " + va.getRef()));
+			}
+			if (va.getPoids() != null && va.getPoids() < 0) {
+				planErrors.add(error(va.getLine(), plan, "Poids négatif pour la VA " + va.getRef()));
+			}
+			if (va.getAvancement() != null && (va.getAvancement() < 0 || va.getAvancement() > 100)) {
+				planErrors.add(error(va.getLine(), plan, "Avancement hors de 0 à 100 pour la VA " + va.getRef()));
+			}
+			if (va.getResponsable() != null) {
+				Long responsableId = userIds.get(va.getResponsable());
+				if (responsableId == null) {
+					planErrors.add(error(va.getLine(), plan, "Responsable introuvable: " + va.getResponsable()));
+				} else {
+					responsableIds.put(va, responsableId);
+				}
+			}
+		}
+
+		// Depth of each VA from its vaMere chain, rejecting unknown parents and cycles
+		Map<VariableActionImportDTO, Integer> depths = new IdentityHashMap<>();
+		for (VariableActionImportDTO va : plan.getVariableActions()) {
+			int depth = 0;
+			VariableActionImportDTO current = va;
+			while (current != null && current.getVaMere() != null) {
+				VariableActionImportDTO parent = byRef.get(current.getVaMere());
+				if (parent == null) {
+					planErrors.add(error(current.getLine(), plan, "VA mère introuvable: " + current.getVaMere()));
+					break;
+				}
+				if (++depth > byRef.size()) {
+					planErrors.add(error(va.getLine(), plan, "Cycle dans la hiérarchie de la VA " + va.getRef()));
+					break;
+				}
+				current = parent;
+			}
+			depths.put(va, depth);
+		}
+
+		if (!planErrors.isEmpty()) {
+			errors.addAll(planErrors);
+			return null;
+		}
+
+		List<List<VariableActionImportDTO>> levels = new ArrayList<>();
+		for (VariableActionImportDTO va : plan.getVariableActions()) {
+			int depth = depths.get(va);
+			while (levels.size() <= depth) {
+				levels.add(new ArrayList<>());
+			}
+			levels.get(depth).add(va);
+		}
+		return new ValidPlan(plan, statut, exerciceId, levels, responsableIds);
+	}
+
+	private static PlanImportErrorDTO error(int line, PlanImportDTO plan, String message) {
+		return new PlanImportErrorDTO(line, plan.getRef(), message);
+	}
+
+	// ---------------------------------------------------------------- writing
+
+	/**
+	 * Persists one chunk of plans and returns the number of VAs inserted. Runs inside a transaction.
+	 * Ids come from the pooled allocator, so Hibernate sends the rows as JDBC batches on flush.
+	 */
+	private int writeChunk(List<ValidPlan> chunk) {
+		int inserted = 0;
+		List<Long> planIds = new ArrayList<>(chunk.size());
+		DashboardCounterEvent counters = new DashboardCounterEvent();
+		for (ValidPlan plan : chunk) {
+			PlanAction entity = new PlanAction();
+			entity.setTitre(plan.source.getTitre());
+			entity.setDescription(plan.source.getDescription());
+			entity.setStatut(plan.statut);
+			if (plan.exerciceId != null) {
+				entity.setExercice(entityManager.getReference(Exercice.class, plan.exerciceId));
+			}
+			entityManager.persist(entity);
+			planIds.add(entity.getId());
+			counters.add(DashboardCounters.PLANS, 1);
+			if (plan.statut != null) {
+				counters.add(DashboardCounters.plans(plan.statut), 1);
+			}
+
+			// Level by level so that parents are persisted, and inserted, before their children
+			Map<String, VariableAction> byRef = new HashMap<>();
+			Map<String, List<VariableAction>> ancestorsByRef = new HashMap<>();
+			for (List<VariableActionImportDTO> level : plan.levels) {
+				for (VariableActionImportDTO va : level) {
+					VariableAction vaEntity = new VariableAction();
+					vaEntity.setDescription(va.getDescription());
+					vaEntity.setPoids(va.getPoids() != null ? va.getPoids() : 0f);
+					vaEntity.setFige(Boolean.TRUE.equals(va.getFige()));
+					vaEntity.setNiveau(va.getNiveau() != null ? va.getNiveau() : 0);
+					vaEntity.setAvancement(va.getAvancement() != null ? va.getAvancement() : 0f);
+					vaEntity.setPlanAction(entity);
+					if (va.getVaMere() != null) {
+						vaEntity.setVaMere(byRef.get(va.getVaMere()));
+					}
+					Long responsableId = plan.responsableIds.get(va);
+					if (responsableId != null) {
+						vaEntity.setResponsable(entityManager.getReference(User.class, responsableId));
+					}
+					entityManager.persist(vaEntity);
+					byRef.put(va.getRef(), vaEntity);
+					inserted++;
+
+					// Closure rows, built from the chain already known instead of queried per VA
+					List<VariableAction> ancestors = new ArrayList<>();
+					if (va.getVaMere() != null) {
+						ancestors.add(byRef.get(va.getVaMere()));
+						ancestors.addAll(ancestorsByRef.get(va.getVaMere()));
+					}
+					ancestorsByRef.put(va.getRef(), ancestors);
+					entityManager.persist(closure(vaEntity, vaEntity, 0));
+					for (int depth = 1; depth <= ancestors.size(); depth++) {
+						entityManager.persist(closure(ancestors.get(depth - 1), vaEntity, depth));
+					}
+				}
+			}
+		}
+		entityManager.flush();
+		entityManager.clear();
+		for (Long planId : planIds) {
+			progressRollupService.refresh(planId);
+		}
+		eventPublisher.publishEvent(
+				counters.addVariableActions(variableActionRepository.countByResponsableAndStatutForPlans(planIds), 1));
+		return inserted;
+	}
+
+	private static VariableActionClosure closure(VariableAction ancestor, VariableAction descendant, int depth) {
+		return new VariableActionClosure(new VariableActionClosureId(ancestor.getId(), descendant.getId()), depth);
+	}
+}
@@ -3,6 +3,7 @@ package com.example.GestionPlanAction.service;
 import com.example.GestionPlanAction.model.Profil;
 import com.example.GestionPlanAction.repository.ProfilRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -14,28 +15,44 @@ public class ProfilService {
     @Autowired
     private ProfilRepository profilRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ReferenceData referenceData;
+
     public List<Profil> getAllProfils() {
-        return profilRepository.findAll();
+        return referenceData.get().getProfils();
     }
 
     public Optional<Profil> getProfilById(Long id) {
-        return profilRepository.findById(id);
+        return Optional.ofNullable(referenceData.getProfil(id));
     }
 
     public Profil createProfil(Profil profil) {
-        return profilRepository.save(profil);
+        Profil saved = profilRepository.save(profil);
+        eventPublisher.publishEvent(new DashboardCounterEvent().add(DashboardCounters.PROFILS, 1));
+        eventPublisher.publishEvent(new ReferenceDataEvent());
+        return saved;
     }
 
     public Profil updateProfil(Long id, Profil updatedProfil) {
-        return profilRepository.findById(id)
+        Profil saved = profilRepository.findById(id)
                 .map(profil -> {
                     profil.setNom(updatedProfil.getNom());
                     return profilRepository.save(profil);
                 })
                 .orElseThrow(() -> new RuntimeException("Profil introuvable"));
+        eventPublisher.publishEvent(new ReferenceDataEvent());
+        return saved;
     }
 
     public void deleteProfil(Long id) {
+        boolean existed = profilRepository.existsById(id);
         profilRepository.deleteById(id);
+        if (existed) {
+            eventPublisher.publishEvent(new DashboardCounterEvent().add(DashboardCounters.PROFILS, -1));
+            eventPublisher.publishEvent(new ReferenceDataEvent());
+        }
     }
 }
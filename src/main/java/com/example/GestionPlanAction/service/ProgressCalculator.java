@@ -0,0 +1,96 @@
+package com.example.GestionPlanAction.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Computes the weighted progress of one plan's VA tree from scratch, children before parents.
+ * Rows are (id, poids, avancement, vaMere id) as returned by findProgressRowsByPlanActionId.
+ */
+class ProgressCalculator {
+
+	static final class Node {
+		final Long id;
+		final float poids;
+		final float avancement;
+		final Long parentId;
+		final List<Node> children = new ArrayList<>();
+		double weightedSum;
+		double weightSum;
+		double progress;
+
+		Node(Long id, float poids, float avancement, Long parentId) {
+			this.id = id;
+			this.poids = poids;
+			this.avancement = avancement;
+			this.parentId = parentId;
+		}
+	}
+
+	private final Map<Long, Node> nodes = new HashMap<>();
+	private double planWeightedSum;
+	private double planWeightSum;
+
+	ProgressCalculator(List<Object[]> rows) {
+		for (Object[] row : rows) {
+			Node node = new Node((Long) row[0], (Float) row[1], (Float) row[2], (Long) row[3]);
+			nodes.put(node.id, node);
+		}
+
+		List<Node> roots = new ArrayList<>();
+		for (Node node : nodes.values()) {
+			Node parent = node.parentId != null ? nodes.get(node.parentId) : null;
+			if (parent != null) {
+				parent.children.add(node);
+			} else {
+				roots.add(node);
+			}
+		}
+
+		// Breadth-first order read backwards visits every child before its parent
+		List<Node> order = new ArrayList<>(nodes.size());
+		Deque<Node> queue = new ArrayDeque<>(roots);
+		while (!queue.isEmpty()) {
+			Node node = queue.poll();
+			order.add(node);
+			queue.addAll(node.children);
+		}
+		for (int i = order.size() - 1; i >= 0; i--) {
+			Node node = order.get(i);
+			for (Node child : node.children) {
+				node.weightedSum += child.poids * child.progress;
+				node.weightSum += child.poids;
+			}
+			node.progress = ratio(node.weightedSum, node.weightSum, node.avancement);
+		}
+
+		for (Node root : roots) {
+			planWeightedSum += root.poids * root.progress;
+			planWeightSum += root.poids;
+		}
+	}
+
+	static double ratio(double weightedSum, double weightSum, double fallback) {
+		return weightSum > 0 ? weightedSum / weightSum : fallback;
+	}
+
+	Map<Long, Node> getNodes() {
+		return nodes;
+	}
+
+	double getPlanWeightedSum() {
+		return planWeightedSum;
+	}
+
+	double getPlanWeightSum() {
+		return planWeightSum;
+	}
+
+	double getPlanProgress() {
+		return ratio(planWeightedSum, planWeightSum, 0);
+	}
+}
@@ -0,0 +1,173 @@
+package com.example.GestionPlanAction.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.GestionPlanAction.dto.ProgressCheckReportDTO;
+import com.example.GestionPlanAction.dto.ProgressMismatchDTO;
+import com.example.GestionPlanAction.enums.ProgressScope;
+import com.example.GestionPlanAction.model.ProgressRollup;
+import com.example.GestionPlanAction.model.ProgressRollupId;
+import com.example.GestionPlanAction.repository.PlanActionRepository;
+import com.example.GestionPlanAction.repository.ProgressRollupRepository;
+import com.example.GestionPlanAction.repository.VariableActionRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Recomputes every progress_rollup row from the VA trees, plans in parallel, and compares the
+ * result with what the incremental updates stored. With repair, the stored rows are replaced.
+ *
+ * The recomputation is not isolated from concurrent writers: a mismatch on a plan edited during
+ * the check can be a false positive, and a repair should run while the application is quiet.
+ */
+@Service
+public class ProgressConsistencyChecker {
+
+	private static final Logger logger = LoggerFactory.getLogger(ProgressConsistencyChecker.class);
+
+	// Deltas on doubles drift slightly from a full recomputation
+	private static final double TOLERANCE = 1e-6;
+
+	private static final int MAX_REPORTED_MISMATCHES = 100;
+
+	private static final int REPAIR_FLUSH_SIZE = 500;
+
+	@Autowired
+	private ProgressRollupRepository rollupRepository;
+
+	@Autowired
+	private VariableActionRepository variableActionRepository;
+
+	@Autowired
+	private PlanActionRepository planActionRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	public ProgressCheckReportDTO check(boolean repair) {
+		long start = System.currentTimeMillis();
+		Map<ProgressRollupId, ProgressRollup> expected = recompute();
+
+		Map<ProgressRollupId, ProgressRollup> stored = new HashMap<>();
+		for (ProgressRollup row : rollupRepository.findAll()) {
+			stored.put(row.getId(), row);
+		}
+
+		ProgressCheckReportDTO report = new ProgressCheckReportDTO();
+		report.setPlansChecked((int) expected.keySet().stream().filter(id -> id.getScope() == ProgressScope.PLAN).count());
+		report.setRowsChecked(expected.size());
+		for (ProgressRollup row : expected.values()) {
+			ProgressRollup current = stored.get(row.getId());
+			if (current == null || differs(current, row)) {
+				mismatch(report, row.getId(), current, row);
+			}
+		}
+		for (ProgressRollup row : stored.values()) {
+			// An aggregate emptied by deltas keeps its row at zero weight, same as no row
+			if (!expected.containsKey(row.getId()) && !isEmpty(row)) {
+				mismatch(report, row.getId(), row, null);
+			}
+		}
+
+		if (repair && report.getMismatchCount() > 0) {
+			transactionTemplate.executeWithoutResult(status -> {
+				rollupRepository.deleteAllRows();
+				// The stored rows read above may still be managed (open session in view)
+				entityManager.clear();
+				int pending = 0;
+				for (ProgressRollup row : expected.values()) {
+					entityManager.persist(row);
+					if (++pending % REPAIR_FLUSH_SIZE == 0) {
+						entityManager.flush();
+						entityManager.clear();
+					}
+				}
+			});
+			report.setRepaired(true);
+		}
+
+		report.setDurationMs(System.currentTimeMillis() - start);
+		if (report.getMismatchCount() > 0) {
+			logger.warn("Progress check: {} mismatches over {} rows ({} plans){}", report.getMismatchCount(),
+					report.getRowsChecked(), report.getPlansChecked(), report.isRepaired() ? ", repaired" : "");
+		}
+		return report;
+	}
+
+	private Map<ProgressRollupId, ProgressRollup> recompute() {
+		List<Object[]> plans = planActionRepository.findAllExerciceIds();
+
+		// One tree query and one calculation per plan, spread over the common pool
+		Map<Long, ProgressCalculator> calculators = new ConcurrentHashMap<>();
+		plans.parallelStream().forEach(plan -> {
+			Long planId = (Long) plan[0];
+			calculators.put(planId, new ProgressCalculator(variableActionRepository.findProgressRowsByPlanActionId(planId)));
+		});
+
+		Map<ProgressRollupId, ProgressRollup> rows = new HashMap<>();
+		for (Object[] plan : plans) {
+			Long planId = (Long) plan[0];
+			Long exerciceId = (Long) plan[1];
+			ProgressCalculator calculator = calculators.get(planId);
+			for (ProgressCalculator.Node node : calculator.getNodes().values()) {
+				rows.put(key(ProgressScope.VARIABLE_ACTION, node.id), new ProgressRollup(
+						key(ProgressScope.VARIABLE_ACTION, node.id), node.weightedSum, node.weightSum, node.progress));
+			}
+			rows.put(key(ProgressScope.PLAN, planId), new ProgressRollup(key(ProgressScope.PLAN, planId),
+					calculator.getPlanWeightedSum(), calculator.getPlanWeightSum(), calculator.getPlanProgress()));
+			if (exerciceId != null) {
+				add(rows, key(ProgressScope.EXERCICE, exerciceId), calculator.getPlanProgress(), 1);
+			}
+		}
+		for (Object[] row : variableActionRepository.countByPlanAndServiceLine()) {
+			long count = (Long) row[2];
+			double planProgress = calculators.get((Long) row[0]).getPlanProgress();
+			add(rows, key(ProgressScope.SERVICE_LINE, (Long) row[1]), planProgress * count, count);
+		}
+		return rows;
+	}
+
+	private static void add(Map<ProgressRollupId, ProgressRollup> rows, ProgressRollupId id, double weighted,
+			double weight) {
+		ProgressRollup row = rows.computeIfAbsent(id, key -> new ProgressRollup(key, 0, 0, 0));
+		row.setWeightedSum(row.getWeightedSum() + weighted);
+		row.setWeightSum(row.getWeightSum() + weight);
+	}
+
+	private static boolean differs(ProgressRollup stored, ProgressRollup expected) {
+		return Math.abs(stored.currentProgress() - expected.currentProgress()) > TOLERANCE
+				|| Math.abs(stored.getWeightSum() - expected.getWeightSum()) > TOLERANCE;
+	}
+
+	private static boolean isEmpty(ProgressRollup row) {
+		return row.getId().getScope() != ProgressScope.VARIABLE_ACTION && row.getId().getScope() != ProgressScope.PLAN
+				&& Math.abs(row.getWeightSum()) <= TOLERANCE && Math.abs(row.getWeightedSum()) <= TOLERANCE;
+	}
+
+	private static void mismatch(ProgressCheckReportDTO report, ProgressRollupId id, ProgressRollup stored,
+			ProgressRollup expected) {
+		report.setMismatchCount(report.getMismatchCount() + 1);
+		if (report.getMismatches().size() < MAX_REPORTED_MISMATCHES) {
+			report.getMismatches().add(new ProgressMismatchDTO(id.getScope(), id.getScopeId(),
+					stored != null ? stored.currentProgress() : null,
+					expected != null ? expected.currentProgress() : null));
+		}
+	}
+
+	private static ProgressRollupId key(ProgressScope scope, Long id) {
+		return new ProgressRollupId(scope, id);
+	}
+}
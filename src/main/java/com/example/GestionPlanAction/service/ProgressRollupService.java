@@ -0,0 +1,248 @@
+package com.example.GestionPlanAction.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.GestionPlanAction.dto.ProgressDTO;
+import com.example.GestionPlanAction.enums.ProgressScope;
+import com.example.GestionPlanAction.model.ProgressRollup;
+import com.example.GestionPlanAction.model.ProgressRollupId;
+import com.example.GestionPlanAction.repository.PlanActionRepository;
+import com.example.GestionPlanAction.repository.ProgressRollupRepository;
+import com.example.GestionPlanAction.repository.VariableActionClosureRepository;
+import com.example.GestionPlanAction.repository.VariableActionRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Keeps progress_rollup in step with the VA trees.
+ *
+ * An avancement change is applied as a delta to the VA's ancestors only, then to its plan, and
+ * from the plan to its exercice and service lines. Changes to the shape of a tree (VAs added,
+ * removed, moved, re-weighted, reassigned) go through {@link #restructure}: the plan's current
+ * contribution is taken out of the aggregates, the change runs, and the plan is recomputed from
+ * one query on its VAs.
+ *
+ * Both paths lock the plan's PLAN row first, which serialises all writers of a given tree.
+ */
+@Service
+public class ProgressRollupService {
+
+	private static final Logger logger = LoggerFactory.getLogger(ProgressRollupService.class);
+
+	@Autowired
+	private ProgressRollupRepository rollupRepository;
+
+	@Autowired
+	private VariableActionRepository variableActionRepository;
+
+	@Autowired
+	private VariableActionClosureRepository closureRepository;
+
+	@Autowired
+	private PlanActionRepository planActionRepository;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	public ProgressDTO getProgress(ProgressScope scope, Long id) {
+		return rollupRepository.findById(new ProgressRollupId(scope, id))
+				.map(row -> new ProgressDTO(scope, id, row.currentProgress(), row.getWeightSum()))
+				.orElse(new ProgressDTO(scope, id, 0, 0));
+	}
+
+	/** Propagates a new avancement of one VA to its ancestors, its plan and the aggregates. */
+	@Transactional
+	public void applyAvancement(Long vaId, Long planId, float avancement) {
+		if (planId == null) {
+			return;
+		}
+		ProgressRollup planRow = rollupRepository.lockById(key(ProgressScope.PLAN, planId)).orElse(null);
+		ProgressRollup node = planRow != null
+				? rollupRepository.findById(key(ProgressScope.VARIABLE_ACTION, vaId)).orElse(null)
+				: null;
+		if (node == null) {
+			// Not rolled up yet, index the whole plan
+			refresh(planId);
+			return;
+		}
+		if (node.getWeightSum() > 0) {
+			// Progress of a VA with weighted sous-VAs only comes from them
+			return;
+		}
+		double delta = avancement - node.getProgress();
+		node.setProgress(avancement);
+		if (delta == 0) {
+			return;
+		}
+
+		List<Long> ancestors = closureRepository.findAncestorIds(vaId);
+		List<Long> chain = new ArrayList<>(ancestors);
+		chain.add(vaId);
+		Map<Long, Float> poids = new HashMap<>();
+		for (Object[] row : variableActionRepository.findPoids(chain)) {
+			poids.put((Long) row[0], (Float) row[1]);
+		}
+		Map<Long, ProgressRollup> rows = new HashMap<>();
+		if (!ancestors.isEmpty()) {
+			for (ProgressRollup row : rollupRepository.findByScopeAndIds(ProgressScope.VARIABLE_ACTION, ancestors)) {
+				rows.put(row.getId().getScopeId(), row);
+			}
+		}
+
+		Long child = vaId;
+		for (Long ancestorId : ancestors) {
+			ProgressRollup row = rows.get(ancestorId);
+			if (row == null) {
+				logger.warn("Missing progress row for VA {}, recomputing plan {}", ancestorId, planId);
+				refresh(planId);
+				return;
+			}
+			if (row.getWeightSum() <= 0) {
+				// The ancestor falls back to its own avancement, nothing above it moves
+				return;
+			}
+			double before = row.getProgress();
+			row.setWeightedSum(row.getWeightedSum() + poids.get(child) * delta);
+			row.setProgress(row.getWeightedSum() / row.getWeightSum());
+			delta = row.getProgress() - before;
+			if (delta == 0) {
+				return;
+			}
+			child = ancestorId;
+		}
+
+		double before = planRow.getProgress();
+		planRow.setWeightedSum(planRow.getWeightedSum() + poids.get(child) * delta);
+		planRow.setProgress(ProgressCalculator.ratio(planRow.getWeightedSum(), planRow.getWeightSum(), 0));
+		double planDelta = planRow.getProgress() - before;
+		if (planDelta != 0) {
+			Long exerciceId = planActionRepository.findExerciceId(planId);
+			if (exerciceId != null) {
+				addToAggregate(ProgressScope.EXERCICE, exerciceId, planDelta, 0);
+			}
+			for (Object[] row : variableActionRepository.countByServiceLineForPlan(planId)) {
+				addToAggregate(ProgressScope.SERVICE_LINE, (Long) row[0], planDelta * (Long) row[1], 0);
+			}
+		}
+	}
+
+	/**
+	 * Runs a change to the shape of the given plans' trees and recomputes those plans. Every plan
+	 * whose VAs, weights, responsables or exercice the change touches must be listed.
+	 */
+	@Transactional
+	public <T> T restructure(Collection<Long> planIds, Supplier<T> change) {
+		// Locks are always taken in plan id order
+		Map<Long, ProgressRollup> planRows = new TreeMap<>();
+		Map<Long, List<Long>> previousVaIds = new HashMap<>();
+		for (Long planId : planIds.stream().filter(Objects::nonNull).distinct().sorted().toList()) {
+			ProgressRollup planRow = rollupRepository.lockById(key(ProgressScope.PLAN, planId)).orElse(null);
+			if (planRow != null) {
+				addPlanToAggregates(planId, planRow.getProgress(), -1);
+			}
+			planRows.put(planId, planRow);
+			previousVaIds.put(planId, progressRowIds(planId));
+		}
+
+		T result = change.get();
+
+		// Rows of VAs that left a plan go first, a VA moved between plans gets a fresh row below
+		for (Long planId : planRows.keySet()) {
+			List<Long> current = progressRowIds(planId);
+			List<Long> stale = new ArrayList<>(previousVaIds.get(planId));
+			stale.removeAll(current);
+			if (!stale.isEmpty()) {
+				rollupRepository.deleteByScopeAndIds(ProgressScope.VARIABLE_ACTION, stale);
+			}
+		}
+		for (Map.Entry<Long, ProgressRollup> entry : planRows.entrySet()) {
+			if (planActionRepository.existsById(entry.getKey())) {
+				attach(entry.getKey(), entry.getValue());
+			} else if (entry.getValue() != null) {
+				entityManager.remove(entry.getValue());
+			}
+		}
+		return result;
+	}
+
+	/** Recomputes one plan from its VAs, e.g. after it was created. */
+	@Transactional
+	public void refresh(Long planId) {
+		restructure(List.of(planId), () -> null);
+	}
+
+	private void attach(Long planId, ProgressRollup planRow) {
+		ProgressCalculator calculator = new ProgressCalculator(
+				variableActionRepository.findProgressRowsByPlanActionId(planId));
+
+		Map<Long, ProgressRollup> existing = new HashMap<>();
+		if (!calculator.getNodes().isEmpty()) {
+			for (ProgressRollup row : rollupRepository.findByScopeAndIds(ProgressScope.VARIABLE_ACTION,
+					calculator.getNodes().keySet())) {
+				existing.put(row.getId().getScopeId(), row);
+			}
+		}
+		for (ProgressCalculator.Node node : calculator.getNodes().values()) {
+			ProgressRollup row = existing.get(node.id);
+			if (row == null) {
+				row = new ProgressRollup(key(ProgressScope.VARIABLE_ACTION, node.id), 0, 0, 0);
+				entityManager.persist(row);
+			}
+			row.setWeightedSum(node.weightedSum);
+			row.setWeightSum(node.weightSum);
+			row.setProgress(node.progress);
+		}
+
+		if (planRow == null) {
+			planRow = new ProgressRollup(key(ProgressScope.PLAN, planId), 0, 0, 0);
+			entityManager.persist(planRow);
+		}
+		planRow.setWeightedSum(calculator.getPlanWeightedSum());
+		planRow.setWeightSum(calculator.getPlanWeightSum());
+		planRow.setProgress(calculator.getPlanProgress());
+		addPlanToAggregates(planId, calculator.getPlanProgress(), 1);
+	}
+
+	// sign is 1 to count the plan in its exercice and service lines, -1 to take it out
+	private void addPlanToAggregates(Long planId, double progress, int sign) {
+		double planProgress = sign * progress;
+		Long exerciceId = planActionRepository.findExerciceId(planId);
+		if (exerciceId != null) {
+			addToAggregate(ProgressScope.EXERCICE, exerciceId, planProgress, sign);
+		}
+		for (Object[] row : variableActionRepository.countByServiceLineForPlan(planId)) {
+			long count = (Long) row[1];
+			addToAggregate(ProgressScope.SERVICE_LINE, (Long) row[0], planProgress * count, sign * count);
+		}
+	}
+
+	private void addToAggregate(ProgressScope scope, Long id, double weightedDelta, double weightDelta) {
+		rollupRepository.addToSums(scope.name(), id, weightedDelta, weightDelta);
+	}
+
+	private List<Long> progressRowIds(Long planId) {
+		List<Long> ids = new ArrayList<>();
+		for (Object[] row : variableActionRepository.findProgressRowsByPlanActionId(planId)) {
+			ids.add((Long) row[0]);
+		}
+		return ids;
+	}
+
+	private static ProgressRollupId key(ProgressScope scope, Long id) {
+		return new ProgressRollupId(scope, id);
+	}
+}
@@ -0,0 +1,95 @@
+package com.example.GestionPlanAction.service;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.GestionPlanAction.model.Exercice;
+import com.example.GestionPlanAction.model.Profil;
+import com.example.GestionPlanAction.model.ServiceLine;
+import com.example.GestionPlanAction.repository.ExerciceRepository;
+import com.example.GestionPlanAction.repository.ProfilRepository;
+import com.example.GestionPlanAction.repository.ServiceLineRepository;
+
+/**
+ * The current {@link ReferenceDataSnapshot}, loaded on first use: three small tables read often and
+ * written rarely.
+ *
+ * Once a change published as a {@link ReferenceDataEvent} commits, the tables are read again and
+ * the new snapshot replaces the old one in a single write, so readers see either all of a change
+ * or none of it. Every app.referenceDataRefreshMs the tables are read again as well, which picks up
+ * what other instances wrote, and a lookup by id that misses reloads once. A snapshot with the same
+ * content keeps its version, otherwise the version moves; versions start from the instance's start
+ * time so that ETags from before a restart never match.
+ */
+@Service
+public class ReferenceData {
+
+	private final AtomicLong versions = new AtomicLong(System.currentTimeMillis() * 1000);
+
+	private volatile ReferenceDataSnapshot snapshot;
+
+	@Autowired
+	private ProfilRepository profilRepository;
+
+	@Autowired
+	private ServiceLineRepository serviceLineRepository;
+
+	@Autowired
+	private ExerciceRepository exerciceRepository;
+
+	public ReferenceDataSnapshot get() {
+		ReferenceDataSnapshot current = snapshot;
+		return current != null ? current : reload();
+	}
+
+	public Profil getProfil(Long id) {
+		return lookup(snapshot -> snapshot.getProfil(id), id);
+	}
+
+	public ServiceLine getServiceLine(Long id) {
+		return lookup(snapshot -> snapshot.getServiceLine(id), id);
+	}
+
+	public Exercice getExercice(Long id) {
+		return lookup(snapshot -> snapshot.getExercice(id), id);
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onChange(ReferenceDataEvent event) {
+		reload();
+	}
+
+	@Scheduled(fixedDelayString = "${app.referenceDataRefreshMs:60000}",
+			initialDelayString = "${app.referenceDataRefreshMs:60000}")
+	public void refresh() {
+		reload();
+	}
+
+	// Written by another instance since the last load, or unknown
+	private <T> T lookup(Function<ReferenceDataSnapshot, T> lookup, Long id) {
+		if (id == null) {
+			return null;
+		}
+		T found = lookup.apply(get());
+		return found != null ? found : lookup.apply(reload());
+	}
+
+	private synchronized ReferenceDataSnapshot reload() {
+		Sort byId = Sort.by("id");
+		List<Profil> profils = profilRepository.findAll(byId);
+		List<ServiceLine> serviceLines = serviceLineRepository.findAll(byId);
+		List<Exercice> exercices = exerciceRepository.findAll(byId);
+		ReferenceDataSnapshot current = snapshot;
+		if (current == null || !current.hasContent(profils, serviceLines, exercices)) {
+			snapshot = new ReferenceDataSnapshot(versions.incrementAndGet(), profils, serviceLines, exercices);
+		}
+		return snapshot;
+	}
+}
@@ -0,0 +1,8 @@
+package com.example.GestionPlanAction.service;
+
+/**
+ * Profils, service lines or exercices were created, updated or deleted. Listeners run once the
+ * change has committed.
+ */
+public class ReferenceDataEvent {
+}
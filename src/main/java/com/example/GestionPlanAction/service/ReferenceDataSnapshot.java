@@ -0,0 +1,128 @@
+package com.example.GestionPlanAction.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+import com.example.GestionPlanAction.model.Exercice;
+import com.example.GestionPlanAction.model.Profil;
+import com.example.GestionPlanAction.model.ServiceLine;
+
+/**
+ * Profils, service lines and exercices as loaded at one point, with lookups by id and by name or
+ * year. Never modified once built, entities included: writes go through the repositories and
+ * replace the whole snapshot.
+ */
+public final class ReferenceDataSnapshot {
+
+	private final long version;
+
+	private final List<Profil> profils;
+
+	private final List<ServiceLine> serviceLines;
+
+	private final List<Exercice> exercices;
+
+	private final Map<Long, Profil> profilsById;
+
+	private final Map<String, Profil> profilsByNom;
+
+	private final Map<Long, ServiceLine> serviceLinesById;
+
+	private final Map<String, ServiceLine> serviceLinesByNom;
+
+	private final Map<Long, Exercice> exercicesById;
+
+	private final Map<Integer, Exercice> exercicesByAnnee;
+
+	ReferenceDataSnapshot(long version, List<Profil> profils, List<ServiceLine> serviceLines,
+			List<Exercice> exercices) {
+		this.version = version;
+		this.profils = List.copyOf(profils);
+		this.serviceLines = List.copyOf(serviceLines);
+		this.exercices = List.copyOf(exercices);
+		this.profilsById = index(profils, Profil::getId);
+		this.profilsByNom = index(profils, Profil::getNom);
+		this.serviceLinesById = index(serviceLines, ServiceLine::getId);
+		this.serviceLinesByNom = index(serviceLines, ServiceLine::getNom);
+		this.exercicesById = index(exercices, Exercice::getId);
+		this.exercicesByAnnee = index(exercices, Exercice::getAnnee);
+	}
+
+	// First in list order for duplicate keys, null keys left out
+	private static <K, V> Map<K, V> index(List<V> values, Function<V, K> key) {
+		Map<K, V> index = new HashMap<>();
+		for (V value : values) {
+			K k = key.apply(value);
+			if (k != null) {
+				index.putIfAbsent(k, value);
+			}
+		}
+		return Map.copyOf(index);
+	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	/** Strong ETag of anything served from this snapshot. */
+	public String getEtag() {
+		return "\"ref-" + version + "\"";
+	}
+
+	public List<Profil> getProfils() {
+		return profils;
+	}
+
+	public Profil getProfil(Long id) {
+		return id != null ? profilsById.get(id) : null;
+	}
+
+	public Profil getProfil(String nom) {
+		return nom != null ? profilsByNom.get(nom) : null;
+	}
+
+	public List<ServiceLine> getServiceLines() {
+		return serviceLines;
+	}
+
+	public ServiceLine getServiceLine(Long id) {
+		return id != null ? serviceLinesById.get(id) : null;
+	}
+
+	public ServiceLine getServiceLine(String nom) {
+		return nom != null ? serviceLinesByNom.get(nom) : null;
+	}
+
+	public List<Exercice> getExercices() {
+		return exercices;
+	}
+
+	public Exercice getExercice(Long id) {
+		return id != null ? exercicesById.get(id) : null;
+	}
+
+	/** The exercice of a year, the oldest one when there are several. */
+	public Exercice getExercice(int annee) {
+		return exercicesByAnnee.get(annee);
+	}
+
+	// Service line equality would touch their users
+	boolean hasContent(List<Profil> otherProfils, List<ServiceLine> otherServiceLines,
+			List<Exercice> otherExercices) {
+		if (!profils.equals(otherProfils) || !exercices.equals(otherExercices)
+				|| serviceLines.size() != otherServiceLines.size()) {
+			return false;
+		}
+		for (int i = 0; i < serviceLines.size(); i++) {
+			ServiceLine mine = serviceLines.get(i);
+			ServiceLine theirs = otherServiceLines.get(i);
+			if (!Objects.equals(mine.getId(), theirs.getId()) || !Objects.equals(mine.getNom(), theirs.getNom())) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,220 @@
+package com.example.GestionPlanAction.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.GestionPlanAction.repository.AuditRepository;
+import com.example.GestionPlanAction.repository.NotificationRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Nightly purge of read notifications older than app.notificationRetentionDays and of audit rows
+ * older than app.auditRetentionDays; 0 keeps a table untouched.
+ *
+ * Before the purge, audit rows older than app.auditArchiveDays move to the {@link AuditArchive},
+ * by chunks of app.auditArchiveBlockSize rows in id order, each appended and forced to disk before
+ * it is deleted from the table; 0 keeps them all in the table. Archived months go once they are
+ * past app.auditRetentionDays.
+ *
+ * Rows are deleted in chunks of app.purgeChunkSize ids, walked in id order from where the previous
+ * chunk stopped, each chunk in its own short transaction followed by a pause of app.purgePauseMs,
+ * so that locks are held briefly and concurrent writes get through. The purge runs on its own
+ * thread, scheduled jobs sharing the scheduler are not delayed.
+ *
+ * Each run logs the rows removed per second by table. The time spent in the DELETE statements,
+ * which is where lock waits show up, is recorded in the retention.delete.duration timer next to
+ * the retention.rows.deleted counter.
+ */
+@Service
+public class RetentionService implements DisposableBean {
+
+	private static final Logger logger = LoggerFactory.getLogger(RetentionService.class);
+
+	private final ThreadPoolExecutor executor;
+
+	private final AtomicBoolean running = new AtomicBoolean();
+
+	private final MeterRegistry meterRegistry;
+
+	@Autowired
+	private NotificationRepository notificationRepository;
+
+	@Autowired
+	private AuditRepository auditRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private AuditArchive auditArchive;
+
+	@Value("${app.notificationRetentionDays:90}")
+	private int notificationRetentionDays;
+
+	@Value("${app.auditRetentionDays:365}")
+	private int auditRetentionDays;
+
+	@Value("${app.auditArchiveDays:90}")
+	private int auditArchiveDays;
+
+	@Value("${app.auditArchiveBlockSize:4096}")
+	private int archiveBlockSize;
+
+	@Value("${app.purgeChunkSize:1000}")
+	private int chunkSize;
+
+	@Value("${app.purgePauseMs:100}")
+	private long pauseMs;
+
+	public RetentionService(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+		this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+			Thread thread = new Thread(runnable, "retention-purge");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	@Scheduled(cron = "${app.purgeCron:0 30 2 * * *}")
+	public void schedulePurge() {
+		if (running.compareAndSet(false, true)) {
+			executor.execute(() -> {
+				try {
+					purge();
+				} finally {
+					running.set(false);
+				}
+			});
+		}
+	}
+
+	public void purge() {
+		if (notificationRetentionDays > 0) {
+			LocalDateTime before = LocalDateTime.now().minusDays(notificationRetentionDays);
+			purge("notification", after -> notificationRepository.findReadIdsBefore(before, after, Limit.of(chunkSize)),
+					notificationRepository::deleteByIdIn);
+		}
+		if (auditArchiveDays > 0) {
+			archiveAudits(LocalDate.now().minusDays(auditArchiveDays).atStartOfDay());
+		}
+		if (auditRetentionDays > 0) {
+			LocalDateTime before = LocalDateTime.now().minusDays(auditRetentionDays);
+			purge("audit", after -> auditRepository.findIdsBefore(before, after, Limit.of(chunkSize)),
+					auditRepository::deleteByIdIn);
+			try {
+				long rows = auditArchive.deleteBefore(before);
+				if (rows > 0) {
+					logger.info("Purged {} archived audit rows", rows);
+				}
+			} catch (IOException e) {
+				logger.error("Archived audit months before {} not purged", before, e);
+			}
+		}
+	}
+
+	// Chunks in id order, each in the archive before it leaves the table
+	private void archiveAudits(LocalDateTime before) {
+		Counter archived = Counter.builder("retention.rows.archived").tag("table", "audit").register(meterRegistry);
+		long start = System.currentTimeMillis();
+		long rows = 0;
+		long after = 0;
+		try (Closeable lock = auditArchive.lockForWriting()) {
+			if (lock == null) {
+				logger.info("Audit archive locked by another instance, not archiving");
+				return;
+			}
+			while (true) {
+				List<AuditRow> chunk = auditRepository.findRowsBefore(before, after, Limit.of(archiveBlockSize)).stream()
+						.map(AuditRow::from)
+						.toList();
+				if (chunk.isEmpty()) {
+					break;
+				}
+				auditArchive.append(chunk);
+				List<Long> ids = chunk.stream().map(AuditRow::id).toList();
+				transactionTemplate.execute(status -> auditRepository.deleteByIdIn(ids));
+				rows += chunk.size();
+				archived.increment(chunk.size());
+				after = ids.get(ids.size() - 1);
+				if (chunk.size() < archiveBlockSize) {
+					break;
+				}
+				Thread.sleep(pauseMs);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (IOException | RuntimeException e) {
+			// Rows not deleted yet are archived again by the next run, searches drop the duplicates
+			logger.error("Archiving of audit rows stopped after {} rows", rows, e);
+		}
+		long elapsedMs = Math.max(1, System.currentTimeMillis() - start);
+		logger.info("Archived {} audit rows before {} in {} ms ({} rows/s)", rows, before, elapsedMs,
+				rows * 1000 / elapsedMs);
+	}
+
+	// Chunks of ids in id order, the next one starting after the last id of the previous
+	private void purge(String table, Function<Long, List<Long>> nextIds, Function<List<Long>, Integer> delete) {
+		Timer deleteTimer = Timer.builder("retention.delete.duration").tag("table", table).register(meterRegistry);
+		Counter deleted = Counter.builder("retention.rows.deleted").tag("table", table).register(meterRegistry);
+		long start = System.currentTimeMillis();
+		long rows = 0;
+		long deleteNanos = 0;
+		long maxDeleteNanos = 0;
+		long after = 0;
+		try {
+			while (true) {
+				List<Long> ids = nextIds.apply(after);
+				if (ids.isEmpty()) {
+					break;
+				}
+				long chunkStart = System.nanoTime();
+				Integer removed = transactionTemplate.execute(status -> delete.apply(ids));
+				long elapsed = System.nanoTime() - chunkStart;
+				deleteTimer.record(elapsed, TimeUnit.NANOSECONDS);
+				deleteNanos += elapsed;
+				maxDeleteNanos = Math.max(maxDeleteNanos, elapsed);
+				rows += removed != null ? removed : 0;
+				deleted.increment(removed != null ? removed : 0);
+				after = ids.get(ids.size() - 1);
+				if (ids.size() < chunkSize) {
+					break;
+				}
+				Thread.sleep(pauseMs);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (RuntimeException e) {
+			// The next run starts over from the first id
+			logger.error("Purge of {} stopped after {} rows", table, rows, e);
+		}
+		long elapsedMs = Math.max(1, System.currentTimeMillis() - start);
+		logger.info("Purged {} rows from {} in {} ms ({} rows/s), deletes took {} ms, longest {} ms", rows, table,
+				elapsedMs, rows * 1000 / elapsedMs, deleteNanos / 1_000_000, maxDeleteNanos / 1_000_000);
+	}
+
+	@Override
+	public void destroy() {
+		executor.shutdownNow();
+	}
+}
@@ -3,6 +3,7 @@ package com.example.GestionPlanAction.service;
 import com.example.GestionPlanAction.model.ServiceLine;
 import com.example.GestionPlanAction.repository.ServiceLineRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -13,31 +14,53 @@ public class ServiceLineServiceImpl implements ServiceLineService {
     @Autowired
     private ServiceLineRepository repository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ReferenceData referenceData;
+
     @Override
     public List<ServiceLine> getAll() {
-        return repository.findAll();
+        return referenceData.get().getServiceLines();
     }
 
     @Override
     public ServiceLine getById(Long id) {
-        return repository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Service Line non trouvée"));
+        ServiceLine serviceLine = referenceData.getServiceLine(id);
+        if (serviceLine == null) {
+            throw new RuntimeException("Service Line non trouvée");
+        }
+        return serviceLine;
     }
 
     @Override
     public ServiceLine create(ServiceLine serviceLine) {
-        return repository.save(serviceLine);
+        ServiceLine saved = repository.save(serviceLine);
+        eventPublisher.publishEvent(new DashboardCounterEvent().add(DashboardCounters.SERVICE_LINES, 1));
+        eventPublisher.publishEvent(new ReferenceDataEvent());
+        return saved;
     }
 
     @Override
     public ServiceLine update(Long id, ServiceLine updated) {
-        ServiceLine existing = getById(id);
+        ServiceLine existing = repository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Service Line non trouvée"));
         existing.setNom(updated.getNom());
-        return repository.save(existing);
+        ServiceLine saved = repository.save(existing);
+        // Service line names appear in the dashboards
+        eventPublisher.publishEvent(new DashboardCounterEvent());
+        eventPublisher.publishEvent(new ReferenceDataEvent());
+        return saved;
     }
 
     @Override
     public void delete(Long id) {
+        boolean existed = repository.existsById(id);
         repository.deleteById(id);
+        if (existed) {
+            eventPublisher.publishEvent(new DashboardCounterEvent().add(DashboardCounters.SERVICE_LINES, -1));
+            eventPublisher.publishEvent(new ReferenceDataEvent());
+        }
     }
 }
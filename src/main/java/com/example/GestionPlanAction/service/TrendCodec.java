@@ -0,0 +1,68 @@
+package com.example.GestionPlanAction.service;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Delta encoding of the daily points of a trend segment.
+ *
+ * Each point is written as two varints: the number of days since the previous point (since the
+ * segment's first day for the first one), then the zigzag-encoded difference with the previous
+ * value. Consecutive days with small changes take two bytes per point.
+ */
+public final class TrendCodec {
+
+	private TrendCodec() {
+	}
+
+	/** Points are epoch day to value, days not before firstDay. */
+	public static byte[] encode(long firstDay, NavigableMap<Long, Long> points) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(points.size() * 2);
+		long previousDay = firstDay;
+		long previousValue = 0;
+		for (Map.Entry<Long, Long> point : points.entrySet()) {
+			writeVarint(out, point.getKey() - previousDay);
+			long delta = point.getValue() - previousValue;
+			writeVarint(out, (delta << 1) ^ (delta >> 63));
+			previousDay = point.getKey();
+			previousValue = point.getValue();
+		}
+		return out.toByteArray();
+	}
+
+	public static NavigableMap<Long, Long> decode(long firstDay, byte[] bytes) {
+		NavigableMap<Long, Long> points = new TreeMap<>();
+		long day = firstDay;
+		long value = 0;
+		int[] position = { 0 };
+		while (position[0] < bytes.length) {
+			day += readVarint(bytes, position);
+			long zigzag = readVarint(bytes, position);
+			value += (zigzag >>> 1) ^ -(zigzag & 1);
+			points.put(day, value);
+		}
+		return points;
+	}
+
+	private static void writeVarint(ByteArrayOutputStream out, long value) {
+		while ((value & ~0x7FL) != 0) {
+			out.write((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.write((int) value);
+	}
+
+	private static long readVarint(byte[] bytes, int[] position) {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			byte b = bytes[position[0]++];
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IllegalStateException("Varint trop long dans un segment de tendance");
+	}
+}
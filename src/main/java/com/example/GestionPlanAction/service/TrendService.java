@@ -0,0 +1,297 @@
+package com.example.GestionPlanAction.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.GestionPlanAction.dto.TrendPointDTO;
+import com.example.GestionPlanAction.dto.TrendSeriesDTO;
+import com.example.GestionPlanAction.enums.ProgressScope;
+import com.example.GestionPlanAction.enums.StatutPlanAction;
+import com.example.GestionPlanAction.enums.TrendMetric;
+import com.example.GestionPlanAction.enums.TrendResolution;
+import com.example.GestionPlanAction.exception.BadRequestException;
+import com.example.GestionPlanAction.model.Exercice;
+import com.example.GestionPlanAction.model.ProgressRollup;
+import com.example.GestionPlanAction.model.ServiceLine;
+import com.example.GestionPlanAction.model.TrendSegment;
+import com.example.GestionPlanAction.model.TrendSegmentId;
+import com.example.GestionPlanAction.repository.PlanActionRepository;
+import com.example.GestionPlanAction.repository.ProgressRollupRepository;
+import com.example.GestionPlanAction.repository.TrendSegmentRepository;
+import com.example.GestionPlanAction.repository.VariableActionRepository;
+
+/**
+ * Daily history of the dashboard figures, for trend charts.
+ *
+ * Every series keeps one value per day, the last one recorded that day. All series are recorded
+ * by a job shortly before midnight; plan statut counts are also recorded whenever a committed
+ * change moves them, so the current day follows the dashboard. Days are kept in one
+ * {@link TrendSegment} per series and year.
+ *
+ * Long ranges are downsampled into weekly or monthly buckets carrying the average, minimum and
+ * maximum of their days.
+ */
+@Service
+public class TrendService implements DisposableBean {
+
+	private static final Logger logger = LoggerFactory.getLogger(TrendService.class);
+
+	// Widest range served day by day, then week by week
+	private static final long DAILY_MAX_DAYS = 92;
+	private static final long WEEKLY_MAX_DAYS = 731;
+
+	private final TransactionTemplate requiresNew;
+
+	// Statut counts are recorded off the request thread, which still holds its connection after the commit
+	private final ExecutorService recorder = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "trend-recorder");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	// A burst of changes is recorded once, by the run already queued
+	private final AtomicBoolean statutsPending = new AtomicBoolean();
+
+	@Autowired
+	private TrendSegmentRepository segmentRepository;
+
+	@Autowired
+	private PlanActionRepository planActionRepository;
+
+	@Autowired
+	private VariableActionRepository variableActionRepository;
+
+	@Autowired
+	private ProgressRollupRepository rollupRepository;
+
+	@Autowired
+	private ReferenceData referenceData;
+
+	public TrendService(PlatformTransactionManager transactionManager) {
+		this.requiresNew = new TransactionTemplate(transactionManager);
+		this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+	}
+
+	@Scheduled(cron = "${app.trendSnapshotCron:0 55 23 * * *}")
+	public void snapshot() {
+		long start = System.currentTimeMillis();
+		LocalDate today = LocalDate.now();
+		Map<TrendMetric, Map<String, Long>> values = new LinkedHashMap<>();
+		values.put(TrendMetric.PLANS_BY_STATUT, statutCounts());
+		values.put(TrendMetric.PLANS_BY_SERVICE_LINE, withZeros(serviceLineIds(),
+				variableActionRepository.countPlansByServiceLine()));
+		values.put(TrendMetric.PLANS_BY_EXERCICE, withZeros(exerciceIds(), planActionRepository.countByExercice()));
+		values.put(TrendMetric.PROGRESS_BY_SERVICE_LINE, progress(ProgressScope.SERVICE_LINE, serviceLineIds(),
+				TrendMetric.PROGRESS_BY_SERVICE_LINE.getScale()));
+		values.put(TrendMetric.PROGRESS_BY_EXERCICE, progress(ProgressScope.EXERCICE, exerciceIds(),
+				TrendMetric.PROGRESS_BY_EXERCICE.getScale()));
+
+		int points = 0;
+		for (Map.Entry<TrendMetric, Map<String, Long>> metric : values.entrySet()) {
+			if (record(metric.getKey(), today, metric.getValue())) {
+				points += metric.getValue().size();
+			}
+		}
+		logger.info("Trend snapshot of {}: {} points in {} ms", today, points, System.currentTimeMillis() - start);
+	}
+
+	// Keeps today's statut counts in step with the dashboard
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onCounterEvent(DashboardCounterEvent event) {
+		if (event.changesPlanStatuts() && statutsPending.compareAndSet(false, true)) {
+			recorder.execute(() -> {
+				// Cleared before counting, a change committing meanwhile queues the next run
+				statutsPending.set(false);
+				try {
+					record(TrendMetric.PLANS_BY_STATUT, LocalDate.now(), statutCounts());
+				} catch (RuntimeException e) {
+					logger.warn("Trend statut counts not read: {}", e.getMessage());
+				}
+			});
+		}
+	}
+
+	@Override
+	public void destroy() {
+		recorder.shutdownNow();
+	}
+
+	/** Series of a metric between two days included, resolution chosen from the range when null. */
+	public List<TrendSeriesDTO> getSeries(TrendMetric metric, LocalDate from, LocalDate to, TrendResolution resolution) {
+		if (from.isAfter(to)) {
+			throw new BadRequestException("La date de début doit précéder la date de fin");
+		}
+		TrendResolution effective = resolution != null ? resolution : resolutionFor(from, to);
+		Map<String, String> labels = labels(metric);
+		long fromDay = from.toEpochDay();
+		long toDay = to.toEpochDay();
+
+		Map<String, NavigableMap<Long, Long>> byDimension = new HashMap<>();
+		for (TrendSegment segment : segmentRepository.findByMetricAndYears(metric, from.getYear(), to.getYear())) {
+			NavigableMap<Long, Long> days = TrendCodec.decode(firstDay(segment.getId().getYear()), segment.getPoints())
+					.subMap(fromDay, true, toDay, true);
+			byDimension.computeIfAbsent(segment.getId().getDimension(), dimension -> new TreeMap<>()).putAll(days);
+		}
+
+		List<TrendSeriesDTO> series = new ArrayList<>();
+		byDimension.forEach((dimension, days) -> series.add(new TrendSeriesDTO(metric, dimension,
+				labels.getOrDefault(dimension, dimension), effective, buckets(days, effective, metric.getScale()))));
+		series.sort(Comparator.comparing(TrendSeriesDTO::getLabel));
+		return series;
+	}
+
+	// Writes one day of every dimension of a metric, false when it could not be stored
+	private boolean record(TrendMetric metric, LocalDate day, Map<String, Long> values) {
+		try {
+			requiresNew.executeWithoutResult(status -> values.forEach((dimension, value) -> {
+				TrendSegmentId id = new TrendSegmentId(metric, dimension, day.getYear());
+				TrendSegment segment = segmentRepository.lockById(id)
+						.orElseGet(() -> new TrendSegment(id, new byte[0], 0));
+				long firstDay = firstDay(day.getYear());
+				NavigableMap<Long, Long> points = TrendCodec.decode(firstDay, segment.getPoints());
+				points.put(day.toEpochDay(), value);
+				segment.setPoints(TrendCodec.encode(firstDay, points));
+				segment.setPointCount(points.size());
+				segmentRepository.save(segment);
+			}));
+			return true;
+		} catch (RuntimeException e) {
+			// Two writers creating the same segment, or the database unavailable: the next write catches up
+			logger.warn("Trend points of {} for {} not stored: {}", metric, day, e.getMessage());
+			return false;
+		}
+	}
+
+	private Map<String, Long> statutCounts() {
+		Map<String, Long> counts = new LinkedHashMap<>();
+		for (StatutPlanAction statut : StatutPlanAction.values()) {
+			counts.put(statut.name(), 0L);
+		}
+		for (Object[] row : planActionRepository.getStatusDistribution()) {
+			if (row[0] != null) {
+				counts.put(((StatutPlanAction) row[0]).name(), (Long) row[1]);
+			}
+		}
+		return counts;
+	}
+
+	// Rows are (id, count), ids without a row count zero
+	private static Map<String, Long> withZeros(List<Long> ids, List<Object[]> rows) {
+		Map<String, Long> counts = new LinkedHashMap<>();
+		ids.forEach(id -> counts.put(id.toString(), 0L));
+		for (Object[] row : rows) {
+			counts.put(row[0].toString(), (Long) row[1]);
+		}
+		return counts;
+	}
+
+	private Map<String, Long> progress(ProgressScope scope, List<Long> ids, int scale) {
+		Map<String, Long> values = new LinkedHashMap<>();
+		ids.forEach(id -> values.put(id.toString(), 0L));
+		for (ProgressRollup rollup : rollupRepository.findByScope(scope)) {
+			values.put(rollup.getId().getScopeId().toString(), Math.round(rollup.currentProgress() * scale));
+		}
+		return values;
+	}
+
+	private List<Long> serviceLineIds() {
+		return referenceData.get().getServiceLines().stream().map(ServiceLine::getId).toList();
+	}
+
+	private List<Long> exerciceIds() {
+		return referenceData.get().getExercices().stream().map(Exercice::getId).toList();
+	}
+
+	private Map<String, String> labels(TrendMetric metric) {
+		Map<String, String> labels = new HashMap<>();
+		switch (metric) {
+			case PLANS_BY_SERVICE_LINE, PROGRESS_BY_SERVICE_LINE ->
+					referenceData.get().getServiceLines().forEach(sl -> labels.put(sl.getId().toString(), sl.getNom()));
+			case PLANS_BY_EXERCICE, PROGRESS_BY_EXERCICE ->
+					referenceData.get().getExercices().forEach(e -> labels.put(e.getId().toString(), String.valueOf(e.getAnnee())));
+			default -> {
+				// Statut names are their own labels
+			}
+		}
+		return labels;
+	}
+
+	private static TrendResolution resolutionFor(LocalDate from, LocalDate to) {
+		long days = ChronoUnit.DAYS.between(from, to) + 1;
+		if (days <= DAILY_MAX_DAYS) {
+			return TrendResolution.DAY;
+		}
+		return days <= WEEKLY_MAX_DAYS ? TrendResolution.WEEK : TrendResolution.MONTH;
+	}
+
+	// Days are in order, so each bucket is filled before the next one starts
+	private static List<TrendPointDTO> buckets(NavigableMap<Long, Long> days, TrendResolution resolution, int scale) {
+		List<TrendPointDTO> points = new ArrayList<>();
+		LocalDate bucket = null;
+		long sum = 0;
+		long min = 0;
+		long max = 0;
+		int count = 0;
+		for (Map.Entry<Long, Long> day : days.entrySet()) {
+			LocalDate start = bucketStart(LocalDate.ofEpochDay(day.getKey()), resolution);
+			if (!start.equals(bucket)) {
+				if (count > 0) {
+					points.add(point(bucket, sum, min, max, count, scale));
+				}
+				bucket = start;
+				sum = 0;
+				min = Long.MAX_VALUE;
+				max = Long.MIN_VALUE;
+				count = 0;
+			}
+			long value = day.getValue();
+			sum += value;
+			min = Math.min(min, value);
+			max = Math.max(max, value);
+			count++;
+		}
+		if (count > 0) {
+			points.add(point(bucket, sum, min, max, count, scale));
+		}
+		return points;
+	}
+
+	private static TrendPointDTO point(LocalDate bucket, long sum, long min, long max, int count, int scale) {
+		return new TrendPointDTO(bucket, (double) sum / count / scale, (double) min / scale, (double) max / scale);
+	}
+
+	private static LocalDate bucketStart(LocalDate day, TrendResolution resolution) {
+		return switch (resolution) {
+			case DAY -> day;
+			case WEEK -> day.with(DayOfWeek.MONDAY);
+			case MONTH -> day.withDayOfMonth(1);
+		};
+	}
+
+	private static long firstDay(int year) {
+		return LocalDate.of(year, 1, 1).toEpochDay();
+	}
+}
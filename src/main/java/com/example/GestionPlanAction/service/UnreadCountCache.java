@@ -0,0 +1,90 @@
+package com.example.GestionPlanAction.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.GestionPlanAction.repository.NotificationRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Unread notification count of recently active users, loaded on first use. Unread announcements
+ * are added from {@link AnnouncementService}, which keeps them in memory, and read marks not
+ * written yet are subtracted from {@link NotificationReadBuffer}.
+ *
+ * Once a change to a user's notifications commits, a cached count is recounted under the entry's
+ * lock: a load or recount always runs after the commits it follows, so the last one to run sees
+ * them all, whatever order concurrent transactions commit in. Users without an entry are left
+ * alone, their next read loads a fresh count.
+ *
+ * Every value gets a new version from a counter shared by all users, and the ETag is built from
+ * it and from the announcements' version, so a client polling an unchanged count gets a 304 without
+ * any query. Both counters start from the instance's start time so that ETags from before a
+ * restart never match.
+ *
+ * When the cache is full, entries are evicted by {@link BoundedMaps}.
+ */
+@Service
+public class UnreadCountCache {
+
+	public record Entry(long count, String etag) {
+	}
+
+	// Personal notifications only
+	private record Counted(long count, long version) {
+	}
+
+	private final Map<Long, Counted> entries = new ConcurrentHashMap<>();
+
+	private final AtomicLong versions = new AtomicLong(System.currentTimeMillis() * 1000);
+
+	@Autowired
+	private NotificationRepository notificationRepository;
+
+	@Autowired
+	private AnnouncementService announcementService;
+
+	@Autowired
+	private NotificationReadBuffer readBuffer;
+
+	@Value("${app.unreadCountCacheSize:10000}")
+	private int maxSize;
+
+	public UnreadCountCache(MeterRegistry meterRegistry) {
+		Gauge.builder("notifications.unread.cache.size", entries, Map::size).register(meterRegistry);
+	}
+
+	public Entry get(Long userId) {
+		Counted personal = entries.get(userId);
+		if (personal == null) {
+			BoundedMaps.makeRoom(entries, maxSize);
+			personal = entries.computeIfAbsent(userId, this::load);
+		}
+		// Version first: a change meanwhile leaves an older ETag, never a newer one on an older count
+		// Buffered marks only grow until written, which moves the personal version
+		long announcements = announcementService.getVersion();
+		int buffered = readBuffer.countPending(userId);
+		long count = Math.max(0, personal.count() - buffered) + announcementService.countUnread(userId);
+		return new Entry(count, "\"" + userId + "-" + personal.version() + "-" + buffered + "-" + announcements + "\"");
+	}
+
+	// Before the notification streams read the new count
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onNotificationChange(NotificationChangeEvent event) {
+		entries.computeIfPresent(event.getUserId(), (userId, entry) -> load(userId));
+	}
+
+	private Counted load(Long userId) {
+		return new Counted(notificationRepository.countByUtilisateurIdAndRecuFalse(userId), versions.incrementAndGet());
+	}
+}
@@ -0,0 +1,245 @@
+package com.example.GestionPlanAction.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Immutable compressed set of user ids, in the spirit of roaring bitmaps.
+ *
+ * Ids are split on their low 16 bits: each high part that has members gets a container holding
+ * the low parts, a sorted char array while it has at most 4096 members, a 65536-bit bitmap beyond,
+ * whichever is smaller: a sparse set takes two bytes per member, a range of 65536 ids read by
+ * everyone takes 8 KB.
+ *
+ * {@link #with} returns a new set sharing the untouched containers, so readers never lock.
+ */
+public final class UserIdBitmap {
+
+	public static final UserIdBitmap EMPTY = new UserIdBitmap(new long[0], new Object[0], new int[0]);
+
+	// Beyond this many members an array container is larger than a bitmap one
+	private static final int ARRAY_MAX = 4096;
+
+	private static final int BITMAP_WORDS = 1024;
+
+	private final long[] keys;
+
+	// char[] or long[BITMAP_WORDS], one per key
+	private final Object[] containers;
+
+	private final int[] cardinalities;
+
+	private UserIdBitmap(long[] keys, Object[] containers, int[] cardinalities) {
+		this.keys = keys;
+		this.containers = containers;
+		this.cardinalities = cardinalities;
+	}
+
+	public boolean contains(long id) {
+		int index = Arrays.binarySearch(keys, id >>> 16);
+		if (index < 0) {
+			return false;
+		}
+		char low = (char) id;
+		Object container = containers[index];
+		if (container instanceof char[] array) {
+			return Arrays.binarySearch(array, 0, cardinalities[index], low) >= 0;
+		}
+		return (((long[]) container)[low >>> 6] & (1L << low)) != 0;
+	}
+
+	public int cardinality() {
+		int total = 0;
+		for (int cardinality : cardinalities) {
+			total += cardinality;
+		}
+		return total;
+	}
+
+	/** This set plus id, or this very set when id is already a member. */
+	public UserIdBitmap with(long id) {
+		if (id < 0) {
+			throw new IllegalArgumentException("Identifiant négatif: " + id);
+		}
+		if (contains(id)) {
+			return this;
+		}
+		long key = id >>> 16;
+		char low = (char) id;
+		int index = Arrays.binarySearch(keys, key);
+		if (index < 0) {
+			int at = -index - 1;
+			return new UserIdBitmap(insert(keys, at, key), insert(containers, at, new char[] { low }),
+					insert(cardinalities, at, 1));
+		}
+		Object[] newContainers = containers.clone();
+		int[] newCardinalities = cardinalities.clone();
+		newContainers[index] = add(containers[index], cardinalities[index], low);
+		newCardinalities[index]++;
+		return new UserIdBitmap(keys, newContainers, newCardinalities);
+	}
+
+	/** Union of both sets, merged container by container. */
+	public UserIdBitmap or(UserIdBitmap other) {
+		int capacity = keys.length + other.keys.length;
+		long[] newKeys = new long[capacity];
+		Object[] newContainers = new Object[capacity];
+		int[] newCardinalities = new int[capacity];
+		int i = 0;
+		int j = 0;
+		int n = 0;
+		while (i < keys.length || j < other.keys.length) {
+			if (j == other.keys.length || (i < keys.length && keys[i] < other.keys[j])) {
+				newKeys[n] = keys[i];
+				newContainers[n] = containers[i];
+				newCardinalities[n++] = cardinalities[i++];
+			} else if (i == keys.length || other.keys[j] < keys[i]) {
+				newKeys[n] = other.keys[j];
+				newContainers[n] = other.containers[j];
+				newCardinalities[n++] = other.cardinalities[j++];
+			} else {
+				long[] words = toWords(containers[i]);
+				long[] others = toWords(other.containers[j]);
+				int cardinality = 0;
+				for (int word = 0; word < BITMAP_WORDS; word++) {
+					words[word] |= others[word];
+					cardinality += Long.bitCount(words[word]);
+				}
+				newKeys[n] = keys[i];
+				newContainers[n] = cardinality <= ARRAY_MAX ? toArray(words, cardinality) : words;
+				newCardinalities[n++] = cardinality;
+				i++;
+				j++;
+			}
+		}
+		return new UserIdBitmap(Arrays.copyOf(newKeys, n), Arrays.copyOf(newContainers, n),
+				Arrays.copyOf(newCardinalities, n));
+	}
+
+	/** Container count, then per container its key, its cardinality and its array or bitmap. */
+	public byte[] encode() {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeInt(keys.length);
+			for (int i = 0; i < keys.length; i++) {
+				out.writeLong(keys[i]);
+				out.writeInt(cardinalities[i]);
+				if (containers[i] instanceof char[] array) {
+					for (int j = 0; j < cardinalities[i]; j++) {
+						out.writeChar(array[j]);
+					}
+				} else {
+					for (long word : (long[]) containers[i]) {
+						out.writeLong(word);
+					}
+				}
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+	public static UserIdBitmap decode(byte[] bytes) {
+		if (bytes == null || bytes.length == 0) {
+			return EMPTY;
+		}
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+			int count = in.readInt();
+			long[] keys = new long[count];
+			Object[] containers = new Object[count];
+			int[] cardinalities = new int[count];
+			for (int i = 0; i < count; i++) {
+				keys[i] = in.readLong();
+				cardinalities[i] = in.readInt();
+				if (cardinalities[i] <= ARRAY_MAX) {
+					char[] array = new char[cardinalities[i]];
+					for (int j = 0; j < array.length; j++) {
+						array[j] = in.readChar();
+					}
+					containers[i] = array;
+				} else {
+					long[] words = new long[BITMAP_WORDS];
+					for (int word = 0; word < BITMAP_WORDS; word++) {
+						words[word] = in.readLong();
+					}
+					containers[i] = words;
+				}
+			}
+			return new UserIdBitmap(keys, containers, cardinalities);
+		} catch (IOException e) {
+			throw new IllegalStateException("Bitmap de lecture illisible", e);
+		}
+	}
+
+	// Array containers grow by copy, and turn into a bitmap past ARRAY_MAX members
+	private static Object add(Object container, int cardinality, char low) {
+		if (container instanceof char[] array) {
+			if (cardinality < ARRAY_MAX) {
+				int at = -Arrays.binarySearch(array, 0, cardinality, low) - 1;
+				char[] grown = new char[cardinality + 1];
+				System.arraycopy(array, 0, grown, 0, at);
+				grown[at] = low;
+				System.arraycopy(array, at, grown, at + 1, cardinality - at);
+				return grown;
+			}
+			long[] words = toWords(array);
+			words[low >>> 6] |= 1L << low;
+			return words;
+		}
+		long[] words = ((long[]) container).clone();
+		words[low >>> 6] |= 1L << low;
+		return words;
+	}
+
+	// A fresh bitmap copy of any container
+	private static long[] toWords(Object container) {
+		if (container instanceof char[] array) {
+			long[] words = new long[BITMAP_WORDS];
+			for (char low : array) {
+				words[low >>> 6] |= 1L << low;
+			}
+			return words;
+		}
+		return ((long[]) container).clone();
+	}
+
+	private static char[] toArray(long[] words, int cardinality) {
+		char[] array = new char[cardinality];
+		int n = 0;
+		for (int word = 0; word < BITMAP_WORDS; word++) {
+			for (long bits = words[word]; bits != 0; bits &= bits - 1) {
+				array[n++] = (char) ((word << 6) | Long.numberOfTrailingZeros(bits));
+			}
+		}
+		return array;
+	}
+
+	private static long[] insert(long[] values, int at, long value) {
+		long[] result = new long[values.length + 1];
+		System.arraycopy(values, 0, result, 0, at);
+		result[at] = value;
+		System.arraycopy(values, at, result, at + 1, values.length - at);
+		return result;
+	}
+
+	private static int[] insert(int[] values, int at, int value) {
+		int[] result = new int[values.length + 1];
+		System.arraycopy(values, 0, result, 0, at);
+		result[at] = value;
+		System.arraycopy(values, at, result, at + 1, values.length - at);
+		return result;
+	}
+
+	private static Object[] insert(Object[] values, int at, Object value) {
+		Object[] result = new Object[values.length + 1];
+		System.arraycopy(values, 0, result, 0, at);
+		result[at] = value;
+		System.arraycopy(values, at, result, at + 1, values.length - at);
+		return result;
+	}
+}
@@ -1,13 +1,16 @@
 package com.example.GestionPlanAction.service;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import com.example.GestionPlanAction.dto.ProfilDTO;
@@ -15,12 +18,17 @@ import com.example.GestionPlanAction.dto.ServiceLineDTO;
 import com.example.GestionPlanAction.dto.UserProfileDTO;
 import com.example.GestionPlanAction.dto.UserResponseDTO;
 import com.example.GestionPlanAction.dto.UserWithProfilesDTO;
+import com.example.GestionPlanAction.enums.AuditOperation;
 import com.example.GestionPlanAction.model.Profil;
 import com.example.GestionPlanAction.model.ServiceLine;
 import com.example.GestionPlanAction.model.User;
+import com.example.GestionPlanAction.repository.AuditRepository;
+import com.example.GestionPlanAction.repository.NotificationRepository;
 import com.example.GestionPlanAction.repository.ProfilRepository;
 import com.example.GestionPlanAction.repository.ServiceLineRepository;
 import com.example.GestionPlanAction.repository.UserRepository;
+import com.example.GestionPlanAction.repository.VariableActionRepository;
+import com.example.GestionPlanAction.security.TokenEpochRegistry;
 
 import jakarta.transaction.Transactional;
 
@@ -36,12 +44,37 @@ public class UserServiceImpl implements UserService {
 	@Autowired
 	private ProfilRepository profilRepository;
 
+	@Autowired
+	private TokenEpochRegistry tokenEpochs;
+
+	@Autowired
+	private ReferenceData referenceData;
+
+	@Autowired
+	private VariableActionRepository variableActionRepository;
+
+	@Autowired
+	private ProgressRollupService progressRollupService;
+
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	@Autowired
+	private NotificationRepository notificationRepository;
+
+	@Autowired
+	private AuditRepository auditRepository;
+
+	@Autowired
+	private NotificationReadBuffer readBuffer;
+
 	@Override
 	public List<UserResponseDTO> getAll() {
 		return repository.findAll() // ← use fetch-join
 				.stream().map(this::convertToResponseDTO).collect(Collectors.toList());
 	}
 
+	@Audited(entity = User.class, operation = AuditOperation.READ)
 	@Override
 	public UserResponseDTO getById(Long id) {
 		User u = repository.findByIdWithProfiles(id) // ← already fetches profils+serviceLine
@@ -49,11 +82,15 @@ public class UserServiceImpl implements UserService {
 		return convertToResponseDTO(u);
 	}
 
+	@Audited(entity = User.class, operation = AuditOperation.CREATE)
 	@Override
 	public User create(User user) {
-		return repository.save(user);
+		User saved = repository.save(user);
+		eventPublisher.publishEvent(new DashboardCounterEvent().add(DashboardCounters.USERS, 1));
+		return saved;
 	}
 
+	@Audited(entity = User.class, operation = AuditOperation.UPDATE)
 	@Override
 	public User update(Long id, User updated) {
 		User existing = findEntityById(id);
@@ -63,26 +100,53 @@ public class UserServiceImpl implements UserService {
 		existing.setUsername(updated.getUsername());
 		existing.setMotDePasse(updated.getMotDePasse());
 		existing.setProfils(updated.getProfils());
-		existing.setServiceLine(updated.getServiceLine());
-		return repository.save(existing);
+		User saved = isServiceLineChange(existing, updated.getServiceLine())
+				? moveToServiceLine(existing, updated.getServiceLine())
+				: repository.save(existing);
+		// Username, roles or service line may have changed: outstanding tokens are stale
+		tokenEpochs.bump(id);
+		return saved;
+	}
+
+	private boolean isServiceLineChange(User user, ServiceLine serviceLine) {
+		Long current = user.getServiceLine() != null ? user.getServiceLine().getId() : null;
+		Long next = serviceLine != null ? serviceLine.getId() : null;
+		return !Objects.equals(current, next);
 	}
 
+	// The user's VAs now count for another service line in the progress roll-up
+	private User moveToServiceLine(User user, ServiceLine serviceLine) {
+		List<Long> planIds = variableActionRepository.findPlanActionIdsByResponsableId(user.getId());
+		return progressRollupService.restructure(planIds, () -> {
+			user.setServiceLine(serviceLine);
+			eventPublisher.publishEvent(new DashboardCounterEvent());
+			return repository.save(user);
+		});
+	}
+
+	@Audited(entity = User.class, operation = AuditOperation.DELETE)
 	@Override
+	@Transactional
 	public void delete(Long id) {
-		repository.deleteById(id);
+		deleteUsers(List.of(id));
 	}
 
+	@Audited(entity = User.class, operation = AuditOperation.CREATE)
 	@Override
 	public User createWithRelations(User user, Long serviceLineId, Set<Long> profileIds) {
-		if (serviceLineId != null) {
-			user.setServiceLine(serviceLineRepository.findById(serviceLineId).orElse(null));
+		// Checked against the reference data, then referenced without loading it
+		if (serviceLineId != null && referenceData.getServiceLine(serviceLineId) != null) {
+			user.setServiceLine(serviceLineRepository.getReferenceById(serviceLineId));
 		}
 		if (profileIds != null && !profileIds.isEmpty()) {
 			user.setProfils(new HashSet<>(profilRepository.findAllById(profileIds)));
 		}
-		return repository.save(user);
+		User saved = repository.save(user);
+		eventPublisher.publishEvent(new DashboardCounterEvent().add(DashboardCounters.USERS, 1));
+		return saved;
 	}
 
+	@Audited(entity = User.class, operation = AuditOperation.UPDATE)
 	@Override
 	@Transactional
 	public UserResponseDTO updateWithRelations(Long id, UserProfileDTO user) {
@@ -98,13 +162,14 @@ public class UserServiceImpl implements UserService {
 
 		// ✅ SAFE: Update profils using managed entities
 		if (user.getRoles() != null && !user.getRoles().isEmpty()) {
-			// First, get managed Profil entities from database
-			Set<Profil> managedProfils = new HashSet<>();
+			// Checked against the reference data, then loaded in one query: proxies would each load
+			// on their first hashCode
 			for (Long profilId : user.getRoles()) {
-				Profil managedProfil = profilRepository.findById(profilId)
-						.orElseThrow(() -> new RuntimeException("Profil introuvable avec l'ID: " + profilId));
-				managedProfils.add(managedProfil);
+				if (referenceData.getProfil(profilId) == null) {
+					throw new RuntimeException("Profil introuvable avec l'ID: " + profilId);
+				}
 			}
+			Set<Profil> managedProfils = new HashSet<>(profilRepository.findAllById(user.getRoles()));
 
 			// Clear existing profils safely
 			existing.getProfils().clear();
@@ -115,12 +180,19 @@ public class UserServiceImpl implements UserService {
 
 		// ✅ SAFE: Update service line using managed entity
 		if (user.getServiceLine() != null) {
-			ServiceLine managedServiceLine = serviceLineRepository.findById(user.getServiceLine()).orElseThrow(
-					() -> new RuntimeException("Ligne de service introuvable avec l'ID: " + user.getServiceLine()));
-			existing.setServiceLine(managedServiceLine);
+			// Checked against the reference data, then referenced without loading it
+			if (referenceData.getServiceLine(user.getServiceLine()) == null) {
+				throw new RuntimeException("Ligne de service introuvable avec l'ID: " + user.getServiceLine());
+			}
+			ServiceLine managedServiceLine = serviceLineRepository.getReferenceById(user.getServiceLine());
+			if (isServiceLineChange(existing, managedServiceLine)) {
+				moveToServiceLine(existing, managedServiceLine);
+			}
 		}
 
 		User savedUser = repository.save(existing);
+		// Roles, service line or status may have changed: outstanding tokens are stale
+		tokenEpochs.bump(id);
 		return convertToResponseDTO(savedUser);
 	}
 
@@ -179,17 +251,38 @@ public class UserServiceImpl implements UserService {
 		return userWithProfilesDTOs;
 	}
 
+	@Audited(entity = User.class, operation = AuditOperation.STATUT)
 	public UserResponseDTO updateUserStatus(Long id, Boolean actif) {
 		User user = findEntityById(id);
 		user.setActif(actif);
 		user = repository.save(user);
+		tokenEpochs.bump(id);
 		return convertToResponseDTO(user);
 	}
 
+	@Audited(entity = User.class, operation = AuditOperation.DELETE)
+	@Override
+	@Transactional
 	public void bulkDelete(List<Long> ids) {
-		for (Long id : ids) {
-			delete(id);
+		if (ids != null && !ids.isEmpty()) {
+			deleteUsers(ids);
+		}
+	}
+
+	// In the caller's transaction: child rows go with set-based statements, the users are loaded in
+	// one query and removed one by one so that their profil links and audit entries go with them
+	private void deleteUsers(Collection<Long> ids) {
+		List<User> users = repository.findAllById(ids);
+		if (users.isEmpty()) {
+			return;
 		}
+		List<Long> found = users.stream().map(User::getId).toList();
+		notificationRepository.deleteByUtilisateurIdIn(found);
+		auditRepository.detachUsers(found);
+		found.forEach(readBuffer::discard);
+		repository.deleteAll(users);
+		found.forEach(tokenEpochs::bump);
+		eventPublisher.publishEvent(new DashboardCounterEvent().add(DashboardCounters.USERS, -found.size()));
 	}
 
 	private UserResponseDTO convertToResponseDTO(User user) {
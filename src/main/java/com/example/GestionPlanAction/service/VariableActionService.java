@@ -1,11 +1,24 @@
 package com.example.GestionPlanAction.service;
 
+import com.example.GestionPlanAction.dto.VariableActionTreeDTO;
+import com.example.GestionPlanAction.enums.AuditOperation;
+import com.example.GestionPlanAction.exception.BadRequestException;
 import com.example.GestionPlanAction.model.VariableAction;
+import com.example.GestionPlanAction.repository.VariableActionClosureRepository;
 import com.example.GestionPlanAction.repository.VariableActionRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 @Service
 public class VariableActionService {
@@ -13,47 +26,280 @@ public class VariableActionService {
     @Autowired
     private VariableActionRepository variableActionRepository;
 
+    @Autowired
+    private VariableActionClosureRepository closureRepository;
+
+    @Autowired
+    private ProgressRollupService progressRollupService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     // ✅ Récupérer toutes les variables d'action
     public List<VariableAction> getAllVariableActions() {
         return variableActionRepository.findAll();
     }
 
     // ✅ Récupérer une variable d'action par ID
+    @Audited(entity = VariableAction.class, operation = AuditOperation.READ)
     public VariableAction getVariableActionById(Long id) {
         return variableActionRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Variable d'action non trouvée avec l'ID : " + id));
     }
 
     // ✅ Créer une nouvelle variable d'action
+    @Audited(entity = VariableAction.class, operation = AuditOperation.CREATE)
+    @Transactional
     public VariableAction createVariableAction(VariableAction variableAction) {
-        return variableActionRepository.save(variableAction);
+        return progressRollupService.restructure(planIds(variableAction), () -> {
+            VariableAction saved = variableActionRepository.save(variableAction);
+            link(saved);
+            publishCounters(List.of(), List.of(saved.getId()));
+            return saved;
+        });
     }
 
     // ✅ Mettre à jour une variable d'action existante
+    @Audited(entity = VariableAction.class, operation = AuditOperation.UPDATE)
+    @Transactional
     public VariableAction updateVariableAction(Long id, VariableAction updated) {
         VariableAction existing = getVariableActionById(id);
+        // A VA only moves within its plan, with its sous-VAs: no plan given keeps the current one
+        Long planId = existing.getPlanAction() != null ? existing.getPlanAction().getId() : null;
+        if (updated.getPlanAction() != null && !Objects.equals(planId, updated.getPlanAction().getId())) {
+            throw new BadRequestException("Le plan d'action d'une VA ne peut pas être modifié");
+        }
+        return progressRollupService.restructure(planIds(existing), () -> applyUpdate(existing, updated));
+    }
+
+    private VariableAction applyUpdate(VariableAction existing, VariableAction updated) {
+        Long id = existing.getId();
+        List<Object[]> before = countsByResponsable(List.of(id));
+        Long oldParentId = existing.getVaMere() != null ? existing.getVaMere().getId() : null;
+        Long newParentId = updated.getVaMere() != null ? updated.getVaMere().getId() : null;
+        if (!Objects.equals(oldParentId, newParentId)) {
+            // Same checks as a reparent, the niveau follows the new VA mère
+            move(existing, newParentId);
+        } else {
+            existing.setNiveau(updated.getNiveau());
+        }
 
         existing.setDescription(updated.getDescription());
         existing.setPoids(updated.getPoids());
         existing.setFige(updated.isFige());
-        existing.setNiveau(updated.getNiveau());
-        existing.setVaMere(updated.getVaMere());
+        existing.setAvancement(updated.getAvancement());
         existing.setResponsable(updated.getResponsable());
-        existing.setPlanAction(updated.getPlanAction());
 
-        return variableActionRepository.save(existing);
+        VariableAction saved = variableActionRepository.save(existing);
+        publishCounters(before, List.of(id));
+        return saved;
     }
 
-    // ✅ Supprimer une variable d'action par ID
+    // ✅ Supprimer une variable d'action et toute sa sous-arborescence
+    @Audited(entity = VariableAction.class, operation = AuditOperation.DELETE)
+    @Transactional
     public void deleteVariableAction(Long id) {
-        variableActionRepository.deleteById(id);
+        List<Long> planIds = new ArrayList<>();
+        planIds.add(variableActionRepository.findPlanActionId(id));
+        progressRollupService.restructure(planIds, () -> {
+            List<Long> ids = closureRepository.findDescendantIds(id);
+            if (ids.isEmpty()) {
+                // Not indexed yet, the VA must still exist
+                ids = List.of(getVariableActionById(id).getId());
+            }
+            eventPublisher.publishEvent(new DashboardCounterEvent().addVariableActions(countsByResponsable(ids), -1));
+            closureRepository.deleteByDescendantIds(ids);
+            variableActionRepository.detachParents(ids);
+            variableActionRepository.deleteByIds(ids);
+            return null;
+        });
+    }
+
+    // ✅ Mettre à jour l'avancement d'une variable d'action, propagé aux VA mères et au plan
+    @Audited(entity = VariableAction.class, operation = AuditOperation.UPDATE)
+    @Transactional
+    public VariableActionTreeDTO updateAvancement(Long id, Float avancement) {
+        if (avancement == null || avancement < 0 || avancement > 100) {
+            throw new BadRequestException("L'avancement doit être compris entre 0 et 100");
+        }
+        VariableAction va = getVariableActionById(id);
+        va.setAvancement(avancement);
+        variableActionRepository.save(va);
+        progressRollupService.applyAvancement(id, va.getPlanAction() != null ? va.getPlanAction().getId() : null,
+                avancement);
+        return getSubtree(id);
+    }
+
+    // ✅ Déplacer une variable d'action (et sa sous-arborescence) sous une autre VA mère du même plan
+    @Audited(entity = VariableAction.class, operation = AuditOperation.UPDATE)
+    @Transactional
+    public VariableActionTreeDTO reparent(Long id, Long newParentId) {
+        VariableAction va = getVariableActionById(id);
+        return progressRollupService.restructure(planIds(va), () -> {
+            move(va, newParentId);
+            return getSubtree(id);
+        });
+    }
+
+    // Within the VA's plan, with its sous-VAs
+    private void move(VariableAction va, Long newParentId) {
+        Long id = va.getId();
+        int niveau = 1;
+        if (newParentId != null) {
+            VariableAction parent = getVariableActionById(newParentId);
+            if (parent.getPlanAction() == null || va.getPlanAction() == null
+                    || !parent.getPlanAction().getId().equals(va.getPlanAction().getId())) {
+                throw new BadRequestException("La VA mère doit appartenir au même plan d'action");
+            }
+            niveau = parent.getNiveau() + 1;
+        }
+
+        List<Long> subtree = moveInClosure(id, newParentId);
+        variableActionRepository.shiftNiveau(subtree, niveau - va.getNiveau());
+
+        va.setVaMere(newParentId != null ? variableActionRepository.getReferenceById(newParentId) : null);
+        va.setNiveau(niveau);
+        variableActionRepository.save(va);
+    }
+
+    // ✅ Supprimer toutes les variables d'action d'un plan, l'appelant recalcule l'avancement
+    @Transactional
+    public void deleteByPlanActionId(Long planId) {
+        eventPublisher.publishEvent(new DashboardCounterEvent().addVariableActions(
+                variableActionRepository.countByResponsableAndStatutForPlans(List.of(planId)), -1));
+        closureRepository.deleteByPlanActionId(planId);
+        variableActionRepository.detachParentsByPlanActionId(planId);
+        variableActionRepository.deleteByPlanActionId(planId);
+    }
+
+    // ✅ Arborescence complète des VA d'un plan, en une seule requête
+    public List<VariableActionTreeDTO> getPlanTree(Long planId) {
+        return buildTree(variableActionRepository.findTreeRowsByPlanActionId(planId));
+    }
+
+    // ✅ Sous-arborescence d'une VA, en une seule requête
+    public VariableActionTreeDTO getSubtree(Long id) {
+        List<VariableActionTreeDTO> roots = buildTree(variableActionRepository.findSubtreeRows(id));
+        if (roots.isEmpty()) {
+            throw new RuntimeException("Variable d'action non trouvée avec l'ID : " + id);
+        }
+        return roots.get(0);
     }
 
-    
+    // ✅ VA mères successives, de la mère directe jusqu'à la racine
+    public List<Long> getAncestorIds(Long id) {
+        return closureRepository.findAncestorIds(id);
+    }
+
+    // ✅ Toutes les VA descendantes, la VA elle-même exclue
+    public List<Long> getDescendantIds(Long id) {
+        List<Long> ids = closureRepository.findDescendantIds(id);
+        return ids.isEmpty() ? ids : ids.subList(1, ids.size());
+    }
+
+    // New VAs only, see requireNew
+    @Transactional
 	public void save(List<VariableAction> variableActionsToSave) {
-		
+		requireNew(variableActionsToSave);
+		List<Long> planIds = new ArrayList<>();
+		variableActionsToSave.forEach(va -> planIds.addAll(planIds(va)));
+		progressRollupService.restructure(planIds, () -> {
+			saveAndLink(variableActionsToSave);
+			return null;
+		});
+	}
+
+	private void saveAndLink(List<VariableAction> variableActionsToSave) {
 		variableActionRepository.saveAll(variableActionsToSave);
-		// TODO Auto-generated method stub
-		
+
+		// Parents first, a VA may have its vaMere in the same list
+		Set<Long> pending = new HashSet<>();
+		variableActionsToSave.forEach(va -> pending.add(va.getId()));
+		while (!pending.isEmpty()) {
+			int before = pending.size();
+			for (VariableAction va : variableActionsToSave) {
+				Long parentId = va.getVaMere() != null ? va.getVaMere().getId() : null;
+				if (pending.contains(va.getId()) && (parentId == null || !pending.contains(parentId))) {
+					link(va);
+					pending.remove(va.getId());
+				}
+			}
+			if (pending.size() == before) {
+				throw new BadRequestException("Cycle dans la hiérarchie des variables d'action");
+			}
+		}
+		publishCounters(List.of(), variableActionsToSave.stream().map(VariableAction::getId).toList());
 	}
+
+    // An existing VA would change plan, which an update refuses, and is already in the closure table
+    static void requireNew(Collection<VariableAction> variableActions) {
+        if (variableActions.stream().anyMatch(va -> va.getId() != null)) {
+            throw new BadRequestException("Une variable d'action existante ne peut pas être ajoutée à un autre plan d'action");
+        }
+    }
+
+    private static List<Long> planIds(VariableAction va) {
+        return va.getPlanAction() != null && va.getPlanAction().getId() != null
+                ? List.of(va.getPlanAction().getId())
+                : List.of();
+    }
+
+    private List<Object[]> countsByResponsable(Collection<Long> ids) {
+        return ids.isEmpty() ? List.of() : variableActionRepository.countByResponsableAndStatutForIds(ids);
+    }
+
+    // Moves the given VAs' responsables between dashboard counters, from their counts before the change
+    private void publishCounters(List<Object[]> before, Collection<Long> ids) {
+        eventPublisher.publishEvent(new DashboardCounterEvent()
+                .addVariableActions(before, -1)
+                .addVariableActions(countsByResponsable(ids), 1));
+    }
+
+    // Indexes a freshly saved leaf in the closure table
+    private void link(VariableAction va) {
+        closureRepository.insertSelf(va.getId());
+        if (va.getVaMere() != null) {
+            closureRepository.insertBelow(va.getId(), va.getVaMere().getId());
+        }
+    }
+
+    // Moves the subtree rooted at id below newParentId in the closure table, returns the subtree ids
+    private List<Long> moveInClosure(Long id, Long newParentId) {
+        if (newParentId != null && closureRepository.isAncestorOrSelf(id, newParentId)) {
+            throw new BadRequestException("Une VA ne peut pas être déplacée sous elle-même ou sous une de ses descendantes");
+        }
+        List<Long> subtree = closureRepository.findDescendantIds(id);
+        closureRepository.unlinkSubtree(subtree);
+        if (newParentId != null) {
+            closureRepository.linkSubtree(id, newParentId);
+        }
+        return subtree;
+    }
+
+    // Rows are (id, description, poids, fige, niveau, vaMere id, responsable id, avancement), parents first
+    private static List<VariableActionTreeDTO> buildTree(List<Object[]> rows) {
+        Map<Long, VariableActionTreeDTO> byId = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            VariableActionTreeDTO node = new VariableActionTreeDTO();
+            node.setId((Long) row[0]);
+            node.setDescription((String) row[1]);
+            node.setPoids((Float) row[2]);
+            node.setFige((Boolean) row[3]);
+            node.setNiveau((Integer) row[4]);
+            node.setVaMereId((Long) row[5]);
+            node.setResponsableId((Long) row[6]);
+            node.setAvancement((Float) row[7]);
+            byId.put(node.getId(), node);
+        }
+        List<VariableActionTreeDTO> roots = new ArrayList<>();
+        for (VariableActionTreeDTO node : byId.values()) {
+            VariableActionTreeDTO parent = node.getVaMereId() != null ? byId.get(node.getVaMereId()) : null;
+            if (parent != null) {
+                parent.getSousVAs().add(node);
+            } else {
+                roots.add(node);
+            }
+        }
+        return roots;
+    }
 }
@@ -0,0 +1,132 @@
+package com.example.GestionPlanAction.benchmark;
+
+import com.example.GestionPlanAction.repository.UserRepository;
+import com.example.GestionPlanAction.security.AuthTokenFilter;
+import com.example.GestionPlanAction.security.CustomUserDetailsService;
+import com.example.GestionPlanAction.security.JwtTokenCache;
+import com.example.GestionPlanAction.security.JwtUtils;
+import com.example.GestionPlanAction.security.TokenEpochRegistry;
+import com.example.GestionPlanAction.security.UserPrincipal;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.Key;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of authenticating one request in AuthTokenFilter.
+ *
+ * - legacyThreeParses: what the filter did before, three signature checks per request,
+ *   each decoding the secret and building a new parser (the user lookup is not counted)
+ * - filterUncached: the current filter with the verified-token cache disabled
+ * - filterCached: the current filter, token already verified
+ *
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark.args="AuthTokenFilter -f 1"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthTokenFilterBenchmark {
+
+    private static final String SECRET =
+            "M2Y4ZjNkNzYxYjQ5ZTcwMjU4NGE3NWE1YjdlMzJhNDVkYWIzZTgyMTQ5NzZlNzhlOTQ2MTFhMzI4ZTQwYjYzNA==";
+
+    private String token;
+    private AuthTokenFilter cachedFilter;
+    private AuthTokenFilter uncachedFilter;
+
+    @Setup
+    public void setup() {
+        UserRepository userRepository = Mockito.mock(UserRepository.class);
+        Mockito.when(userRepository.findTokenEpochById(Mockito.anyLong())).thenReturn(Optional.of(0L));
+
+        List<GrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_COLLABORATEUR"));
+        UserPrincipal principal = new UserPrincipal(1L, "Nom", "Prenom", "bench", "bench@example.com",
+                null, true, "SL1", authorities);
+        token = newJwtUtils(userRepository, 10000).generateJwtToken(
+                new UsernamePasswordAuthenticationToken(principal, null, authorities));
+
+        cachedFilter = newFilter(userRepository, 10000);
+        uncachedFilter = newFilter(userRepository, 0);
+    }
+
+    @Benchmark
+    public void legacyThreeParses(Blackhole bh) {
+        Jwts.parserBuilder().setSigningKey(legacyKey()).build().parseClaimsJws(token);
+        bh.consume(Jwts.parserBuilder().setSigningKey(legacyKey()).build()
+                .parseClaimsJws(token).getBody().getSubject());
+        Claims claims = Jwts.parserBuilder().setSigningKey(legacyKey()).build()
+                .parseClaimsJws(token).getBody();
+        bh.consume(claims.get("roles"));
+    }
+
+    @Benchmark
+    public Object filterUncached() throws Exception {
+        return authenticate(uncachedFilter);
+    }
+
+    @Benchmark
+    public Object filterCached() throws Exception {
+        return authenticate(cachedFilter);
+    }
+
+    private Object authenticate(AuthTokenFilter filter) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/plans");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        Object authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+
+    private static Key legacyKey() {
+        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+    }
+
+    private static AuthTokenFilter newFilter(UserRepository userRepository, int cacheSize) {
+        JwtUtils jwtUtils = newJwtUtils(userRepository, cacheSize);
+        AuthTokenFilter filter = new AuthTokenFilter();
+        ReflectionTestUtils.setField(filter, "jwtUtils", jwtUtils);
+        ReflectionTestUtils.setField(filter, "tokenEpochs", ReflectionTestUtils.getField(jwtUtils, "tokenEpochs"));
+        ReflectionTestUtils.setField(filter, "userDetailsService", Mockito.mock(CustomUserDetailsService.class));
+        return filter;
+    }
+
+    private static JwtUtils newJwtUtils(UserRepository userRepository, int cacheSize) {
+        TokenEpochRegistry tokenEpochs = new TokenEpochRegistry();
+        ReflectionTestUtils.setField(tokenEpochs, "userRepository", userRepository);
+        ReflectionTestUtils.setField(tokenEpochs, "transactionTemplate", Mockito.mock(TransactionTemplate.class));
+        ReflectionTestUtils.setField(tokenEpochs, "cacheMs", 5000L);
+        ReflectionTestUtils.setField(tokenEpochs, "maxSize", 10000);
+
+        JwtTokenCache tokenCache = new JwtTokenCache();
+        ReflectionTestUtils.setField(tokenCache, "maxSize", cacheSize);
+
+        JwtUtils jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 86400000);
+        ReflectionTestUtils.setField(jwtUtils, "tokenCache", tokenCache);
+        ReflectionTestUtils.setField(jwtUtils, "tokenEpochs", tokenEpochs);
+        ReflectionTestUtils.invokeMethod(jwtUtils, "init");
+        return jwtUtils;
+    }
+}
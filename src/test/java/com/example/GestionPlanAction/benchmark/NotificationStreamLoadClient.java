@@ -0,0 +1,226 @@
+package com.example.GestionPlanAction.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load test of GET /api/notifications/stream: opens N streams, broadcasts one notification and
+ * measures how long it takes to reach every stream, then how fast another endpoint answers while
+ * the streams are held open.
+ *
+ * All streams use one account, so the server must allow that many per user, e.g.
+ * java -jar ... --app.notificationStreamsPerUser=10000. Both processes need a file descriptor
+ * limit above N (ulimit -n).
+ *
+ * mvn -Pbenchmark test-compile exec:exec \
+ *   -Dbenchmark.main=com.example.GestionPlanAction.benchmark.NotificationStreamLoadClient \
+ *   -Dbenchmark.args="http://localhost:8081 5000 admin admin123"
+ */
+public class NotificationStreamLoadClient {
+
+    // Streams being opened at once, the server accepts connections faster than it can start streams
+    private static final int OPENING = 200;
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(30))
+            .build();
+
+    private final String baseUrl;
+    private final int connections;
+    private String token;
+
+    private final List<Stream> streams = new ArrayList<>();
+    private final Semaphore opening = new Semaphore(OPENING);
+    private final AtomicInteger opened = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicInteger closedByServer = new AtomicInteger();
+    private volatile long broadcastAtNanos;
+    private volatile CountDownLatch delivered;
+
+    public NotificationStreamLoadClient(String baseUrl, int connections) {
+        this.baseUrl = baseUrl;
+        this.connections = connections;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8081";
+        int connections = args.length > 1 ? Integer.parseInt(args[1]) : 5000;
+        String username = args.length > 2 ? args[2] : "admin";
+        String password = args.length > 3 ? args[3] : "admin123";
+
+        NotificationStreamLoadClient loadClient = new NotificationStreamLoadClient(baseUrl, connections);
+        loadClient.login(username, password);
+        loadClient.run();
+        System.exit(0);
+    }
+
+    void login(String username, String password) throws Exception {
+        String body = objectMapper.writeValueAsString(Map.of("usernameOrEmail", username, "motDePasse", password));
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Login failed: HTTP " + response.statusCode());
+        }
+        token = objectMapper.readTree(response.body()).get("token").asText();
+    }
+
+    void run() throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < connections; i++) {
+            opening.acquire();
+            open();
+        }
+        opening.acquire(OPENING);
+        opening.release(OPENING);
+        System.out.printf("Streams opened: %d of %d in %.1f s, %d failed%n",
+                opened.get(), connections, seconds(System.nanoTime() - start), failed.get());
+
+        // Let the initial unread-count events drain before measuring
+        Thread.sleep(2000);
+        System.out.printf("Latency of GET /api/notifications/unread-count with the streams open: %s%n",
+                sampleLatency("/api/notifications/unread-count", 20));
+
+        delivered = new CountDownLatch(opened.get());
+        broadcastAtNanos = System.nanoTime();
+        HttpResponse<Void> broadcast = client.send(authorized("/api/notifications/broadcast")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"audience\":\"ALL\",\"titre\":\"Test de charge\",\"contenu\":\"Test de charge\"}"))
+                .build(), HttpResponse.BodyHandlers.discarding());
+        if (broadcast.statusCode() != 202) {
+            throw new IllegalStateException("Broadcast failed: HTTP " + broadcast.statusCode());
+        }
+
+        boolean all = delivered.await(60, TimeUnit.SECONDS);
+        long[] latencies = streams.stream()
+                .mapToLong(stream -> stream.deliveredAfterNanos)
+                .filter(nanos -> nanos > 0)
+                .sorted()
+                .toArray();
+        System.out.printf("Notification delivered to %d of %d streams%s: p50 %.0f ms, p99 %.0f ms, max %.0f ms%n",
+                latencies.length, opened.get(), all ? "" : " (timed out after 60 s)",
+                millis(percentile(latencies, 50)), millis(percentile(latencies, 99)),
+                millis(percentile(latencies, 100)));
+        System.out.printf("Streams closed by the server: %d%n", closedByServer.get());
+
+        streams.forEach(Stream::cancel);
+    }
+
+    private void open() {
+        Stream stream = new Stream();
+        streams.add(stream);
+        client.sendAsync(authorized("/api/notifications/stream")
+                        .header("Accept", "text/event-stream")
+                        .GET()
+                        .build(),
+                responseInfo -> {
+                    stream.responded = true;
+                    opening.release();
+                    if (responseInfo.statusCode() == 200) {
+                        opened.incrementAndGet();
+                    } else {
+                        failed.incrementAndGet();
+                    }
+                    return HttpResponse.BodySubscribers.fromLineSubscriber(stream);
+                })
+                .whenComplete((response, error) -> {
+                    if (!stream.responded) {
+                        // Connection refused or reset before any response
+                        opening.release();
+                        failed.incrementAndGet();
+                    } else if (!stream.cancelled && (response == null || response.statusCode() == 200)) {
+                        closedByServer.incrementAndGet();
+                    }
+                });
+    }
+
+    private HttpRequest.Builder authorized(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).header("Authorization", "Bearer " + token);
+    }
+
+    private String sampleLatency(String path, int samples) throws Exception {
+        long[] nanos = new long[samples];
+        for (int i = 0; i < samples; i++) {
+            long start = System.nanoTime();
+            client.send(authorized(path).GET().build(), HttpResponse.BodyHandlers.discarding());
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return String.format("p50 %.0f ms, max %.0f ms", millis(percentile(nanos, 50)), millis(percentile(nanos, 100)));
+    }
+
+    private static long percentile(long[] sorted, int percent) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percent / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static double seconds(long nanos) {
+        return nanos / 1e9;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    // One SSE stream, read line by line without holding a thread
+    private class Stream implements Flow.Subscriber<String> {
+        private volatile Flow.Subscription subscription;
+        private volatile boolean responded;
+        private volatile boolean cancelled;
+        private volatile long deliveredAfterNanos;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (line.equals("event:notification") || line.equals("event: notification")) {
+                long at = broadcastAtNanos;
+                if (at != 0 && deliveredAfterNanos == 0) {
+                    deliveredAfterNanos = System.nanoTime() - at;
+                    delivered.countDown();
+                }
+            }
+        }
+
+        @Override
+        public void onError(Throwable error) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+
+        void cancel() {
+            cancelled = true;
+            if (subscription != null) {
+                subscription.cancel();
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.GestionPlanAction.benchmark;
+
+import com.example.GestionPlanAction.dto.PlanActionDTO;
+import com.example.GestionPlanAction.enums.StatutPlanAction;
+import com.example.GestionPlanAction.repository.PlanActionRepository;
+import com.example.GestionPlanAction.service.PlanActionServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Application-side cost of exporting every plan, from the repository rows to the response bytes.
+ * The repository is replaced by a generated row stream so the numbers measure grouping and
+ * serialization, not the database.
+ *
+ * - materialized: what GET /api/plans did before the export, every row then every DTO held in
+ *   lists before Jackson writes the array
+ * - streamed: PlanActionServiceImpl.exportAll as used by GET /api/plans/export, one NDJSON line
+ *   per plan as soon as its rows are complete
+ *
+ * Add -prof gc to compare allocation and heap use.
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark.args="PlanExport -f 1 -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx512m")
+public class PlanExportBenchmark {
+
+    private static final int VAS_PER_PLAN = 5;
+
+    @Param({"1000", "100000"})
+    private int plans;
+
+    private PlanActionServiceImpl streamingService;
+    private PlanActionServiceImpl materializingService;
+    private ObjectWriter planWriter;
+    private ObjectWriter listWriter;
+
+    @Setup
+    public void setup() {
+        // Forward-only cursor versus a result list fully read before grouping
+        streamingService = newService(this::rows);
+        materializingService = newService(() -> rows().collect(Collectors.toList()).stream());
+
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        planWriter = objectMapper.writerFor(PlanActionDTO.class);
+        listWriter = objectMapper.writer();
+    }
+
+    @Benchmark
+    public long materialized() throws IOException {
+        List<PlanActionDTO> dtos = new ArrayList<>();
+        materializingService.exportAll(null, null, dtos::add);
+
+        CountingOutputStream out = new CountingOutputStream();
+        listWriter.writeValue(out, dtos);
+        return out.count;
+    }
+
+    @Benchmark
+    public long streamed() {
+        CountingOutputStream out = new CountingOutputStream();
+        streamingService.exportAll(null, null, plan -> {
+            try {
+                out.write(planWriter.writeValueAsBytes(plan));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return out.count;
+    }
+
+    private static PlanActionServiceImpl newService(Supplier<Stream<Object[]>> rows) {
+        PlanActionRepository repository = Mockito.mock(PlanActionRepository.class);
+        Mockito.when(repository.streamPlanRows(Mockito.any(), Mockito.any()))
+                .thenAnswer(invocation -> rows.get());
+        PlanActionServiceImpl service = new PlanActionServiceImpl();
+        ReflectionTestUtils.setField(service, "repository", repository);
+        return service;
+    }
+
+    // Same shape and order as PlanActionRepository.streamPlanRows, generated lazily
+    private Stream<Object[]> rows() {
+        return LongStream.range(0, (long) plans * VAS_PER_PLAN).mapToObj(i -> {
+            long planId = i / VAS_PER_PLAN + 1;
+            long vaId = i + 1;
+            int rank = (int) (i % VAS_PER_PLAN);
+            return new Object[] {
+                    planId, "Plan " + planId, "Description du plan " + planId, StatutPlanAction.EN_COURS_PLANIFICATION,
+                    1L, 2025, Boolean.FALSE,
+                    vaId, "Variable action " + vaId, 100f / VAS_PER_PLAN, Boolean.FALSE,
+                    rank == 0 ? 1 : 2, rank == 0 ? null : vaId - rank, 7L };
+        });
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
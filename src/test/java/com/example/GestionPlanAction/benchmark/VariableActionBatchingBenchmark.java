@@ -0,0 +1,148 @@
+package com.example.GestionPlanAction.benchmark;
+
+import com.example.GestionPlanAction.GestionPlanActionApplication;
+import com.example.GestionPlanAction.model.Exercice;
+import com.example.GestionPlanAction.model.PlanAction;
+import com.example.GestionPlanAction.model.VariableAction;
+import com.example.GestionPlanAction.repository.ExerciceRepository;
+import com.example.GestionPlanAction.repository.PlanActionRepository;
+import com.example.GestionPlanAction.service.PlanActionService;
+import com.example.GestionPlanAction.service.VariableActionService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inserts of VariableActionService.save and of a plan created with its VAs, on an in-memory H2
+ * database, with JDBC batching off (batch_size 1, one round trip per row as under IDENTITY ids)
+ * and on (the configured 50, ids from the pooled id_generator).
+ *
+ * The statements counter is the mean number of JDBC statements Hibernate prepared per call.
+ * H2 round trips are in-process and cheap: against MySQL over a network the gap is larger.
+ *
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark.args="VariableActionBatching -f 1"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VariableActionBatchingBenchmark {
+
+    @Param({"1", "50"})
+    private int batchSize;
+
+    @Param({"200"})
+    private int vas;
+
+    private ConfigurableApplicationContext context;
+    private VariableActionService variableActionService;
+    private PlanActionService planActionService;
+    private PlanActionRepository planActionRepository;
+    private Statistics statistics;
+    private Exercice exercice;
+
+    // Plan receiving the VAs of the next saveVariableActions call, fresh for each call
+    private PlanAction plan;
+
+    // Reported next to the time: mean JDBC statements per call over the iteration
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Statements {
+        public double statements;
+        private long total;
+        private long calls;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            total = 0;
+            calls = 0;
+        }
+
+        void add(long count) {
+            total += count;
+            calls++;
+            statements = (double) total / calls;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(GestionPlanActionApplication.class)
+                .web(WebApplicationType.NONE)
+                // Command-line arguments, to override application.properties
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:bench;MODE=MySQL;NON_KEYWORDS=USER,VALUE;DATABASE_TO_LOWER=TRUE",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.properties.hibernate.generate_statistics=true",
+                        "--spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize,
+                        "--logging.level.root=WARN");
+        variableActionService = context.getBean(VariableActionService.class);
+        planActionService = context.getBean(PlanActionService.class);
+        planActionRepository = context.getBean(PlanActionRepository.class);
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+
+        exercice = new Exercice();
+        exercice.setAnnee(2025);
+        exercice = context.getBean(ExerciceRepository.class).save(exercice);
+    }
+
+    @Setup(Level.Invocation)
+    public void newPlan() {
+        PlanAction empty = new PlanAction();
+        empty.setTitre("Plan benchmark");
+        empty.setExercice(exercice);
+        plan = planActionRepository.save(empty);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public void saveVariableActions(Statements counter) {
+        List<VariableAction> batch = newVariableActions(plan);
+        long before = statistics.getPrepareStatementCount();
+        variableActionService.save(batch);
+        counter.add(statistics.getPrepareStatementCount() - before);
+    }
+
+    @Benchmark
+    public PlanAction createPlanWithVariableActions(Statements counter) {
+        PlanAction body = new PlanAction();
+        body.setTitre("Plan benchmark");
+        body.setExercice(exercice);
+        body.setVariableActions(newVariableActions(null));
+        long before = statistics.getPrepareStatementCount();
+        PlanAction created = planActionService.create(body);
+        counter.add(statistics.getPrepareStatementCount() - before);
+        return created;
+    }
+
+    private List<VariableAction> newVariableActions(PlanAction planAction) {
+        List<VariableAction> list = new ArrayList<>(vas);
+        for (int i = 0; i < vas; i++) {
+            VariableAction va = new VariableAction();
+            va.setDescription("VA " + i);
+            va.setPoids(100f / vas);
+            va.setNiveau(1);
+            va.setPlanAction(planAction);
+            list.add(va);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.GestionPlanAction.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class AuditArchiveTests {
+
+	private static final LocalDateTime JANUARY = LocalDateTime.of(2025, 1, 10, 8, 30);
+
+	private static final AuditFilter ALL = new AuditFilter(null, null, null, null, null, null, null, null);
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void emptyArchiveFindsNothing() {
+		AuditArchive archive = archive();
+
+		assertTrue(archive.search(ALL, 10).isEmpty());
+		assertEquals(0, archive.count(ALL));
+		assertNull(archive.newestDate());
+	}
+
+	@Test
+	void roundTripsRowsWithMicrosecondsAndNullFields() throws IOException {
+		AuditArchive archive = archive();
+		AuditRow full = new AuditRow(1L, JANUARY.withNano(123_456_000), 3, 7, 42L, "Plan « Été » modifié", 5L);
+		AuditRow bare = new AuditRow(2L, JANUARY.withNano(999_999_000), null, null, null, null, null);
+
+		archive.append(List.of(full, bare));
+
+		assertEquals(List.of(bare, full), archive.search(ALL, 10));
+		assertEquals(bare.date(), archive.newestDate());
+	}
+
+	@Test
+	void searchesAcrossBlocksAndMonthsNewestFirst() throws IOException {
+		AuditArchive archive = archive();
+		List<AuditRow> rows = rows(1, 30);
+		archive.append(rows.subList(0, 10));
+		archive.append(rows.subList(10, 20));
+		// Mapped again after this append, the first search mapped the shorter segment
+		assertEquals(20, archive.search(ALL, 100).size());
+		archive.append(rows.subList(20, 30));
+
+		List<AuditRow> found = archive.search(ALL, 100);
+
+		assertEquals(newestFirst(rows), found);
+		assertEquals(30, archive.count(ALL));
+	}
+
+	@Test
+	void filtersOnEveryCriterion() throws IOException {
+		AuditArchive archive = archive();
+		archive.append(rows(1, 30));
+
+		assertEquals(10, archive.count(new AuditFilter(1L, null, null, null, null, null, null, null)));
+		assertEquals(15, archive.count(new AuditFilter(null, 2, null, null, null, null, null, null)));
+		assertEquals(30, archive.count(new AuditFilter(null, null, 9, null, null, null, null, null)));
+		assertEquals(1, archive.count(new AuditFilter(null, null, null, 7L, null, null, null, null)));
+		// Rows are a day apart from the 10th of January
+		assertEquals(5, archive.count(new AuditFilter(null, null, null, null, JANUARY.plusDays(10),
+				JANUARY.plusDays(15), null, null)));
+	}
+
+	@Test
+	void pagesWithTheDateAndIdCursor() throws IOException {
+		AuditArchive archive = archive();
+		List<AuditRow> rows = new ArrayList<>(rows(1, 20));
+		// Same date as row 10, the id orders them
+		rows.add(new AuditRow(21L, rows.get(9).date(), 1, 9, 21L, null, 1L));
+		rows.add(new AuditRow(22L, rows.get(9).date(), 1, 9, 22L, null, 1L));
+		archive.append(rows.subList(0, 12));
+		archive.append(rows.subList(12, rows.size()));
+
+		List<AuditRow> paged = new ArrayList<>();
+		AuditFilter filter = ALL;
+		List<AuditRow> page;
+		do {
+			page = archive.search(filter, 3);
+			paged.addAll(page);
+			if (!page.isEmpty()) {
+				AuditRow last = page.get(page.size() - 1);
+				filter = new AuditFilter(null, null, null, null, null, null, last.date(), last.id());
+			}
+		} while (page.size() == 3);
+
+		assertEquals(newestFirst(rows), paged);
+	}
+
+	@Test
+	void dropsDuplicatesOfRowsArchivedTwice() throws IOException {
+		AuditArchive archive = archive();
+		List<AuditRow> rows = rows(1, 10);
+		archive.append(rows);
+		// Archived again after a run interrupted before the rows left the table
+		archive.append(rows.subList(5, 10));
+
+		assertEquals(newestFirst(rows), archive.search(ALL, 100));
+		assertEquals(15, archive.count(ALL));
+	}
+
+	@Test
+	void ignoresAPartialIndexEntryAndAppendsAfterIt() throws IOException {
+		List<AuditRow> rows = rows(1, 20);
+		AuditArchive writer = archive();
+		writer.append(rows.subList(0, 10));
+		writer.append(rows.subList(10, 20));
+
+		// Crash while writing the second index entry
+		Path index = directory.resolve("audit-2025-01.idx");
+		try (FileChannel channel = FileChannel.open(index, StandardOpenOption.WRITE)) {
+			channel.truncate(channel.size() - 10);
+		}
+		AuditArchive restarted = archive();
+
+		assertEquals(newestFirst(rows.subList(0, 10)), restarted.search(ALL, 100));
+
+		// The unindexed block's rows are still in the table and archived again
+		restarted.append(rows.subList(10, 20));
+
+		assertEquals(newestFirst(rows), restarted.search(ALL, 100));
+		assertEquals(20, restarted.count(ALL));
+		assertEquals(newestFirst(rows), archive().search(ALL, 100));
+	}
+
+	@Test
+	void deletesTheMonthsEndedBeforeTheCutoff() throws IOException {
+		AuditArchive archive = archive();
+		AuditRow january = new AuditRow(1L, JANUARY, 1, 9, 1L, null, 1L);
+		AuditRow february = new AuditRow(2L, JANUARY.plusMonths(1), 1, 9, 2L, null, 1L);
+		AuditRow march = new AuditRow(3L, JANUARY.plusMonths(2), 1, 9, 3L, null, 1L);
+		archive.append(List.of(january, february, march));
+
+		assertEquals(2, archive.deleteBefore(LocalDateTime.of(2025, 3, 15, 0, 0)));
+
+		assertEquals(List.of(march), archive.search(ALL, 10));
+		assertFalse(Files.exists(directory.resolve("audit-2025-01.seg")));
+		assertFalse(Files.exists(directory.resolve("audit-2025-02.idx")));
+		assertEquals(List.of(march), archive().search(ALL, 10));
+	}
+
+	private AuditArchive archive() {
+		AuditArchive archive = new AuditArchive();
+		ReflectionTestUtils.setField(archive, "directory", directory);
+		archive.load();
+		return archive;
+	}
+
+	// A day apart, users 1 to 3, actions 1 and 2, in creation order
+	private static List<AuditRow> rows(int first, int last) {
+		List<AuditRow> rows = new ArrayList<>();
+		for (int id = first; id <= last; id++) {
+			rows.add(new AuditRow((long) id, JANUARY.plusDays(id - 1).withNano(id * 1_000), id % 2 + 1, 9, (long) id,
+					"row " + id, (long) (id % 3 + 1)));
+		}
+		return rows;
+	}
+
+	private static List<AuditRow> newestFirst(List<AuditRow> rows) {
+		List<AuditRow> sorted = new ArrayList<>(rows);
+		sorted.sort(AuditRow.NEWEST_FIRST);
+		return sorted;
+	}
+}
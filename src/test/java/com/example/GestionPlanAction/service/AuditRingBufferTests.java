@@ -0,0 +1,176 @@
+package com.example.GestionPlanAction.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+class AuditRingBufferTests {
+
+	@Test
+	void capacityIsRoundedUpToAPowerOfTwo() {
+		assertEquals(4, new AuditRingBuffer<>(1).capacity());
+		assertEquals(4, new AuditRingBuffer<>(4).capacity());
+		assertEquals(8, new AuditRingBuffer<>(5).capacity());
+		assertEquals(1024, new AuditRingBuffer<>(1000).capacity());
+		assertEquals(1024, new AuditRingBuffer<>(1024).capacity());
+	}
+
+	@Test
+	void drainsNothingWhenEmpty() {
+		AuditRingBuffer<String> buffer = new AuditRingBuffer<>(4);
+		List<String> target = new ArrayList<>();
+
+		assertEquals(0, buffer.drainTo(target, 10));
+		assertTrue(target.isEmpty());
+		assertEquals(0, buffer.size());
+	}
+
+	@Test
+	void drainsInOfferOrder() {
+		AuditRingBuffer<String> buffer = new AuditRingBuffer<>(8);
+		buffer.offer("a");
+		buffer.offer("b");
+		buffer.offer("c");
+		assertEquals(3, buffer.size());
+
+		List<String> target = new ArrayList<>();
+		assertEquals(3, buffer.drainTo(target, 10));
+
+		assertEquals(List.of("a", "b", "c"), target);
+		assertEquals(0, buffer.size());
+	}
+
+	@Test
+	void drainStopsAtMax() {
+		AuditRingBuffer<Integer> buffer = new AuditRingBuffer<>(8);
+		for (int i = 0; i < 5; i++) {
+			buffer.offer(i);
+		}
+
+		List<Integer> target = new ArrayList<>();
+		assertEquals(2, buffer.drainTo(target, 2));
+		assertEquals(List.of(0, 1), target);
+		assertEquals(3, buffer.size());
+
+		assertEquals(3, buffer.drainTo(target, 10));
+		assertEquals(List.of(0, 1, 2, 3, 4), target);
+	}
+
+	@Test
+	void fullBufferRejectsOffersUntilDrained() {
+		AuditRingBuffer<Integer> buffer = new AuditRingBuffer<>(4);
+		for (int i = 0; i < 4; i++) {
+			assertTrue(buffer.offer(i));
+		}
+
+		assertFalse(buffer.offer(4));
+		assertEquals(4, buffer.size());
+
+		List<Integer> target = new ArrayList<>();
+		assertEquals(1, buffer.drainTo(target, 1));
+		assertTrue(buffer.offer(4));
+		assertFalse(buffer.offer(5));
+
+		assertEquals(4, buffer.drainTo(target, 10));
+		assertEquals(List.of(0, 1, 2, 3, 4), target);
+	}
+
+	@Test
+	void keepsOrderAcrossManyLaps() {
+		AuditRingBuffer<Integer> buffer = new AuditRingBuffer<>(4);
+		List<Integer> target = new ArrayList<>();
+		int next = 0;
+		// Three at a time so that batches straddle the end of the array
+		for (int lap = 0; lap < 1000; lap++) {
+			for (int i = 0; i < 3; i++) {
+				assertTrue(buffer.offer(next++));
+			}
+			assertEquals(3, buffer.drainTo(target, 10));
+		}
+
+		assertEquals(3000, target.size());
+		for (int i = 0; i < target.size(); i++) {
+			assertEquals(i, target.get(i));
+		}
+	}
+
+	@Test
+	void drainedSlotIsReusedOneLapLater() {
+		AuditRingBuffer<Object> buffer = new AuditRingBuffer<>(4);
+		buffer.offer("first");
+		buffer.drainTo(new ArrayList<>(), 1);
+
+		for (int i = 0; i < 4; i++) {
+			assertTrue(buffer.offer(i));
+		}
+		List<Object> target = new ArrayList<>();
+		assertEquals(4, buffer.drainTo(target, 10));
+		assertEquals(List.of(0, 1, 2, 3), target);
+	}
+
+	@Test
+	@Timeout(value = 60, unit = TimeUnit.SECONDS)
+	void concurrentProducersLoseNothingAndKeepTheirOwnOrder() throws Exception {
+		int producers = 8;
+		int perProducer = 20_000;
+		AuditRingBuffer<Long> buffer = new AuditRingBuffer<>(1024);
+		CountDownLatch start = new CountDownLatch(1);
+
+		List<Thread> threads = new ArrayList<>();
+		for (int p = 0; p < producers; p++) {
+			long producer = p;
+			Thread thread = new Thread(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+				for (long i = 0; i < perProducer; i++) {
+					// Producer in the high bits, its own sequence in the low ones
+					while (!buffer.offer(producer << 32 | i)) {
+						Thread.yield();
+					}
+				}
+			});
+			thread.start();
+			threads.add(thread);
+		}
+
+		long[] nextExpected = new long[producers];
+		int total = producers * perProducer;
+		int received = 0;
+		List<Long> batch = new ArrayList<>();
+		start.countDown();
+		while (received < total) {
+			batch.clear();
+			if (buffer.drainTo(batch, 256) == 0) {
+				Thread.yield();
+				continue;
+			}
+			for (long element : batch) {
+				int producer = (int) (element >>> 32);
+				assertEquals(nextExpected[producer]++, element & 0xFFFFFFFFL, "producer " + producer);
+			}
+			received += batch.size();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertEquals(total, received);
+		for (long count : nextExpected) {
+			assertEquals(perProducer, count);
+		}
+		assertEquals(0, buffer.size());
+		assertEquals(0, buffer.drainTo(batch, 10));
+	}
+}
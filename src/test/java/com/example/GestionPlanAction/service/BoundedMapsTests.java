@@ -0,0 +1,66 @@
+package com.example.GestionPlanAction.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class BoundedMapsTests {
+
+	@Test
+	void leavesAMapWithRoomAlone() {
+		Map<Integer, Integer> map = filled(99);
+
+		BoundedMaps.makeRoom(map, 100, value -> true);
+
+		assertEquals(99, map.size());
+	}
+
+	@Test
+	void dropsStaleEntriesFirst() {
+		Map<Integer, Integer> map = filled(100);
+
+		BoundedMaps.makeRoom(map, 100, value -> value % 2 == 0);
+
+		assertEquals(50, map.size());
+		assertFalse(map.values().stream().anyMatch(value -> value % 2 == 0));
+	}
+
+	@Test
+	void dropsATenthWhenNothingIsStale() {
+		Map<Integer, Integer> map = filled(100);
+
+		BoundedMaps.makeRoom(map, 100);
+
+		assertEquals(90, map.size());
+	}
+
+	@Test
+	void dropsAtLeastOneEntryFromASmallMap() {
+		Map<Integer, Integer> map = filled(5);
+
+		BoundedMaps.makeRoom(map, 5);
+
+		assertEquals(4, map.size());
+	}
+
+	@Test
+	void bringsAnOverfullMapBackUnderTheBound() {
+		Map<Integer, Integer> map = filled(120);
+
+		BoundedMaps.makeRoom(map, 100);
+
+		assertEquals(90, map.size());
+	}
+
+	private static Map<Integer, Integer> filled(int size) {
+		Map<Integer, Integer> map = new HashMap<>();
+		for (int i = 0; i < size; i++) {
+			map.put(i, i);
+		}
+		return map;
+	}
+}
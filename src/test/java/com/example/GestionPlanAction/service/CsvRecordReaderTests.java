@@ -0,0 +1,95 @@
+package com.example.GestionPlanAction.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class CsvRecordReaderTests {
+
+	@Test
+	void splitsOnTheSeparator() throws IOException {
+		CsvRecordReader csv = reader("a,b,c\nd;e\n");
+
+		assertEquals(List.of("a", "b", "c"), csv.next(','));
+		assertEquals(List.of("d", "e"), csv.next(';'));
+		assertNull(csv.next(','));
+	}
+
+	@Test
+	void keepsEmptyCells() throws IOException {
+		CsvRecordReader csv = reader(",a,,\n\n");
+
+		assertEquals(List.of("", "a", "", ""), csv.next(','));
+		assertEquals(List.of(""), csv.next(','));
+	}
+
+	@Test
+	void quotedCellsHoldSeparatorsAndEscapedQuotes() throws IOException {
+		CsvRecordReader csv = reader("\"a,b\",\"say \"\"hi\"\"\",\"\"\n");
+
+		assertEquals(List.of("a,b", "say \"hi\"", ""), csv.next(','));
+	}
+
+	@Test
+	void textAroundQuotesIsKept() throws IOException {
+		CsvRecordReader csv = reader("x\"a,b\"y,z\n");
+
+		assertEquals(List.of("xa,by", "z"), csv.next(','));
+	}
+
+	@Test
+	void quotedCellSpansSeveralLines() throws IOException {
+		CsvRecordReader csv = reader("h1,h2\n1,\"first line\nsecond, still quoted\n\"\n2,after\n");
+
+		csv.next(',');
+		assertEquals(List.of("1", "first line\nsecond, still quoted\n"), csv.next(','));
+		assertEquals(2, csv.getRecordLine());
+		assertFalse(csv.isUnterminated());
+
+		assertEquals(List.of("2", "after"), csv.next(','));
+		assertEquals(5, csv.getRecordLine());
+	}
+
+	@Test
+	void escapedQuoteAtTheStartOfAContinuationLine() throws IOException {
+		CsvRecordReader csv = reader("\"a\n\"\"b\"\"\",c\n");
+
+		assertEquals(List.of("a\n\"b\"", "c"), csv.next(','));
+	}
+
+	@Test
+	void unterminatedQuoteReadsToTheEndOfTheFile() throws IOException {
+		CsvRecordReader csv = reader("ok,1\nbad,\"open\nrest,2\n");
+
+		assertEquals(List.of("ok", "1"), csv.next(','));
+		assertFalse(csv.isUnterminated());
+
+		assertEquals(List.of("bad", "open\nrest,2"), csv.next(','));
+		assertTrue(csv.isUnterminated());
+		assertEquals(2, csv.getRecordLine());
+		assertNull(csv.next(','));
+	}
+
+	@Test
+	void headerLineCanBeInspectedBeforeParsing() throws IOException {
+		CsvRecordReader csv = reader("planRef;titre\nP1;\"Plan; un\"\n");
+
+		String header = csv.readLine();
+		assertEquals(List.of("planRef", "titre"), csv.parse(header, ';'));
+		assertEquals(1, csv.getRecordLine());
+		assertEquals(List.of("P1", "Plan; un"), csv.next(';'));
+		assertEquals(2, csv.getRecordLine());
+	}
+
+	private static CsvRecordReader reader(String content) {
+		return new CsvRecordReader(new BufferedReader(new StringReader(content)));
+	}
+}
@@ -0,0 +1,135 @@
+package com.example.GestionPlanAction.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.GestionPlanAction.dto.PlanActionDTO;
+import com.example.GestionPlanAction.dto.VariableActionDTO;
+import com.example.GestionPlanAction.enums.StatutPlanAction;
+
+class PlanActionRowGrouperTests {
+
+	private final List<PlanActionDTO> emitted = new ArrayList<>();
+	private final PlanActionRowGrouper grouper = new PlanActionRowGrouper(emitted::add);
+
+	@Test
+	void groupsTheRowsOfOnePlan() {
+		grouper.accept(row(1L, 10L, null, null));
+		grouper.accept(row(1L, 11L, 10L, 7L));
+		grouper.finish();
+
+		assertEquals(1, emitted.size());
+		PlanActionDTO plan = emitted.get(0);
+		assertEquals(1L, plan.getId());
+		assertEquals("Plan 1", plan.getTitre());
+		assertEquals("Description 1", plan.getDescription());
+		assertEquals("EN_COURS_PLANIFICATION", plan.getStatut());
+		assertEquals(3L, plan.getExercice().getId());
+		assertEquals(2025, plan.getExercice().getAnnee());
+		assertEquals(false, plan.getExercice().getVerrouille());
+
+		List<VariableActionDTO> vas = plan.getVariableActions();
+		assertEquals(2, vas.size());
+		VariableActionDTO root = vas.get(0);
+		assertEquals(10L, root.getId());
+		assertEquals("VA 10", root.getDescription());
+		assertEquals(50f, root.getPoids());
+		assertEquals(true, root.getFige());
+		assertEquals(1, root.getNiveau());
+		assertNull(root.getVaMere());
+		assertNull(root.getResonableid());
+
+		VariableActionDTO child = vas.get(1);
+		assertEquals("10", child.getVaMere());
+		assertEquals(2, child.getNiveau());
+		assertEquals(7L, child.getResonableid().getId());
+	}
+
+	@Test
+	void planWithoutVariableActionsHasAnEmptyList() {
+		grouper.accept(row(1L, null, null, null));
+		grouper.finish();
+
+		assertEquals(1, emitted.size());
+		assertTrue(emitted.get(0).getVariableActions().isEmpty());
+	}
+
+	@Test
+	void planWithoutExerciceOrStatut() {
+		Object[] row = row(1L, null, null, null);
+		row[3] = null;
+		row[4] = null;
+		row[5] = null;
+		row[6] = null;
+
+		grouper.accept(row);
+		grouper.finish();
+
+		assertNull(emitted.get(0).getStatut());
+		assertNull(emitted.get(0).getExercice());
+	}
+
+	@Test
+	void emitsEachPlanAsSoonAsTheNextOneStarts() {
+		grouper.accept(row(1L, 10L, null, null));
+		grouper.accept(row(1L, 11L, null, null));
+		assertTrue(emitted.isEmpty());
+
+		grouper.accept(row(2L, 20L, null, null));
+		assertEquals(1, emitted.size());
+		assertEquals(2, emitted.get(0).getVariableActions().size());
+
+		grouper.accept(row(3L, null, null, null));
+		assertEquals(2, emitted.size());
+		assertEquals(List.of(20L), vaIds(emitted.get(1)));
+
+		grouper.finish();
+		assertEquals(List.of(1L, 2L, 3L), emitted.stream().map(PlanActionDTO::getId).toList());
+	}
+
+	@Test
+	void finishWithoutRowsEmitsNothing() {
+		grouper.finish();
+
+		assertTrue(emitted.isEmpty());
+	}
+
+	@Test
+	void finishTwiceEmitsTheLastPlanOnce() {
+		grouper.accept(row(1L, 10L, null, null));
+		grouper.finish();
+		grouper.finish();
+
+		assertEquals(1, emitted.size());
+	}
+
+	@Test
+	void comparesPlanIdsByValue() {
+		// Ids beyond the Long cache are distinct instances
+		grouper.accept(row(Long.valueOf(1000), 10L, null, null));
+		grouper.accept(row(Long.valueOf(1000), 11L, null, null));
+		grouper.finish();
+
+		assertEquals(1, emitted.size());
+		assertEquals(List.of(10L, 11L), vaIds(emitted.get(0)));
+	}
+
+	// Same columns as PlanActionRepository.findPlanRows
+	private static Object[] row(Long planId, Long vaId, Long vaMereId, Long responsableId) {
+		return new Object[] {
+				planId, "Plan " + planId, "Description " + planId, StatutPlanAction.EN_COURS_PLANIFICATION,
+				3L, 2025, Boolean.FALSE,
+				vaId, vaId != null ? "VA " + vaId : null, vaId != null ? 50f : null, vaId != null ? Boolean.TRUE : null,
+				vaId != null ? (vaMereId != null ? 2 : 1) : null, vaMereId, responsableId };
+	}
+
+	private static List<Long> vaIds(PlanActionDTO plan) {
+		return plan.getVariableActions().stream().map(VariableActionDTO::getId).toList();
+	}
+}
@@ -0,0 +1,127 @@
+package com.example.GestionPlanAction.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+
+import com.example.GestionPlanAction.dto.PlanImportDTO;
+import com.example.GestionPlanAction.dto.PlanImportErrorDTO;
+import com.example.GestionPlanAction.exception.BadRequestException;
+
+// CSV parsing only, validation and writing need the database
+class PlanImportServiceTests {
+
+	private static final String HEADER = "planRef,titre,description,statut,exercice,vaRef,vaMere,vaDescription,niveau,poids,fige,avancement,responsable\n";
+
+	private final PlanImportService service = new PlanImportService();
+	private final List<PlanImportErrorDTO> errors = new ArrayList<>();
+
+	@Test
+	void groupsRowsByPlanRef() throws IOException {
+		List<PlanImportDTO> plans = parse(HEADER
+				+ "P1,Plan un,,EN_COURS_PLANIFICATION,2025,V1,,Racine,1,60,false,10,alice\n"
+				+ "P2,Plan deux,,,,,,,,,,,\n"
+				+ "P1,,,,,V2,V1,Fille,2,\"40,5\",true,,\n");
+
+		assertTrue(errors.isEmpty());
+		assertEquals(2, plans.size());
+		PlanImportDTO first = plans.get(0);
+		assertEquals("P1", first.getRef());
+		assertEquals("Plan un", first.getTitre());
+		assertEquals(2025, first.getExercice());
+		assertEquals(2, first.getLine());
+		assertEquals(2, first.getVariableActions().size());
+		assertEquals("alice", first.getVariableActions().get(0).getResponsable());
+		assertEquals(40.5f, first.getVariableActions().get(1).getPoids());
+		assertEquals("V1", first.getVariableActions().get(1).getVaMere());
+		assertEquals(4, first.getVariableActions().get(1).getLine());
+		assertTrue(plans.get(1).getVariableActions().isEmpty());
+	}
+
+	@Test
+	void quotedCellsMaySpanSeveralLines() throws IOException {
+		List<PlanImportDTO> plans = parse(HEADER
+				+ "P1,Plan un,\"Première ligne\nseconde ligne\",,,V1,,\"VA sur\ndeux lignes\",1,1,false,0,\n"
+				+ "P1,,,,,V2,,Suivante,1,1,false,0,\n");
+
+		assertTrue(errors.isEmpty());
+		PlanImportDTO plan = plans.get(0);
+		assertEquals("Première ligne\nseconde ligne", plan.getDescription());
+		assertEquals("VA sur\ndeux lignes", plan.getVariableActions().get(0).getDescription());
+		// Lines of the file, not records
+		assertEquals(2, plan.getVariableActions().get(0).getLine());
+		assertEquals(5, plan.getVariableActions().get(1).getLine());
+	}
+
+	@Test
+	void unterminatedQuoteIsReportedAndEndsTheFile() throws IOException {
+		List<PlanImportDTO> plans = parse(HEADER
+				+ "P1,Plan un,,,,,,,,,,,\n"
+				+ "P2,\"Plan deux,,,,,,,,,,,\n"
+				+ "P3,Plan trois,,,,,,,,,,,\n");
+
+		assertEquals(List.of("P1"), plans.stream().map(PlanImportDTO::getRef).toList());
+		assertEquals(1, errors.size());
+		assertEquals(3, errors.get(0).getLine());
+		assertEquals("P2", errors.get(0).getPlanRef());
+	}
+
+	@Test
+	void invalidNumberRejectsThePlanWithOneError() throws IOException {
+		List<PlanImportDTO> plans = parse(HEADER
+				+ "P1,Plan un,,,,V1,,Racine,1,beaucoup,false,,\n"
+				+ "P2,Plan deux,,,,V1,,Racine,1,10,false,,\n");
+
+		assertEquals(1, errors.size());
+		assertEquals(2, errors.get(0).getLine());
+		assertEquals("P1", errors.get(0).getPlanRef());
+		assertTrue(errors.get(0).getMessage().startsWith("Valeur numérique invalide"));
+
+		PlanImportDTO rejected = plans.get(0);
+		assertTrue(rejected.isRejected());
+		assertEquals("Plan un", rejected.getTitre());
+		assertFalse(plans.get(1).isRejected());
+	}
+
+	@Test
+	void semicolonSeparatedFile() throws IOException {
+		List<PlanImportDTO> plans = parse("planRef;titre;vaRef;poids\nP1;\"Plan; un\";V1;12,5\n");
+
+		assertEquals("Plan; un", plans.get(0).getTitre());
+		assertEquals(12.5f, plans.get(0).getVariableActions().get(0).getPoids());
+	}
+
+	@Test
+	void skipsBlankLinesAndReportsMissingPlanRef() throws IOException {
+		List<PlanImportDTO> plans = parse(HEADER + "\n   \n,Sans référence,,,,,,,,,,,\nP1,Plan un,,,,,,,,,,,\n");
+
+		assertEquals(1, plans.size());
+		assertEquals(1, errors.size());
+		assertEquals(4, errors.get(0).getLine());
+	}
+
+	@Test
+	void rejectsFileWithoutPlanRefColumn() {
+		assertThrows(BadRequestException.class, () -> parse("titre,vaRef\nPlan,V1\n"));
+	}
+
+	@Test
+	void emptyFileHasNoPlans() throws IOException {
+		assertTrue(parse("").isEmpty());
+	}
+
+	private List<PlanImportDTO> parse(String content) throws IOException {
+		MockMultipartFile file = new MockMultipartFile("file", "plans.csv", "text/csv",
+				content.getBytes(StandardCharsets.UTF_8));
+		return service.parseCsv(file, errors);
+	}
+}
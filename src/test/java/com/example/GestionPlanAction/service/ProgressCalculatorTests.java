@@ -0,0 +1,113 @@
+package com.example.GestionPlanAction.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class ProgressCalculatorTests {
+
+	private static final double DELTA = 1e-9;
+
+	@Test
+	void emptyPlanHasNoProgress() {
+		ProgressCalculator calculator = new ProgressCalculator(List.of());
+
+		assertEquals(0, calculator.getPlanProgress());
+		assertEquals(0, calculator.getPlanWeightSum());
+		assertEquals(0, calculator.getPlanWeightedSum());
+	}
+
+	@Test
+	void leavesKeepTheirOwnAvancement() {
+		ProgressCalculator calculator = new ProgressCalculator(List.of(
+				row(1L, 30f, 100f, null),
+				row(2L, 70f, 0f, null)));
+
+		assertEquals(100, calculator.getNodes().get(1L).progress, DELTA);
+		assertEquals(0, calculator.getNodes().get(2L).progress, DELTA);
+		assertEquals(100, calculator.getPlanWeightSum(), DELTA);
+		assertEquals(3000, calculator.getPlanWeightedSum(), DELTA);
+		assertEquals(30, calculator.getPlanProgress(), DELTA);
+	}
+
+	@Test
+	void parentIsTheWeightedAverageOfItsChildren() {
+		// The parent's own avancement is ignored once it has children
+		ProgressCalculator calculator = new ProgressCalculator(List.of(
+				row(1L, 100f, 5f, null),
+				row(2L, 1f, 100f, 1L),
+				row(3L, 3f, 20f, 1L)));
+
+		assertEquals((1 * 100 + 3 * 20) / 4.0, calculator.getNodes().get(1L).progress, DELTA);
+		assertEquals(40, calculator.getPlanProgress(), DELTA);
+	}
+
+	@Test
+	void progressRollsUpThroughSeveralLevels() {
+		ProgressCalculator calculator = new ProgressCalculator(List.of(
+				row(4L, 1f, 80f, 2L),
+				row(3L, 1f, 40f, 2L),
+				row(2L, 1f, 0f, 1L),
+				row(5L, 1f, 100f, 1L),
+				row(1L, 1f, 0f, null)));
+
+		assertEquals(60, calculator.getNodes().get(2L).progress, DELTA);
+		assertEquals(80, calculator.getNodes().get(1L).progress, DELTA);
+		assertEquals(80, calculator.getPlanProgress(), DELTA);
+	}
+
+	@Test
+	void childrenWithoutWeightFallBackToTheParentAvancement() {
+		ProgressCalculator calculator = new ProgressCalculator(List.of(
+				row(1L, 1f, 25f, null),
+				row(2L, 0f, 100f, 1L)));
+
+		assertEquals(25, calculator.getNodes().get(1L).progress, DELTA);
+		assertEquals(0, calculator.getNodes().get(1L).weightSum, DELTA);
+	}
+
+	@Test
+	void planWithoutWeightHasNoProgress() {
+		ProgressCalculator calculator = new ProgressCalculator(List.<Object[]>of(row(1L, 0f, 100f, null)));
+
+		assertEquals(0, calculator.getPlanProgress());
+	}
+
+	@Test
+	void vaWhoseParentIsNotInThePlanCountsAsARoot() {
+		ProgressCalculator calculator = new ProgressCalculator(List.of(
+				row(1L, 1f, 100f, null),
+				row(2L, 1f, 50f, 99L)));
+
+		assertEquals(2, calculator.getPlanWeightSum(), DELTA);
+		assertEquals(75, calculator.getPlanProgress(), DELTA);
+	}
+
+	@Test
+	void deepChainDoesNotRecurse() {
+		List<Object[]> rows = new ArrayList<>();
+		int depth = 100_000;
+		for (long id = 1; id <= depth; id++) {
+			rows.add(row(id, 1f, id == depth ? 60f : 0f, id == 1 ? null : id - 1));
+		}
+
+		ProgressCalculator calculator = new ProgressCalculator(rows);
+
+		assertEquals(60, calculator.getNodes().get(1L).progress, DELTA);
+		assertEquals(60, calculator.getPlanProgress(), DELTA);
+	}
+
+	@Test
+	void ratioFallsBackWithoutWeight() {
+		assertEquals(7, ProgressCalculator.ratio(0, 0, 7));
+		assertEquals(2.5, ProgressCalculator.ratio(5, 2, 7));
+	}
+
+	// Columns of findProgressRowsByPlanActionId: id, poids, avancement, vaMere id
+	private static Object[] row(Long id, float poids, float avancement, Long parentId) {
+		return new Object[] { id, poids, avancement, parentId };
+	}
+}
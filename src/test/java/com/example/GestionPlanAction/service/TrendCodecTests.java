@@ -0,0 +1,102 @@
+package com.example.GestionPlanAction.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+class TrendCodecTests {
+
+	private static final long FIRST_DAY = 20089; // 2025-01-01
+
+	@Test
+	void emptySegmentEncodesToNothing() {
+		byte[] bytes = TrendCodec.encode(FIRST_DAY, new TreeMap<>());
+
+		assertArrayEquals(new byte[0], bytes);
+		assertTrue(TrendCodec.decode(FIRST_DAY, bytes).isEmpty());
+	}
+
+	@Test
+	void roundTripsNegativeDeltas() {
+		NavigableMap<Long, Long> points = new TreeMap<>();
+		points.put(FIRST_DAY, 50L);
+		points.put(FIRST_DAY + 1, 20L);
+		points.put(FIRST_DAY + 2, -30L);
+		points.put(FIRST_DAY + 3, -31L);
+		points.put(FIRST_DAY + 4, 0L);
+
+		assertEquals(points, roundTrip(points));
+	}
+
+	@Test
+	void roundTripsExtremeValues() {
+		// The deltas overflow, two's complement brings the values back
+		NavigableMap<Long, Long> points = new TreeMap<>();
+		points.put(FIRST_DAY, Long.MAX_VALUE);
+		points.put(FIRST_DAY + 1, Long.MIN_VALUE);
+		points.put(FIRST_DAY + 2, Long.MAX_VALUE);
+		points.put(FIRST_DAY + 3, -1L);
+
+		assertEquals(points, roundTrip(points));
+	}
+
+	@Test
+	void roundTripsGapsBetweenDays() {
+		NavigableMap<Long, Long> points = new TreeMap<>();
+		points.put(FIRST_DAY + 3, 1L);
+		points.put(FIRST_DAY + 200, 2L);
+		points.put(FIRST_DAY + 100_000, 3L);
+
+		assertEquals(points, roundTrip(points));
+	}
+
+	@Test
+	void roundTripsLongSegmentInTwoBytesPerPoint() {
+		// Ten years of daily points with small changes either way
+		Random random = new Random(42);
+		NavigableMap<Long, Long> points = new TreeMap<>();
+		long value = 0;
+		for (long day = FIRST_DAY; day < FIRST_DAY + 3650; day++) {
+			value += random.nextInt(127) - 63;
+			points.put(day, value);
+		}
+
+		byte[] bytes = TrendCodec.encode(FIRST_DAY, points);
+
+		assertEquals(points, TrendCodec.decode(FIRST_DAY, bytes));
+		assertEquals(2 * points.size(), bytes.length);
+	}
+
+	@Test
+	void roundTripsLongSegmentWithLargeSteps() {
+		Random random = new Random(7);
+		NavigableMap<Long, Long> points = new TreeMap<>();
+		long day = FIRST_DAY;
+		for (int i = 0; i < 10_000; i++) {
+			day += 1 + random.nextInt(1000);
+			points.put(day, random.nextLong());
+		}
+
+		assertEquals(points, roundTrip(points));
+	}
+
+	@Test
+	void rejectsVarintLongerThanTenBytes() {
+		byte[] bytes = new byte[11];
+		Arrays.fill(bytes, (byte) 0xFF);
+
+		assertThrows(IllegalStateException.class, () -> TrendCodec.decode(FIRST_DAY, bytes));
+	}
+
+	private static NavigableMap<Long, Long> roundTrip(NavigableMap<Long, Long> points) {
+		return TrendCodec.decode(FIRST_DAY, TrendCodec.encode(FIRST_DAY, points));
+	}
+}
@@ -0,0 +1,216 @@
+package com.example.GestionPlanAction.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+class UserIdBitmapTests {
+
+	// Encoded sizes: container count, then key and cardinality per container
+	private static final int HEADER = 4;
+	private static final int CONTAINER_HEADER = 8 + 4;
+	private static final int BITMAP_BYTES = 8 * 1024;
+
+	@Test
+	void emptySet() {
+		assertEquals(0, UserIdBitmap.EMPTY.cardinality());
+		assertFalse(UserIdBitmap.EMPTY.contains(0));
+		assertSame(UserIdBitmap.EMPTY, UserIdBitmap.decode(null));
+		assertSame(UserIdBitmap.EMPTY, UserIdBitmap.decode(new byte[0]));
+		assertEquals(0, UserIdBitmap.decode(UserIdBitmap.EMPTY.encode()).cardinality());
+	}
+
+	@Test
+	void withAddsWithoutChangingTheOriginal() {
+		UserIdBitmap one = UserIdBitmap.EMPTY.with(42);
+		UserIdBitmap two = one.with(7);
+
+		assertTrue(one.contains(42));
+		assertFalse(one.contains(7));
+		assertEquals(1, one.cardinality());
+		assertTrue(two.contains(7) && two.contains(42));
+		assertEquals(2, two.cardinality());
+		assertFalse(UserIdBitmap.EMPTY.contains(42));
+	}
+
+	@Test
+	void withReturnsTheSameSetForAMember() {
+		UserIdBitmap set = UserIdBitmap.EMPTY.with(42);
+
+		assertSame(set, set.with(42));
+	}
+
+	@Test
+	void withRejectsNegativeIds() {
+		assertThrows(IllegalArgumentException.class, () -> UserIdBitmap.EMPTY.with(-1));
+	}
+
+	@Test
+	void idsAroundAContainerBoundaryLandInTheirOwnContainers() {
+		UserIdBitmap set = UserIdBitmap.EMPTY.with(65535).with(65536).with(0).with(1L << 40);
+
+		assertTrue(set.contains(0));
+		assertTrue(set.contains(65535));
+		assertTrue(set.contains(65536));
+		assertTrue(set.contains(1L << 40));
+		assertFalse(set.contains(65537));
+		assertFalse(set.contains(131071));
+		assertFalse(set.contains((1L << 40) + 65536));
+		assertEquals(4, set.cardinality());
+		// 0 and 65535 share the first container
+		assertEquals(HEADER + 3 * CONTAINER_HEADER + 4 * 2, set.encode().length);
+	}
+
+	@Test
+	void arrayContainerTurnsIntoBitmapPastFourThousandNinetySixMembers() {
+		UserIdBitmap set = UserIdBitmap.EMPTY;
+		for (long id = 0; id < 2 * 4096; id += 2) {
+			set = set.with(id);
+		}
+		assertEquals(4096, set.cardinality());
+		assertEquals(HEADER + CONTAINER_HEADER + 4096 * 2, set.encode().length);
+
+		UserIdBitmap bitmap = set.with(1);
+		assertEquals(4097, bitmap.cardinality());
+		assertEquals(HEADER + CONTAINER_HEADER + BITMAP_BYTES, bitmap.encode().length);
+		assertTrue(bitmap.contains(1));
+		assertTrue(bitmap.contains(8190));
+		assertFalse(bitmap.contains(3));
+		assertFalse(bitmap.contains(8192));
+
+		// Adding to a bitmap container leaves the previous set alone
+		UserIdBitmap grown = bitmap.with(3);
+		assertTrue(grown.contains(3));
+		assertFalse(bitmap.contains(3));
+	}
+
+	@Test
+	void fullContainerHoldsEveryLowPart() {
+		UserIdBitmap set = UserIdBitmap.EMPTY;
+		for (long id = 65536; id < 2 * 65536; id++) {
+			set = set.with(id);
+		}
+
+		assertEquals(65536, set.cardinality());
+		assertTrue(set.contains(65536));
+		assertTrue(set.contains(2 * 65536 - 1));
+		assertFalse(set.contains(65535));
+		assertFalse(set.contains(2 * 65536));
+		assertEquals(HEADER + CONTAINER_HEADER + BITMAP_BYTES, set.encode().length);
+	}
+
+	@Test
+	void orMergesDisjointAndSharedContainers() {
+		UserIdBitmap left = UserIdBitmap.EMPTY.with(1).with(2).with(65536 * 3);
+		UserIdBitmap right = UserIdBitmap.EMPTY.with(2).with(3).with(65536 * 2);
+
+		UserIdBitmap union = left.or(right);
+
+		assertEquals(5, union.cardinality());
+		for (long id : new long[] { 1, 2, 3, 65536 * 2, 65536 * 3 }) {
+			assertTrue(union.contains(id), "missing " + id);
+		}
+		assertEquals(3, left.cardinality());
+		assertEquals(3, right.cardinality());
+	}
+
+	@Test
+	void orWithEmptyKeepsTheMembers() {
+		UserIdBitmap set = UserIdBitmap.EMPTY.with(5).with(70000);
+
+		assertEquals(2, set.or(UserIdBitmap.EMPTY).cardinality());
+		assertEquals(2, UserIdBitmap.EMPTY.or(set).cardinality());
+		assertTrue(UserIdBitmap.EMPTY.or(set).contains(70000));
+	}
+
+	@Test
+	void orOfTwoArraysPastTheLimitGivesABitmap() {
+		UserIdBitmap evens = UserIdBitmap.EMPTY;
+		UserIdBitmap odds = UserIdBitmap.EMPTY;
+		for (long id = 0; id < 6000; id += 2) {
+			evens = evens.with(id);
+			odds = odds.with(id + 1);
+		}
+
+		UserIdBitmap union = evens.or(odds);
+
+		assertEquals(6000, union.cardinality());
+		assertTrue(union.contains(0) && union.contains(5999));
+		assertFalse(union.contains(6000));
+		assertEquals(HEADER + CONTAINER_HEADER + BITMAP_BYTES, union.encode().length);
+	}
+
+	@Test
+	void orOfOverlappingArraysStaysAnArray() {
+		UserIdBitmap left = UserIdBitmap.EMPTY;
+		UserIdBitmap right = UserIdBitmap.EMPTY;
+		for (long id = 0; id < 3000; id++) {
+			left = left.with(id);
+			right = right.with(id + 1000);
+		}
+
+		UserIdBitmap union = left.or(right);
+
+		assertEquals(4000, union.cardinality());
+		assertEquals(HEADER + CONTAINER_HEADER + 4000 * 2, union.encode().length);
+		assertTrue(union.contains(3999));
+		assertFalse(union.contains(4000));
+	}
+
+	@Test
+	void encodeDecodeRoundTripsArrayAndBitmapContainers() {
+		UserIdBitmap set = UserIdBitmap.EMPTY;
+		for (long id = 0; id < 5000; id++) {
+			set = set.with(id);
+		}
+		set = set.with(65536 + 9).with(1L << 33);
+
+		byte[] bytes = set.encode();
+		UserIdBitmap decoded = UserIdBitmap.decode(bytes);
+
+		assertEquals(set.cardinality(), decoded.cardinality());
+		assertTrue(decoded.contains(4999));
+		assertTrue(decoded.contains(65536 + 9));
+		assertTrue(decoded.contains(1L << 33));
+		assertFalse(decoded.contains(5000));
+		assertArrayEquals(bytes, decoded.encode());
+	}
+
+	@Test
+	void matchesASetOfRandomIds() {
+		Random random = new Random(11);
+		Set<Long> expected = new TreeSet<>();
+		UserIdBitmap left = UserIdBitmap.EMPTY;
+		UserIdBitmap right = UserIdBitmap.EMPTY;
+		for (int i = 0; i < 20_000; i++) {
+			// Dense ids in the first containers, a few sparse ones far away
+			long id = i % 10 == 0 ? random.nextInt(Integer.MAX_VALUE) : random.nextInt(200_000);
+			expected.add(id);
+			if (random.nextBoolean()) {
+				left = left.with(id);
+			} else {
+				right = right.with(id);
+			}
+		}
+
+		UserIdBitmap union = UserIdBitmap.decode(left.or(right).encode());
+
+		assertEquals(expected.size(), union.cardinality());
+		for (long id : expected) {
+			assertTrue(union.contains(id), "missing " + id);
+		}
+		for (int i = 0; i < 20_000; i++) {
+			long id = random.nextInt(300_000);
+			assertEquals(expected.contains(id), union.contains(id));
+		}
+	}
+}